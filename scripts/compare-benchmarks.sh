@@ -0,0 +1,36 @@
+#!/bin/bash
+# Compare two JMH json results (mvn -Pbenchmarks verify writes target/jmh-result.json)
+# Usage: ./scripts/compare-benchmarks.sh <baseline.json> <current.json> [max_regression_percent]
+# Exits with 1 when a benchmark got slower than the allowed regression (default 10%)
+
+BASELINE=$1
+CURRENT=$2
+MAX=${3:-10}
+
+if [ -z "$BASELINE" ] || [ -z "$CURRENT" ]; then
+    echo "Usage: $0 <baseline.json> <current.json> [max_regression_percent]"
+    exit 2
+fi
+
+scores() {
+    jq -r '.[] | "\(.benchmark | split(".") | .[-2:] | join("."))\(if .params then "[" + (.params | to_entries | map("\(.key)=\(.value)") | join(",")) + "]" else "" end)\t\(.mode)\t\(.primaryMetric.score)\t\(.primaryMetric.scoreUnit)"' "$1"
+}
+
+FAILED=0
+while IFS=$'\t' read -r NAME MODE SCORE UNIT; do
+    BASE=$(scores "$BASELINE" | awk -F'\t' -v n="$NAME" '$1 == n { print $3 }')
+    if [ -z "$BASE" ]; then
+        printf "%-60s %12.3f %-8s (new)\n" "$NAME" "$SCORE" "$UNIT"
+        continue
+    fi
+    # Throughput is better when higher, all other modes when lower
+    CHANGE=$(awk -v b="$BASE" -v c="$SCORE" -v m="$MODE" 'BEGIN { d = (c - b) / b * 100; if (m == "thrpt") d = -d; printf "%+.1f", d }')
+    STATUS="ok"
+    if awk -v d="$CHANGE" -v max="$MAX" 'BEGIN { exit !(d > max) }'; then
+        STATUS="REGRESSION"
+        FAILED=1
+    fi
+    printf "%-60s %12.3f -> %12.3f %-8s %6s%% %s\n" "$NAME" "$BASE" "$SCORE" "$UNIT" "$CHANGE" "$STATUS"
+done < <(scores "$CURRENT")
+
+exit $FAILED
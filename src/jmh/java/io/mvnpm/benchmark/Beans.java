@@ -0,0 +1,115 @@
+package io.mvnpm.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.mvnpm.creator.PackageFileLocator;
+import io.mvnpm.creator.type.DependencyVersionService;
+import io.mvnpm.creator.type.HashService;
+import io.mvnpm.creator.type.JarService;
+import io.mvnpm.creator.type.PomService;
+import io.mvnpm.creator.type.SourceService;
+import io.mvnpm.creator.type.TgzService;
+import io.mvnpm.creator.utils.ImportMapUtil;
+import io.mvnpm.mavencentral.sync.BundleCreator;
+import io.mvnpm.npm.model.Package;
+
+/**
+ * Wires the creator services by hand, with their default config, so the benchmarks measure the services and not
+ * the container.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public final class Beans {
+
+    public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private Beans() {
+    }
+
+    public static ImportMapUtil importMapUtil() {
+        return inject(new ImportMapUtil(), "objectMapper", OBJECT_MAPPER);
+    }
+
+    public static HashService hashService() {
+        return new HashService();
+    }
+
+    public static PomService pomService() {
+        PomService pomService = inject(new PomService(), "hashService", hashService());
+        inject(pomService, "latestVersionConcurrency", 4);
+        // Without the cache (that needs Quarkus), so every range is converted
+        return inject(pomService, "dependencyVersionService", new DependencyVersionService());
+    }
+
+    public static JarService jarService() {
+        JarService jarService = inject(new JarService(), "importMapUtil", importMapUtil());
+        inject(jarService, "incrementalJarEnabled", true);
+        return inject(jarService, "compressionThreads", Integer.getInteger("mvnpm.compression.threads", 1));
+    }
+
+    public static SourceService sourceService() {
+        return inject(new SourceService(), "compressionThreads", Integer.getInteger("mvnpm.compression.threads", 1));
+    }
+
+    public static TgzService tgzService() {
+        TgzService tgzService = inject(new TgzService(), "connectTimeoutSeconds", 10);
+        inject(tgzService, "timeoutSeconds", 120);
+        return inject(tgzService, "retries", 3);
+    }
+
+    public static PackageFileLocator packageFileLocator(Path userDirectory) {
+        PackageFileLocator packageFileLocator = inject(new PackageFileLocator(), "localM2Directory", ".m2");
+        return inject(packageFileLocator, "localUserDirectory", Optional.of(userDirectory.toString()));
+    }
+
+    public static BundleCreator bundleCreator(PackageFileLocator packageFileLocator) {
+        return inject(new BundleCreator(), "packageFileLocator", packageFileLocator);
+    }
+
+    public static Package readPackage(byte[] packageJson) {
+        try {
+            return OBJECT_MAPPER.readValue(packageJson, Package.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void delete(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.delete(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T inject(T bean, String fieldName, Object value) {
+        try {
+            Field field = bean.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(bean, value);
+            return bean;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can not set " + fieldName + " on " + bean.getClass().getName(), e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.mvnpm.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.mvnpm.creator.PackageFileLocator;
+import io.mvnpm.creator.type.HashService;
+import io.mvnpm.mavencentral.exceptions.MissingFilesForBundleException;
+import io.mvnpm.mavencentral.sync.BundleCreator;
+import io.mvnpm.npm.model.Package;
+
+/**
+ * Creating the bundle that gets uploaded to Central, for small, medium and huge packages.
+ * The pom, jar, sources and javadoc (with hashes and dummy signatures) are created once, the bundle every invocation.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BundleCreatorBenchmark {
+
+    private static final String GROUP_ID = "org.mvnpm";
+
+    @Param({ "small", "medium", "huge" })
+    TarballCorpus.Size size;
+
+    private Path root;
+    private Path bundle;
+    private BundleCreator bundleCreator;
+
+    @Setup(Level.Trial)
+    public void createFiles() throws IOException {
+        root = Files.createTempDirectory("mvnpm-bench");
+        PackageFileLocator packageFileLocator = Beans.packageFileLocator(root);
+        bundleCreator = Beans.bundleCreator(packageFileLocator);
+
+        String artifactId = TarballCorpus.artifactId(size);
+        String base = artifactId + "-" + TarballCorpus.VERSION;
+        Path dir = packageFileLocator.getLocalDirectory(GROUP_ID, artifactId, TarballCorpus.VERSION);
+        Path tgz = TarballCorpus.create(dir, size);
+        Package p = Beans.readPackage(TarballCorpus.packageJson(artifactId, "index.js")
+                .getBytes(StandardCharsets.UTF_8));
+
+        Path pom = dir.resolve(base + ".pom");
+        Beans.pomService().createAndSavePom(p, pom);
+        Path jar = dir.resolve(base + ".jar");
+        Beans.jarService().createAndSaveJar(p, jar, pom, tgz);
+        Path sources = Beans.sourceService().createSource(tgz);
+        Path javadoc = Files.copy(sources, dir.resolve(base + "-javadoc.jar"), StandardCopyOption.REPLACE_EXISTING);
+
+        HashService hashService = Beans.hashService();
+        for (Path file : new Path[] { pom, jar, sources, javadoc }) {
+            hashService.createHashes(file);
+            Files.writeString(Path.of(file + ".asc"),
+                    "-----BEGIN PGP SIGNATURE-----\n" + "A".repeat(600) + "\n-----END PGP SIGNATURE-----\n");
+        }
+        bundle = dir.resolve(base + "-bundle.jar");
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteBundle() {
+        Beans.delete(bundle);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() {
+        Beans.delete(root);
+    }
+
+    @Benchmark
+    public Path bundle() throws MissingFilesForBundleException {
+        return bundleCreator.bundle(GROUP_ID, TarballCorpus.artifactId(size), TarballCorpus.VERSION);
+    }
+}
@@ -0,0 +1,138 @@
+package io.mvnpm.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.mvnpm.creator.type.HashService;
+import io.mvnpm.creator.type.JarService;
+import io.mvnpm.creator.type.PomService;
+import io.mvnpm.creator.type.SourceService;
+import io.mvnpm.creator.utils.ImportMapUtil;
+import io.mvnpm.npm.model.Package;
+
+/**
+ * The steps of creating a package from a tarball (see PackageCreator), for small, medium and huge tarballs.
+ * Every invocation creates the files from scratch, the output is removed after each invocation.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreatorBenchmark {
+
+    @Param({ "small", "medium", "huge" })
+    TarballCorpus.Size size;
+
+    private final JarService jarService = Beans.jarService();
+    private final SourceService sourceService = Beans.sourceService();
+    private final HashService hashService = Beans.hashService();
+    private final PomService pomService = Beans.pomService();
+    private final ImportMapUtil importMapUtil = Beans.importMapUtil();
+
+    private Path root;
+    private Path out;
+    private Path tgz;
+    private Path pom;
+    private Package p;
+    private Map<String, byte[]> packageJsonFiles;
+
+    @Setup(Level.Trial)
+    public void createCorpus() throws IOException {
+        root = Files.createTempDirectory("mvnpm-bench");
+        tgz = TarballCorpus.create(root.resolve("input"), size);
+        packageJsonFiles = readPackageJsonFiles(tgz);
+        p = Beans.readPackage(packageJsonFiles.get("package.json"));
+        pom = root.resolve("input").resolve(TarballCorpus.artifactId(size) + "-" + TarballCorpus.VERSION + ".pom");
+        pomService.createAndSavePom(p, pom);
+    }
+
+    @Setup(Level.Invocation)
+    public void createOutput() throws IOException {
+        out = Files.createDirectories(root.resolve("out"));
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteOutput() {
+        Beans.delete(out);
+        Beans.delete(Path.of(tgz.toString().replace(".tgz", "-sources.jar")));
+        Beans.delete(Path.of(tgz + ".sha1"));
+        Beans.delete(Path.of(tgz + ".md5"));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCorpus() {
+        Beans.delete(root);
+    }
+
+    @Benchmark
+    public Path createJar() {
+        Path jar = out.resolve(TarballCorpus.artifactId(size)).resolve(TarballCorpus.VERSION)
+                .resolve(TarballCorpus.artifactId(size) + "-" + TarballCorpus.VERSION + ".jar");
+        jarService.createAndSaveJar(p, jar, pom, tgz);
+        return jar;
+    }
+
+    @Benchmark
+    public Path createSource() {
+        return sourceService.createSource(tgz);
+    }
+
+    @Benchmark
+    public List<Path> createHashes() {
+        return hashService.createHashes(tgz);
+    }
+
+    @Benchmark
+    public Path createPom() {
+        Path generated = out.resolve("generated.pom");
+        pomService.createAndSavePom(p, generated);
+        return generated;
+    }
+
+    @Benchmark
+    public byte[] createImportMap() throws IOException {
+        // createImportMap takes the main package.json out of the map
+        return importMapUtil.createImportMap(new LinkedHashMap<>(packageJsonFiles));
+    }
+
+    private static Map<String, byte[]> readPackageJsonFiles(Path tgz) throws IOException {
+        Map<String, byte[]> packageJsonFiles = new LinkedHashMap<>();
+        try (InputStream in = Files.newInputStream(tgz);
+                GzipCompressorInputStream gzip = new GzipCompressorInputStream(in);
+                TarArchiveInputStream tar = new TarArchiveInputStream(gzip)) {
+            for (TarArchiveEntry entry = tar.getNextEntry(); entry != null; entry = tar.getNextEntry()) {
+                if (entry.getName().endsWith("package.json")) {
+                    packageJsonFiles.put(entry.getName().replaceFirst("package/", ""), tar.readAllBytes());
+                }
+            }
+        }
+        return packageJsonFiles;
+    }
+}
@@ -0,0 +1,138 @@
+package io.mvnpm.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+
+/**
+ * Creates npm tarballs to benchmark with. The content is generated from a fixed seed, so every run creates the same
+ * tarballs: mostly javascript, with some type definitions, source maps, binary assets and nested package.json files,
+ * like real packages have.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public final class TarballCorpus {
+
+    public static final String VERSION = "1.0.0";
+
+    public enum Size {
+        small(10, 2 * 1024, 1, 0),
+        medium(300, 8 * 1024, 10, 4),
+        huge(2000, 12 * 1024, 50, 16);
+
+        final int files;
+        final int fileSize;
+        final int assets;
+        final int subPackages;
+
+        Size(int files, int fileSize, int assets, int subPackages) {
+            this.files = files;
+            this.fileSize = fileSize;
+            this.assets = assets;
+            this.subPackages = subPackages;
+        }
+    }
+
+    private static final String[] WORDS = { "const", "let", "return", "function", "export", "import", "from", "this",
+            "element", "render", "update", "value", "property", "state", "node", "shadowRoot", "attribute", "event",
+            "listener", "template", "style", "options", "result", "index", "length", "map", "filter", "reduce" };
+
+    private TarballCorpus() {
+    }
+
+    public static String artifactId(Size size) {
+        return "mvnpm-bench-" + size.name();
+    }
+
+    /**
+     * Create the tarball for the given size in the given directory
+     */
+    public static Path create(Path dir, Size size) throws IOException {
+        Random random = new Random(size.ordinal());
+        String name = artifactId(size);
+        Files.createDirectories(dir);
+        Path tgz = dir.resolve(name + "-" + VERSION + ".tgz");
+        try (OutputStream out = Files.newOutputStream(tgz);
+                GzipCompressorOutputStream gzip = new GzipCompressorOutputStream(out);
+                TarArchiveOutputStream tar = new TarArchiveOutputStream(gzip)) {
+            tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            add(tar, "package/package.json", packageJson(name, "index.js").getBytes(StandardCharsets.UTF_8));
+            add(tar, "package/README.md", ("# " + name + "\n\nA package to benchmark with.\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < size.files; i++) {
+                String folder = i == 0 ? "" : "lib/" + (i % 20) + "/";
+                String file = i == 0 ? "index" : "module" + i;
+                add(tar, "package/" + folder + file + ".js", javascript(random, size.fileSize));
+                if (i % 5 == 0) {
+                    add(tar, "package/" + folder + file + ".d.ts", javascript(random, size.fileSize / 4));
+                    add(tar, "package/" + folder + file + ".js.map", javascript(random, size.fileSize / 2));
+                }
+            }
+            for (int i = 0; i < size.assets; i++) {
+                byte[] asset = new byte[64 * 1024];
+                random.nextBytes(asset);
+                add(tar, "package/assets/image" + i + ".png", asset);
+            }
+            for (int i = 0; i < size.subPackages; i++) {
+                String sub = "sub" + i;
+                add(tar, "package/" + sub + "/package.json",
+                        packageJson(name + "-" + sub, sub + ".js").getBytes(StandardCharsets.UTF_8));
+                add(tar, "package/" + sub + "/" + sub + ".js", javascript(random, size.fileSize));
+            }
+            tar.finish();
+        }
+        return tgz;
+    }
+
+    /**
+     * The package.json of the generated packages, with some dependencies so the pom has something to convert
+     */
+    public static String packageJson(String name, String module) {
+        return """
+                {
+                  "name": "%s",
+                  "version": "%s",
+                  "description": "A package to benchmark with",
+                  "license": "MIT",
+                  "author": "mvnpm",
+                  "homepage": "https://mvnpm.org",
+                  "repository": { "type": "git", "url": "git+https://github.com/mvnpm/mvnpm.git" },
+                  "main": "%s",
+                  "module": "%s",
+                  "type": "module",
+                  "dependencies": {
+                    "lit": "^3.1.0",
+                    "@lit/reactive-element": "~2.0.4",
+                    "tslib": ">=2.0.0 <3.0.0",
+                    "lodash-es": "4.17.21 || ^4.17.22"
+                  }
+                }
+                """.formatted(name, VERSION, module, module);
+    }
+
+    private static byte[] javascript(Random random, int size) {
+        StringBuilder sb = new StringBuilder(size + 64);
+        while (sb.length() < size) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ')
+                    .append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(1000))
+                    .append(" = ").append(WORDS[random.nextInt(WORDS.length)])
+                    .append('(').append(random.nextInt(100)).append(");\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void add(TarArchiveOutputStream tar, String name, byte[] content) throws IOException {
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(content.length);
+        tar.putArchiveEntry(entry);
+        tar.write(content);
+        tar.closeArchiveEntry();
+    }
+}
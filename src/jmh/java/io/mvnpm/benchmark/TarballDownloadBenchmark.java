@@ -0,0 +1,87 @@
+package io.mvnpm.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.mvnpm.creator.type.TgzService;
+import io.mvnpm.fake.FakeRegistry;
+import io.mvnpm.npm.model.Package;
+
+/**
+ * Downloading (and verifying) a tarball, from a local fake npm registry so it is repeatable offline.
+ * The latency is added by the fake registry to every request.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TarballDownloadBenchmark {
+
+    @Param({ "0", "50" })
+    int latencyMillis;
+
+    private final TgzService tgzService = Beans.tgzService();
+
+    private FakeRegistry registry;
+    private Package p;
+    private Path root;
+    private Path tgz;
+
+    @Setup(Level.Trial)
+    public void startRegistry() throws IOException, InterruptedException {
+        registry = FakeRegistry.start();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<byte[]> response = client.send(
+                    HttpRequest.newBuilder(URI.create(registry.url() + "/mvnpm-fixture/1.0.1")).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            p = Beans.readPackage(response.body());
+        }
+        registry.latency(Duration.ofMillis(latencyMillis));
+        root = Files.createTempDirectory("mvnpm-bench");
+        tgz = root.resolve("mvnpm-fixture-1.0.1.tgz");
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteTarball() {
+        Beans.delete(root.resolve(tgz.getFileName() + ".sha1"));
+        Beans.delete(root.resolve(tgz.getFileName() + ".md5"));
+        Beans.delete(tgz);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopRegistry() {
+        registry.close();
+        Beans.delete(root);
+    }
+
+    @Benchmark
+    public Path download() {
+        tgzService.fetchRemoteAndSave(p, tgz);
+        return tgz;
+    }
+}
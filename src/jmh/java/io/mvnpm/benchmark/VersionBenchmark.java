@@ -0,0 +1,69 @@
+package io.mvnpm.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.mvnpm.version.Version;
+
+/**
+ * Parsing, sorting and printing all versions of a project, as done when creating the maven metadata.
+ * One operation handles all versions.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VersionBenchmark {
+
+    @Param({ "100", "1000", "5000" })
+    int count;
+
+    private List<String> versionStrings;
+    private List<Version> versions;
+
+    @Setup(Level.Trial)
+    public void createVersions() {
+        versionStrings = VersionCorpus.versions(count);
+        versions = versionStrings.stream().map(Version::fromString).toList();
+    }
+
+    @Benchmark
+    public void fromString(Blackhole blackhole) {
+        for (String version : versionStrings) {
+            blackhole.consume(Version.fromString(version));
+        }
+    }
+
+    @Benchmark
+    public List<Version> sort() {
+        List<Version> sorted = new ArrayList<>(versions);
+        sorted.sort(null);
+        return sorted;
+    }
+
+    @Benchmark
+    public void toString(Blackhole blackhole) {
+        for (Version version : versions) {
+            blackhole.consume(version.toString());
+        }
+    }
+}
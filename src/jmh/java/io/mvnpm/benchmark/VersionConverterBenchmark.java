@@ -0,0 +1,41 @@
+package io.mvnpm.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.mvnpm.version.VersionConverter;
+
+/**
+ * Converting npm ranges to maven ranges, as done for every dependency of every pom we create.
+ * One operation converts all ranges in the corpus.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VersionConverterBenchmark {
+
+    private static final List<String> RANGES = VersionCorpus.npmRanges();
+
+    @Benchmark
+    public void convert(Blackhole blackhole) {
+        for (String range : RANGES) {
+            blackhole.consume(VersionConverter.convert(range));
+        }
+    }
+}
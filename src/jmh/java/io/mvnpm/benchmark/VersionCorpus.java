@@ -0,0 +1,68 @@
+package io.mvnpm.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Versions and ranges to benchmark with.
+ * The npm ranges (npm-ranges.txt) are the cases from VersionConverterTest plus common ranges from real packages.
+ * The version lists look like the versions in a large packument: many releases, some pre-releases, in publish order.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public final class VersionCorpus {
+
+    private static final String[] PRE_RELEASES = { "alpha", "beta", "rc", "next" };
+
+    private VersionCorpus() {
+    }
+
+    public static List<String> npmRanges() {
+        try (InputStream in = VersionCorpus.class.getClassLoader().getResourceAsStream("npm-ranges.txt");
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The given number of versions, about one in eight is a pre-release
+     */
+    public static List<String> versions(int count) {
+        Random random = new Random(count);
+        List<String> versions = new ArrayList<>(count);
+        int major = 0;
+        int minor = 0;
+        int patch = 0;
+        while (versions.size() < count) {
+            String version = major + "." + minor + "." + patch;
+            if (random.nextInt(8) == 0) {
+                version = version + "-" + PRE_RELEASES[random.nextInt(PRE_RELEASES.length)] + "." + random.nextInt(20);
+            }
+            versions.add(version);
+            int bump = random.nextInt(100);
+            if (bump < 2) {
+                major++;
+                minor = 0;
+                patch = 0;
+            } else if (bump < 20) {
+                minor++;
+                patch = 0;
+            } else {
+                patch++;
+            }
+        }
+        // Maintenance releases of older lines get published in between
+        Collections.shuffle(versions.subList(0, versions.size() / 2), random);
+        return versions;
+    }
+}
@@ -0,0 +1,86 @@
+package io.mvnpm.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.mvnpm.version.Version;
+import io.mvnpm.version.VersionConverter;
+import io.mvnpm.version.VersionIndex;
+import io.mvnpm.version.VersionMatcher;
+
+/**
+ * Selecting the latest version matching a range, as done for every dependency during dependency checks.
+ * One operation matches all (converted) ranges of the corpus against all versions of a project.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VersionMatcherBenchmark {
+
+    @Param({ "100", "1000", "5000" })
+    int count;
+
+    private Set<Version> versions;
+    private List<Version> sortedVersions;
+    private VersionIndex versionIndex;
+    private List<String> mavenRanges;
+
+    @Setup(Level.Trial)
+    public void createVersions() {
+        List<String> versionStrings = VersionCorpus.versions(count);
+        versions = new HashSet<>();
+        for (String version : versionStrings) {
+            versions.add(Version.fromString(version));
+        }
+        versionIndex = VersionIndex.of(versionStrings);
+        sortedVersions = new ArrayList<>(versions);
+        sortedVersions.sort(null);
+        mavenRanges = VersionCorpus.npmRanges().stream()
+                .map(VersionConverter::convert)
+                .filter(range -> !range.isBlank())
+                .toList();
+    }
+
+    @Benchmark
+    public void selectLatestMatchingVersion(Blackhole blackhole) {
+        for (String range : mavenRanges) {
+            blackhole.consume(VersionMatcher.selectLatestMatchingVersion(versions, range));
+        }
+    }
+
+    @Benchmark
+    public void selectLatestMatchingSortedVersion(Blackhole blackhole) {
+        for (String range : mavenRanges) {
+            blackhole.consume(VersionMatcher.selectLatestMatchingSortedVersion(sortedVersions, range));
+        }
+    }
+
+    @Benchmark
+    public void latestMatchingFromIndex(Blackhole blackhole) {
+        for (String range : mavenRanges) {
+            blackhole.consume(versionIndex.latestMatching(range));
+        }
+    }
+}
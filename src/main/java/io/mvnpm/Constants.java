@@ -41,6 +41,7 @@ public interface Constants {
     String EMPTY = "";
     String SHA1 = "sha1";
     String DOT_SHA1 = DOT + SHA1;
+    String SHA256 = "sha-256";
 
     String MD5 = "md5";
     String DOT_MD5 = DOT + MD5;
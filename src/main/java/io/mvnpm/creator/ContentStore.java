@@ -0,0 +1,172 @@
+package io.mvnpm.creator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.mvnpm.creator.utils.FileUtil;
+import io.quarkus.logging.Log;
+
+/**
+ * Optional content addressed store for created files.
+ * Every file is kept once under its SHA-256, and the maven layout is a set of hard links to it,
+ * so identical files across versions only use disk space once.
+ *
+ * This is safe because files are never changed in place (we always write a temp file and move it),
+ * and the link count of a blob doubles as its reference count for garbage collection.
+ * Linked files share their times, so files whose modification time matters (like the main jar, used to find stuck
+ * packages) should not be added.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@ApplicationScoped
+public class ContentStore {
+
+    @Inject
+    PackageFileLocator packageFileLocator;
+
+    @ConfigProperty(name = "mvnpm.content-store.enabled", defaultValue = "false")
+    boolean enabled;
+
+    // Blobs that were linked (or unlinked) recently might be in use by a deduplicate on another pod
+    @ConfigProperty(name = "mvnpm.content-store.gc-grace", defaultValue = "1h")
+    Duration gcGrace;
+
+    // Garbage collection must not delete a blob between a deduplicate finding it and linking to it
+    private final ReadWriteLock linking = new ReentrantReadWriteLock();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replace the file with a link to the blob with the same content, or add it as a new blob.
+     */
+    public void deduplicate(Path file) {
+        if (!enabled || file == null || !Files.isRegularFile(file)) {
+            return;
+        }
+        linking.readLock().lock();
+        try {
+            Path blob = getBlobPath(FileUtil.getSha256(file));
+            // Other threads and pods add and collect blobs too, so try again if we lose a race
+            for (int attempt = 0; attempt < 3; attempt++) {
+                if (Files.exists(blob)) {
+                    if (linkToBlob(file, blob)) {
+                        return;
+                    }
+                } else {
+                    try {
+                        Files.createDirectories(blob.getParent());
+                        addBlob(blob, file);
+                        return;
+                    } catch (FileAlreadyExistsException e) {
+                        // Another thread or pod added the same content, so link to that one
+                    }
+                }
+            }
+            Log.warnf("Could not add %s to the content store, the blob kept changing", file);
+        } catch (IOException | UnsupportedOperationException e) {
+            Log.warnf("Could not add %s to the content store: %s", file, e.getMessage());
+        } finally {
+            linking.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the file with a link to the blob
+     *
+     * @return false if the blob is gone (collected by another pod)
+     */
+    private boolean linkToBlob(Path file, Path blob) throws IOException {
+        try {
+            if (Files.isSameFile(blob, file)) {
+                return true;
+            }
+            Path tempLink = FileUtil.getTempFilePathFor(file);
+            Files.createLink(tempLink, blob);
+            FileUtil.forceMoveAtomic(tempLink, file);
+            Log.debugf("Linked %s to blob %s", file, blob.getFileName());
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Make this file the blob for its content
+     */
+    void addBlob(Path blob, Path file) throws IOException {
+        Files.createLink(blob, file);
+    }
+
+    /**
+     * Delete blobs that are not linked from the maven layout anymore
+     *
+     * @return the number of deleted blobs
+     */
+    public int collectGarbage() {
+        Path blobRoot = packageFileLocator.getBlobDir();
+        if (!enabled || !Files.isDirectory(blobRoot)) {
+            return 0;
+        }
+        int deleted = 0;
+        Instant changedBefore = Instant.now().minus(gcGrace);
+        try (Stream<Path> walk = Files.walk(blobRoot)) {
+            List<Path> blobs = walk.filter(Files::isRegularFile).toList();
+            for (Path blob : blobs) {
+                if (deleteIfUnreferenced(blob, changedBefore)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (UnsupportedOperationException e) {
+            Log.warnf("Link counts are not supported on this file system, skipping content store cleanup");
+        }
+        Log.infof("Content store cleanup complete: deleted %d blobs", deleted);
+        return deleted;
+    }
+
+    private boolean deleteIfUnreferenced(Path blob, Instant changedBefore) throws IOException {
+        linking.writeLock().lock();
+        try {
+            // The change time moves with every link added or removed, on any pod
+            if (getLinkCount(blob) <= 1 && getChangeTime(blob).isBefore(changedBefore)) {
+                return Files.deleteIfExists(blob);
+            }
+            return false;
+        } catch (NoSuchFileException e) {
+            return false;
+        } finally {
+            linking.writeLock().unlock();
+        }
+    }
+
+    private Path getBlobPath(String sha256) {
+        return packageFileLocator.getBlobDir().resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    private int getLinkCount(Path blob) throws IOException {
+        return (Integer) Files.getAttribute(blob, "unix:nlink");
+    }
+
+    private Instant getChangeTime(Path blob) throws IOException {
+        return ((FileTime) Files.getAttribute(blob, "unix:ctime")).toInstant();
+    }
+}
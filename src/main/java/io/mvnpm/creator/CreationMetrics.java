@@ -0,0 +1,109 @@
+package io.mvnpm.creator;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Metrics of serving and creating files in the maven repository, to see where the time of a cold request goes
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@ApplicationScoped
+public class CreationMetrics {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * The steps in creating a package
+     */
+    public enum Step {
+        NPM_METADATA("npm-metadata"),
+        TGZ("tgz"),
+        POM("pom"),
+        JAR("jar"),
+        SOURCE("source"),
+        JAVADOC("javadoc"),
+        DEDUPLICATE("deduplicate"),
+        SIGN("sign"),
+        HASH("hash");
+
+        private final String tag;
+
+        Step(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    public void time(Step step, FileType type, Runnable work) {
+        time(step, type, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Time a creation step
+     *
+     * @param type the type of file this step is creating, or part of
+     */
+    public <T> T time(Step step, FileType type, Supplier<T> work) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = work.get();
+            success = true;
+            return result;
+        } finally {
+            Timer.builder("mvnpm.creator.step")
+                    .tag("step", step.tag())
+                    .tag("type", type.name())
+                    .tag("outcome", success ? "success" : "failure")
+                    .description("Time to create a file in the maven repository, per step")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void cache(FileType type, boolean hit) {
+        Counter.builder("mvnpm.creator.cache")
+                .tag("type", type.name())
+                .tag("result", hit ? "hit" : "miss")
+                .description("Files served from the local cache (hit) or that had to be created (miss)")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * A request to the maven repository was resolved. This is the time until we could start streaming, so it
+     * includes the creation of the file, but not the download by the client.
+     *
+     * @param dotSigned the signature or hash requested, if any
+     * @param cache hit, miss or released (redirected to Central)
+     * @param outcome ok, or why it failed
+     */
+    public void served(FileType type, Optional<String> dotSigned, String cache, String outcome, long nanos) {
+        Timer.builder("mvnpm.maven.request")
+                .tag("type", type.name())
+                .tag("file", dotSigned.map(s -> s.substring(1)).orElse("main"))
+                .tag("cache", cache)
+                .tag("outcome", outcome)
+                .description("Time to resolve a request to the maven repository")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -2,6 +2,8 @@ package io.mvnpm.creator;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,10 +16,12 @@ import io.mvnpm.creator.type.HashService;
 import io.mvnpm.creator.type.JarService;
 import io.mvnpm.creator.type.PomService;
 import io.mvnpm.creator.type.TgzService;
+import io.mvnpm.diagnostics.AllocationTracker;
 import io.mvnpm.maven.MavenRepositoryService;
 import io.mvnpm.maven.exceptions.PackageAlreadySyncedException;
 import io.mvnpm.npm.NpmRegistryFacade;
 import io.mvnpm.npm.model.Name;
+import io.mvnpm.npm.model.Packument;
 import io.quarkus.logging.Log;
 import io.vertx.mutiny.core.eventbus.EventBus;
 
@@ -53,6 +57,12 @@ public class PackageCreator {
     @Inject
     NpmRegistryFacade npmRegistryFacade;
 
+    @Inject
+    CreationMetrics creationMetrics;
+
+    @Inject
+    AllocationTracker allocationTracker;
+
     public PackageAlreadySyncedException newPackageAlreadySyncedException(Name name, String version, FileType type,
             Optional<String> dotSigned) {
         return new PackageAlreadySyncedException(packageFileLocator.getLocalFileName(type, name, version, dotSigned), name,
@@ -65,6 +75,18 @@ public class PackageCreator {
         return getFromCacheOrCreate(type, name, version, localFilePath);
     }
 
+    /**
+     * Create the file if it is not in the cache yet, ahead of a request. This is not a request, so it is not counted
+     * as a cache hit or miss.
+     */
+    public Path prefetch(FileType type, Name name, String version) {
+        Path localFilePath = packageFileLocator.getLocalFullPath(type, name, version);
+        if (Files.exists(localFilePath)) {
+            return localFilePath;
+        }
+        return create(type, name, version, localFilePath);
+    }
+
     public Path getSha1FromCacheOrCreate(FileType type, Name name, String version) {
         Path localFilePath = packageFileLocator.getLocalSha1FullPath(type, name, version);
         return requireExists("sha1", type, name, version, localFilePath);
@@ -89,7 +111,7 @@ public class PackageCreator {
 
     private Path getFromCacheOrCreate(FileType type, Name name, String version, Path cacheFilePath) {
         boolean cache = Files.exists(cacheFilePath);
-
+        creationMetrics.cache(type, cache);
         if (cache) {
             Log.debug("Serving from cache [" + cacheFilePath + "]");
             return cacheFilePath;
@@ -99,13 +121,45 @@ public class PackageCreator {
         }
     }
 
+    /**
+     * Create the poms of many versions of a package in one go, from the packument. Used for backfills and to warm up
+     * packages.
+     *
+     * @param versions the versions to create, or all versions of the package when empty
+     * @return the poms that were created (existing poms are not created again)
+     */
+    public List<Path> createPoms(Name name, Collection<String> versions) {
+        Packument packument = npmRegistryFacade.getPackument(name.npmFullName);
+        if (packument.versions() == null || packument.versions().isEmpty()) {
+            return List.of();
+        }
+        List<io.mvnpm.npm.model.Package> packages = new ArrayList<>();
+        if (versions.isEmpty()) {
+            packages.addAll(packument.versions().values());
+        } else {
+            for (String version : versions) {
+                io.mvnpm.npm.model.Package p = packument.versions().get(version);
+                if (p != null) {
+                    packages.add(p);
+                } else {
+                    Log.warnf("Version %s of %s not found in the packument", version, name.displayName);
+                }
+            }
+        }
+        return pomService.createAndSavePoms(packages,
+                p -> packageFileLocator.getLocalFullPath(FileType.pom, name, p.version()));
+    }
+
     private Path create(FileType type, Name name, String version,
             Path localFilePath) {
-        io.mvnpm.npm.model.Package p = npmRegistryFacade.getPackage(name.npmFullName, version);
+        io.mvnpm.npm.model.Package p = creationMetrics.time(CreationMetrics.Step.NPM_METADATA, type,
+                () -> npmRegistryFacade.getPackage(name.npmFullName, version));
         switch (type) {
-            case tgz -> tgzService.fetchRemoteAndSave(p, localFilePath);
+            case tgz -> creationMetrics.time(CreationMetrics.Step.TGZ, type,
+                    () -> tgzService.fetchRemoteAndSave(p, localFilePath));
             case jar -> createAndSaveJar(localFilePath, p);
-            case pom -> pomService.createAndSavePom(p, localFilePath); // Only create the POM to avoid extra processing
+            case pom -> creationMetrics.time(CreationMetrics.Step.POM, type,
+                    () -> pomService.createAndSavePom(p, localFilePath)); // Only create the POM to avoid extra processing
             default -> throw new PackageNotCreatedException(name, type, version);
         }
         return localFilePath;
@@ -114,8 +168,12 @@ public class PackageCreator {
     private void createAndSaveJar(Path jarPath, io.mvnpm.npm.model.Package p) {
         Path pomPath = mavenRepositoryService.getPath(p.name(), p.version(), FileType.pom);
         Path tgzPath = mavenRepositoryService.getPath(p.name(), p.version(), FileType.tgz);
-        jarService.createAndSaveJar(p, jarPath, pomPath, tgzPath);
-        hashService.createHashes(jarPath);
+        String gav = p.name().mvnGroupId + ":" + p.name().mvnArtifactId + ":" + p.version();
+        try (AllocationTracker.Measurement allocation = allocationTracker.start(AllocationTracker.Kind.JAR, gav)) {
+            creationMetrics.time(CreationMetrics.Step.JAR, FileType.jar,
+                    () -> jarService.createAndSaveJar(p, jarPath, pomPath, tgzPath));
+        }
+        creationMetrics.time(CreationMetrics.Step.HASH, FileType.jar, () -> hashService.createHashes(jarPath));
         bus.send(NewJarEvent.EVENT_NAME,
                 new NewJarEvent(pomPath, jarPath, tgzPath, List.of(), p.name(), p.version()));
 
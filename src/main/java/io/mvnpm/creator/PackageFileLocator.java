@@ -79,6 +79,10 @@ public class PackageFileLocator {
         return Paths.get(localUserDirectory.orElse(Constants.CACHE_DIR)).resolve("metadata");
     }
 
+    public Path getBlobDir() {
+        return getCacheDir().resolve("blobs");
+    }
+
     public Path getArtifactRoot(Name name) {
         return getGroupRoot(name.mvnPath).resolve(
                 Paths.get(name.mvnArtifactId));
@@ -48,6 +48,12 @@ public class PackageListener {
     @Inject
     NpmRegistryFacade npmRegistryFacade;
 
+    @Inject
+    ContentStore contentStore;
+
+    @Inject
+    CreationMetrics creationMetrics;
+
     @Inject
     MavenRepositoryService mavenRepositoryService;
 
@@ -79,19 +85,33 @@ public class PackageListener {
         toHash.addAll(others);
         if (tgzFile != null) {
             toHash.add(tgzFile);
-            toHash.add(sourceService.createSource(tgzFile));
+            toHash.add(creationMetrics.time(CreationMetrics.Step.SOURCE, FileType.source,
+                    () -> sourceService.createSource(tgzFile)));
         }
-        toHash.add(javaDocService.createJavadoc(jarFile));
+        toHash.add(creationMetrics.time(CreationMetrics.Step.JAVADOC, FileType.javadoc,
+                () -> javaDocService.createJavadoc(jarFile)));
         List<Path> toSign = new ArrayList<>(toHash);
-        for (Path path : toSign) {
-            final Path asc = ascService.createAsc(path);
-            if (asc != null) {
-                toHash.add(asc);
+        creationMetrics.time(CreationMetrics.Step.DEDUPLICATE, FileType.jar, () -> {
+            for (Path path : toSign) {
+                if (!path.equals(jarFile)) {
+                    // The jar time tells if a package is stuck in packaging
+                    contentStore.deduplicate(path);
+                }
             }
-        }
-        for (Path path : toHash) {
-            hashService.createHashes(path);
-        }
+        });
+        creationMetrics.time(CreationMetrics.Step.SIGN, FileType.jar, () -> {
+            for (Path path : toSign) {
+                final Path asc = ascService.createAsc(path);
+                if (asc != null) {
+                    toHash.add(asc);
+                }
+            }
+        });
+        creationMetrics.time(CreationMetrics.Step.HASH, FileType.jar, () -> {
+            for (Path path : toHash) {
+                hashService.createHashes(path);
+            }
+        });
     }
 
     @ConsumeEvent(DependencyVersionCheckRequest.NAME)
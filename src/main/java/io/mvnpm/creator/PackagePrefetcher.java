@@ -0,0 +1,97 @@
+package io.mvnpm.creator;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.mvnpm.npm.NpmRegistryFacade;
+import io.mvnpm.npm.model.Name;
+import io.quarkus.logging.Log;
+
+/**
+ * Fetch the npm metadata and tarball of a package in the background, so they are on disk when the package gets
+ * requested or packaged for sync a moment later (e.g. the dependencies of a package we just released).
+ *
+ * The number of concurrent downloads and the backlog are bounded, when the backlog is full we just skip the prefetch.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@ApplicationScoped
+public class PackagePrefetcher {
+
+    @Inject
+    NpmRegistryFacade npmRegistryFacade;
+
+    @Inject
+    PackageCreator packageCreator;
+
+    @ConfigProperty(name = "mvnpm.prefetch.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "mvnpm.prefetch.concurrency", defaultValue = "4")
+    int concurrency;
+
+    @ConfigProperty(name = "mvnpm.prefetch.backlog", defaultValue = "200")
+    int backlog;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile ThreadPoolExecutor executor;
+
+    public void prefetch(Name name, String version) {
+        if (!enabled || name.isInternal()) {
+            return;
+        }
+        final String gav = name.toGavString(version);
+        if (!inFlight.add(gav)) {
+            return;
+        }
+        try {
+            executor().execute(() -> {
+                try {
+                    npmRegistryFacade.getPackage(name.npmFullName, version);
+                    packageCreator.prefetch(FileType.tgz, name, version);
+                    Log.debugf("Prefetched %s", gav);
+                } catch (RuntimeException e) {
+                    // It will be fetched again when needed
+                    Log.debugf("Could not prefetch %s: %s", gav, e.getMessage());
+                } finally {
+                    inFlight.remove(gav);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(gav);
+            Log.debugf("Prefetch backlog is full, skipping %s", gav);
+        }
+    }
+
+    private ThreadPoolExecutor executor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(concurrency, concurrency, 1, TimeUnit.MINUTES,
+                            new ArrayBlockingQueue<>(backlog),
+                            Thread.ofVirtual().name("mvnpm-prefetch-", 0).factory());
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = pool;
+                }
+            }
+        }
+        return executor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -15,23 +15,27 @@ import java.nio.file.Path;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.jar.JarEntry;
-import java.util.jar.JarInputStream;
-import java.util.jar.JarOutputStream;
+import java.util.jar.JarFile;
 import java.util.zip.GZIPOutputStream;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import org.apache.commons.compress.archivers.jar.JarArchiveOutputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.compress.utils.IOUtils;
 import org.apache.maven.model.Dependency;
@@ -47,6 +51,8 @@ import io.mvnpm.creator.PackageFileLocator;
 import io.mvnpm.creator.events.NewJarEvent;
 import io.mvnpm.creator.type.PomService;
 import io.mvnpm.creator.utils.FileUtil;
+import io.mvnpm.creator.utils.ParallelJarWriter;
+import io.mvnpm.diagnostics.AllocationTracker;
 import io.mvnpm.importmap.Aggregator;
 import io.mvnpm.importmap.ImportsDataBinding;
 import io.mvnpm.maven.MavenCentralService;
@@ -95,6 +101,9 @@ public class CompositeCreator {
     @Inject
     MavenCentralService mavenCentralService;
 
+    @Inject
+    AllocationTracker allocationTracker;
+
     private final AtomicReference<WebClient> webClient = new AtomicReference<>();
     private final Map<String, GitHubContent> compositesMap = new HashMap<>();
 
@@ -173,8 +182,12 @@ public class CompositeCreator {
         if (!Files.exists(jar) || !Files.exists(sourceJar)) {
             final Path outputPom = getPomPath(jar);
             Name name = NameParser.fromMavenGA(model.getGroupId(), model.getArtifactId());
-            Model pom = mergeJar(jar, outputPom, model, dependencies);
-            mergeSource(sourceJar, pom, dependencies);
+            Model pom;
+            try (AllocationTracker.Measurement allocation = allocationTracker.start(AllocationTracker.Kind.COMPOSITE,
+                    model.getGroupId() + ":" + model.getArtifactId() + ":" + model.getVersion())) {
+                pom = mergeJar(jar, outputPom, model, dependencies);
+                mergeSource(sourceJar, pom, dependencies);
+            }
             bus.send(NewJarEvent.EVENT_NAME,
                     new NewJarEvent(outputPom, jar, null, List.of(sourceJar), name, pom.getVersion()));
 
@@ -190,7 +203,9 @@ public class CompositeCreator {
         // Create a new JAR file to merge the others into
         final Path tempJar = FileUtil.getTempFilePathFor(outputJar);
         try (OutputStream jarFile = Files.newOutputStream(tempJar);
-                JarOutputStream mergedJar = new JarOutputStream(jarFile);
+                JarArchiveOutputStream jarOutput = new JarArchiveOutputStream(jarFile);
+                // The entries of the jars are copied as they are, the few new entries are small
+                ParallelJarWriter mergedJar = new ParallelJarWriter(jarOutput, 1, 0);
                 ByteArrayOutputStream commonTgzBaos = new ByteArrayOutputStream();
                 GZIPOutputStream commonTgzGzos = new GZIPOutputStream(commonTgzBaos);
                 TarArchiveOutputStream commonTgzOut = new TarArchiveOutputStream(commonTgzGzos)) {
@@ -204,29 +219,34 @@ public class CompositeCreator {
             Map<String, Developer> newDevelopers = new HashMap<>();
             Map<String, License> newLicenses = new HashMap<>();
             int countMvnpmMoreTgz = 0;
+            Set<String> written = new HashSet<>();
 
             for (Dependency dependency : dependencies) {
                 Name jarName = NameParser.fromMavenGA(dependency.getGroupId(), dependency.getArtifactId());
                 final Path jarPath = getJar(dependency, jarName, FileType.jar);
 
-                try (InputStream inputStream = Files.newInputStream(jarPath);
-                        JarInputStream inputJar = new JarInputStream(inputStream)) {
+                try (ZipFile inputJar = ZipFile.builder().setPath(jarPath).get()) {
                     // Add all entries from the input JAR to the merged JAR
-                    JarEntry entry;
-                    while ((entry = inputJar.getNextJarEntry()) != null) {
+                    for (ZipArchiveEntry entry : Collections.list(inputJar.getEntries())) {
                         String entryName = entry.getName();
 
                         if ("META-INF/importmap.json".equals(entryName)) {
                             // Remember importmap
-                            importmaps.putAll(getImportMap(inputJar));
+                            try (InputStream in = inputJar.getInputStream(entry)) {
+                                importmaps.putAll(getImportMap(in));
+                            }
                         } else if (entryName.startsWith("META-INF/maven")) {
-                            updatePom(inputJar, newDependencies, newDevelopers, newLicenses, entryName,
-                                    List.copyOf(mapByGA(dependencies).keySet()));
+                            try (InputStream in = inputJar.getInputStream(entry)) {
+                                updatePom(in, newDependencies, newDevelopers, newLicenses, entryName,
+                                        List.copyOf(mapByGA(dependencies).keySet()));
+                            }
                         } else if (entryName.startsWith(MVNPM_MORE_ARCHIVE)) {
                             countMvnpmMoreTgz++;
-                            extractTgzEntriesAndMergeToCommon(inputJar, commonTgzOut);
+                            try (InputStream in = inputJar.getInputStream(entry)) {
+                                extractTgzEntriesAndMergeToCommon(in, commonTgzOut);
+                            }
                         } else if (!entryName.endsWith("LICENSE")) {
-                            writeEntry(inputJar, mergedJar, entry);
+                            copyEntry(inputJar, entry, entryName, mergedJar, written);
                         }
                     }
                 } catch (IOException | XmlPullParserException e) {
@@ -263,7 +283,7 @@ public class CompositeCreator {
                 mxw.write(stringWriter, pom);
                 FileUtil.writeAtomic(outputPom, stringWriter.toString());
                 writeEntry(mergedJar, "META-INF/maven/" + pom.getGroupId() + "/" + pom.getArtifactId() + "/pom.xml",
-                        outputPom);
+                        stringWriter.toString());
 
             }
 
@@ -277,6 +297,7 @@ public class CompositeCreator {
                 writeEntry(mergedJar, "META-INF/maven/" + pom.getGroupId() + "/" + pom.getArtifactId() + "/pom.properties",
                         writer.toString());
             }
+            mergedJar.finish();
 
             Log.info(pom.getGroupId() + ":" + pom.getArtifactId() + ":" + pom.getVersion() + " created");
 
@@ -298,7 +319,7 @@ public class CompositeCreator {
         return outputPom;
     }
 
-    private void extractTgzEntriesAndMergeToCommon(JarInputStream inputJar, TarArchiveOutputStream commonTgz)
+    private void extractTgzEntriesAndMergeToCommon(InputStream inputJar, TarArchiveOutputStream commonTgz)
             throws IOException {
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             IOUtils.copy(inputJar, baos);
@@ -321,20 +342,19 @@ public class CompositeCreator {
         final Path tempJar = FileUtil.getTempFilePathFor(outputSourceJar);
         // Create a new JAR file to merge the others into
         try (OutputStream jarFile = Files.newOutputStream(tempJar);
-                JarOutputStream mergedJar = new JarOutputStream(jarFile)) {
+                JarArchiveOutputStream jarOutput = new JarArchiveOutputStream(jarFile);
+                ParallelJarWriter mergedJar = new ParallelJarWriter(jarOutput, 1, 0)) {
 
-            // Create new merged pom.xml
+            Set<String> written = new HashSet<>();
             for (Dependency dependency : dependencies) {
                 Name jarName = NameParser.fromMavenGA(dependency.getGroupId(), dependency.getArtifactId());
                 Path jarPath = getJar(dependency, jarName, FileType.source);
 
-                try (InputStream inputStream = Files.newInputStream(jarPath);
-                        JarInputStream inputJar = new JarInputStream(inputStream)) {
-                    // Add all entries from the input JAR to the merged JAR
-                    JarEntry entry;
-                    while ((entry = inputJar.getNextJarEntry()) != null) {
-                        writeEntry(inputJar, mergedJar, dependency.getGroupId() + "/" + dependency.getArtifactId() + "/",
-                                entry);
+                try (ZipFile inputJar = ZipFile.builder().setPath(jarPath).get()) {
+                    // Add all entries from the input JAR to the merged JAR, under the GA of the dependency
+                    String root = dependency.getGroupId() + "/" + dependency.getArtifactId() + "/";
+                    for (ZipArchiveEntry entry : Collections.list(inputJar.getEntries())) {
+                        copyEntry(inputJar, entry, root + entry.getName(), mergedJar, written);
                     }
                 } catch (IOException e) {
                     throw new RuntimeException(e);
@@ -360,6 +380,7 @@ public class CompositeCreator {
                 writeEntry(mergedJar, "META-INF/maven/" + pom.getGroupId() + "/" + pom.getArtifactId() + "/pom.properties",
                         pomProperties);
             }
+            mergedJar.finish();
 
             Log.info(pom.getGroupId() + ":" + pom.getArtifactId() + ":" + pom.getVersion() + " source created");
         }
@@ -377,7 +398,7 @@ public class CompositeCreator {
         }
     }
 
-    private void updatePom(JarInputStream inputJar,
+    private void updatePom(InputStream inputJar,
             Map<String, Dependency> newDependencies,
             Map<String, Developer> newDevelopers,
             Map<String, License> newLicences,
@@ -416,66 +437,36 @@ public class CompositeCreator {
         return m;
     }
 
-    private void writeEntry(JarOutputStream jar, String name, String content) throws IOException {
+    private void writeEntry(ParallelJarWriter jar, String name, String content) throws IOException {
         writeEntry(jar, name, content.getBytes());
     }
 
-    private void writeEntry(JarOutputStream jar, String name, byte[] bytes) throws IOException {
-        JarEntry entry = new JarEntry(name);
-        jar.putNextEntry(entry);
-        jar.write(bytes);
-        jar.closeEntry();
-    }
-
-    private void writeEntry(JarOutputStream mergedJar, String name, Path path) throws IOException {
-        JarEntry entry = new JarEntry(name);
-        mergedJar.putNextEntry(entry);
-        try (InputStream fileInputStream = Files.newInputStream(path)) {
-            int bytesRead;
-            byte[] buffer = new byte[4096];
-            while ((bytesRead = fileInputStream.read(buffer)) != -1) {
-                mergedJar.write(buffer, 0, bytesRead);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Error jarring file content for " + path, e);
-        }
-        mergedJar.closeEntry();
+    private void writeEntry(ParallelJarWriter jar, String name, byte[] bytes) throws IOException {
+        jar.write(name, bytes);
     }
 
-    private void writeEntry(JarInputStream inputJar, JarOutputStream mergedJar, JarEntry entry) throws IOException {
-        mergedJar.putNextEntry(entry);
-
-        // Read the content of the entry and write it to the merged JAR
-        byte[] buffer = new byte[4096];
-        int bytesRead;
-        while ((bytesRead = inputJar.read(buffer)) != -1) {
-            mergedJar.write(buffer, 0, bytesRead);
+    /**
+     * Copy an entry of one of the jars as is. The manifest is left out (the merged jar does not have one), and so are
+     * entries that are already in the merged jar
+     */
+    private void copyEntry(ZipFile inputJar, ZipArchiveEntry entry, String name, ParallelJarWriter mergedJar,
+            Set<String> written) throws IOException {
+        if (JarFile.MANIFEST_NAME.equals(entry.getName())) {
+            return;
         }
-        mergedJar.closeEntry();
-    }
-
-    private void writeEntry(JarInputStream inputJar, JarOutputStream mergedJar, String root, JarEntry entry)
-            throws IOException {
-        // Create a new entry with the desired name
-        String newEntryName = root + entry.getName();
-        JarEntry newEntry = new JarEntry(newEntryName);
-        mergedJar.putNextEntry(newEntry);
-
-        // Read the content of the entry and write it to the merged JAR
-        byte[] buffer = new byte[4096];
-        int bytesRead;
-        while ((bytesRead = inputJar.read(buffer)) != -1) {
-            mergedJar.write(buffer, 0, bytesRead);
+        if (!written.add(name)) {
+            Log.debugf("Skipping duplicate entry %s", name);
+            return;
         }
-        mergedJar.closeEntry();
+        mergedJar.copyRaw(inputJar, entry, name);
     }
 
-    private Map<String, String> getImportMap(JarInputStream inputJar) throws IOException {
+    private Map<String, String> getImportMap(InputStream inputJar) throws IOException {
         String json = getEntryContent(inputJar);
         return ImportsDataBinding.toImports(json).getImports();
     }
 
-    public String getEntryContent(JarInputStream inputJar) throws IOException {
+    public String getEntryContent(InputStream inputJar) throws IOException {
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             // Read the content of the entry and write it to a String
             byte[] buffer = new byte[4096];
@@ -0,0 +1,9 @@
+package io.mvnpm.creator.exceptions;
+
+import java.io.IOException;
+
+public class IntegrityCheckException extends IOException {
+    public IntegrityCheckException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,43 @@
+package io.mvnpm.creator.type;
+
+import java.util.regex.Pattern;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.mvnpm.npm.NpmRegistryFacade;
+import io.mvnpm.npm.model.ProjectInfo;
+import io.mvnpm.version.VersionConverter;
+import io.quarkus.cache.CacheResult;
+
+/**
+ * Versions of dependencies, as used in the generated poms.
+ * The same npm ranges (^3.0.0, >=4 <6 ...) are used by many packages, so conversions are cached.
+ * The latest version of a package, used for open ended ranges, comes from the cached project info
+ * (see {@link NpmRegistryFacade#getProjectInfo(String)}).
+ * Hit rates are available as cache metrics (cache.gets).
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@ApplicationScoped
+public class DependencyVersionService {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Inject
+    NpmRegistryFacade npmRegistryFacade;
+
+    /**
+     * @param npmRange the npm version or range, like ^3.0.0
+     * @return the maven range, without any spaces
+     */
+    @CacheResult(cacheName = "npm-range-cache")
+    public String toMavenRange(String npmRange) {
+        return WHITESPACE.matcher(VersionConverter.convert(npmRange).trim()).replaceAll("");
+    }
+
+    public String getLatestVersion(String npmFullName) {
+        ProjectInfo info = npmRegistryFacade.getProjectInfo(npmFullName);
+        return info.distTags().latest();
+    }
+}
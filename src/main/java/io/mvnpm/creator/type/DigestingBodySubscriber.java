@@ -0,0 +1,87 @@
+package io.mvnpm.creator.type;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Update message digests with the body while it is passed on to another subscriber (e.g. to a file),
+ * so we do not need to read the content again to hash it.
+ *
+ * The download can be cancelled, so nothing is passed on (e.g. written to a temp file we are about to delete) after
+ * {@link #cancel()} returns.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+class DigestingBodySubscriber<T> implements HttpResponse.BodySubscriber<T> {
+
+    private final HttpResponse.BodySubscriber<T> delegate;
+    private final List<MessageDigest> digests;
+    private Flow.Subscription subscription;
+    private boolean cancelled = false;
+
+    DigestingBodySubscriber(HttpResponse.BodySubscriber<T> delegate, List<MessageDigest> digests) {
+        this.delegate = delegate;
+        this.digests = digests;
+    }
+
+    @Override
+    public CompletionStage<T> getBody() {
+        return delegate.getBody();
+    }
+
+    /**
+     * Abort the exchange, and stop passing on the body
+     */
+    synchronized void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        if (subscription != null) {
+            subscription.cancel();
+            delegate.onError(new CancellationException("Download cancelled"));
+        }
+    }
+
+    @Override
+    public synchronized void onSubscribe(Flow.Subscription subscription) {
+        if (cancelled) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        delegate.onSubscribe(subscription);
+    }
+
+    @Override
+    public synchronized void onNext(List<ByteBuffer> item) {
+        if (cancelled) {
+            return;
+        }
+        for (ByteBuffer buffer : item) {
+            for (MessageDigest digest : digests) {
+                digest.update(buffer.duplicate());
+            }
+        }
+        delegate.onNext(item);
+    }
+
+    @Override
+    public synchronized void onError(Throwable throwable) {
+        if (!cancelled) {
+            delegate.onError(throwable);
+        }
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        if (!cancelled) {
+            delegate.onComplete();
+        }
+    }
+}
@@ -12,6 +12,7 @@ import java.nio.file.Paths;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.zip.GZIPOutputStream;
 
@@ -28,10 +29,12 @@ import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.io.IOUtils;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import io.mvnpm.Constants;
 import io.mvnpm.creator.utils.FileUtil;
 import io.mvnpm.creator.utils.ImportMapUtil;
+import io.mvnpm.creator.utils.ParallelJarWriter;
 import io.mvnpm.importmap.Location;
 import io.mvnpm.npm.model.Package;
 import io.quarkus.logging.Log;
@@ -47,6 +50,12 @@ public class JarService {
     @Inject
     ImportMapUtil importMapUtil;
 
+    @ConfigProperty(name = "mvnpm.incremental-jar.enabled", defaultValue = "true")
+    boolean incrementalJarEnabled;
+
+    @ConfigProperty(name = "mvnpm.compression.threads", defaultValue = "1")
+    int compressionThreads;
+
     public Path createEmptyJar(Path forJar, String replaceJarWith) {
         Path emptyFile = Paths.get(forJar.toString().replace(Constants.DOT_JAR, replaceJarWith));
         if (!Files.exists(emptyFile)) {
@@ -67,6 +76,8 @@ public class JarService {
         JarArchiveEntry entry = new JarArchiveEntry("README.md");
         byte[] filecontents = CONTENTS.getBytes();
         entry.setSize(filecontents.length);
+        // Fixed time so all empty jars are identical (and can be deduplicated)
+        entry.setTime(EMPTY_JAR_ENTRY_TIME);
         jarOutput.putArchiveEntry(entry);
         jarOutput.write(filecontents);
         jarOutput.closeArchiveEntry();
@@ -85,28 +96,47 @@ public class JarService {
         FileUtil.createDirectories(jarOutputPath);
         final Path tempFile = FileUtil.getTempFilePathFor(jarOutputPath);
         try (OutputStream fileOutput = Files.newOutputStream(tempFile);
-                JarArchiveOutputStream jarOutput = new JarArchiveOutputStream(fileOutput)) {
+                JarArchiveOutputStream jarOutput = new JarArchiveOutputStream(fileOutput);
+                ParallelJarWriter jarWriter = new ParallelJarWriter(jarOutput, compressionThreads,
+                        ParallelJarWriter.estimateContentSize(tgzPath))) {
 
             // Pom details
             String pomXmlDir = POM_ROOT + p.name().mvnGroupId + Constants.SLASH + p.name().mvnArtifactId + Constants.SLASH;
 
             // Pom xml entry
-            writeJarEntry(jarOutput, pomXmlDir + POM_DOT_XML, pomPath);
+            writeJarEntry(jarWriter, pomXmlDir + POM_DOT_XML, pomPath);
 
             // Pom properties entry
-            writeJarEntry(jarOutput, pomXmlDir + POM_DOT_PROPERTIES, createPomProperties(p));
+            jarWriter.write(pomXmlDir + POM_DOT_PROPERTIES, createPomProperties(p));
 
             // Tar contents
-            tgzToJar(p, tgzPath, jarOutput);
+            Optional<PreviousJar> previousJar = openPreviousJar(p, jarOutputPath);
+            try {
+                tgzToJar(p, tgzPath, jarWriter, previousJar.orElse(null));
+            } finally {
+                if (previousJar.isPresent()) {
+                    Log.debugf("Reused %d unchanged entries for %s", previousJar.get().getReused(), jarOutputPath);
+                    previousJar.get().close();
+                }
+            }
 
-            jarOutput.finish();
+            jarWriter.finish();
             FileUtil.forceMoveAtomic(tempFile, jarOutputPath);
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
     }
 
-    private void tgzToJar(io.mvnpm.npm.model.Package p, Path tgzPath, JarArchiveOutputStream jarOutput) throws IOException {
+    private Optional<PreviousJar> openPreviousJar(io.mvnpm.npm.model.Package p, Path jarOutputPath) {
+        if (!incrementalJarEnabled) {
+            return Optional.empty();
+        }
+        return PreviousJar.open(jarOutputPath, p.name().mvnArtifactId, p.version(),
+                MVN_ROOT + importMapUtil.getImportMapRoot(p));
+    }
+
+    private void tgzToJar(io.mvnpm.npm.model.Package p, Path tgzPath, ParallelJarWriter jarWriter,
+            PreviousJar previousJar) throws IOException {
 
         try (InputStream tgzInputStream = Files.newInputStream(tgzPath);
                 GzipCompressorInputStream gzipInputStream = new GzipCompressorInputStream(tgzInputStream);
@@ -115,16 +145,16 @@ public class JarService {
             final Map<String, byte[]> toImportMap = new LinkedHashMap<>();
             for (TarArchiveEntry entry = tarArchiveInputStream.getNextEntry(); entry != null; entry = tarArchiveInputStream
                     .getNextEntry()) {
-                tgzEntryToJarEntry(p, entry, tarArchiveInputStream, toTgz, toImportMap, jarOutput);
+                tgzEntryToJarEntry(p, entry, tarArchiveInputStream, toTgz, toImportMap, jarWriter, previousJar);
             }
             // More.tar.gz
             if (!toTgz.isEmpty()) {
                 final byte[] bytes = tarGz(toTgz);
-                writeJarEntry(jarOutput, MVNPM_MORE_ARCHIVE, bytes);
+                jarWriter.write(MVNPM_MORE_ARCHIVE, bytes);
             }
             // Import map
             if (!toImportMap.isEmpty()) {
-                writeJarEntry(jarOutput, Location.IMPORTMAP_PATH, importMapUtil.createImportMap(toImportMap));
+                jarWriter.write(Location.IMPORTMAP_PATH, importMapUtil.createImportMap(toImportMap));
             }
 
         }
@@ -133,7 +163,8 @@ public class JarService {
     private void tgzEntryToJarEntry(io.mvnpm.npm.model.Package p, ArchiveEntry entry, TarArchiveInputStream tar,
             Map<String, byte[]> toTgz,
             Map<String, byte[]> toImportMap,
-            JarArchiveOutputStream jarOutput) throws IOException {
+            ParallelJarWriter jarWriter,
+            PreviousJar previousJar) throws IOException {
         String importMapRoot = importMapUtil.getImportMapRoot(p);
         // Let's filter out files we do not need..
         String name = entry.getName();
@@ -154,7 +185,9 @@ public class JarService {
             baos.flush();
             if (shouldAdd && !isRelativeLink) {
                 byte[] contents = baos.toByteArray();
-                writeJarEntry(jarOutput, jarEntryPath, contents);
+                if (previousJar == null || !previousJar.copyIfUnchanged(jarWriter, jarEntryPath, contents)) {
+                    jarWriter.write(jarEntryPath, contents);
+                }
                 // Also gather all package.json
                 if (jarEntryPath.endsWith("/package.json")) {
                     toImportMap.put(name, contents);
@@ -219,28 +252,14 @@ public class JarService {
         }
     }
 
-    private void writeJarEntry(JarArchiveOutputStream jarOutput, String filename, Path path) throws IOException {
-        JarArchiveEntry entry = new JarArchiveEntry(filename);
-        entry.setSize(Files.size(path));
-        jarOutput.putArchiveEntry(entry);
-        try (InputStream fileInputStream = Files.newInputStream(path)) {
-            int bytesRead;
-            byte[] buffer = new byte[4096];
-            while ((bytesRead = fileInputStream.read(buffer)) != -1) {
-                jarOutput.write(buffer, 0, bytesRead);
+    private void writeJarEntry(ParallelJarWriter jarWriter, String filename, Path path) throws IOException {
+        jarWriter.write(filename, Files.size(path), () -> {
+            try {
+                return Files.newInputStream(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error jarring file content for " + path, e);
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Error jarring file content for " + path, e);
-        }
-        jarOutput.closeArchiveEntry();
-    }
-
-    private void writeJarEntry(JarArchiveOutputStream jarOutput, String filename, byte[] filecontents) throws IOException {
-        JarArchiveEntry entry = new JarArchiveEntry(filename);
-        entry.setSize(filecontents.length);
-        jarOutput.putArchiveEntry(entry);
-        jarOutput.write(filecontents);
-        jarOutput.closeArchiveEntry();
+        });
     }
 
     private static final String PACKAGE = "package";
@@ -260,4 +279,5 @@ public class JarService {
     // Excluded files which won't be added to the jar (unless gzipped)
     static final List<String> FILES_TO_EXCLUDE = List.of(".md", ".ts", ".ts.map", "/logo.svg");
     private static final String CONTENTS = "No contents since this is a JavaScript Project";
+    private static final long EMPTY_JAR_ENTRY_TIME = 1672531200000L; // 2023-01-01T00:00:00Z
 }
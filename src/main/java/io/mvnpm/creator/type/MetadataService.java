@@ -2,6 +2,7 @@ package io.mvnpm.creator.type;
 
 import static io.mvnpm.creator.utils.FileUtil.isOlderThanTimeout;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
@@ -10,7 +11,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -20,6 +27,7 @@ import org.apache.maven.artifact.repository.metadata.Metadata;
 import org.apache.maven.artifact.repository.metadata.Versioning;
 import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
 import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Writer;
+import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
@@ -28,12 +36,19 @@ import io.mvnpm.creator.PackageFileLocator;
 import io.mvnpm.creator.composite.CompositeService;
 import io.mvnpm.creator.utils.FileUtil;
 import io.mvnpm.maven.MavenCentralService;
+import io.mvnpm.mavencentral.sync.CentralSyncItem;
+import io.mvnpm.mavencentral.sync.Stage;
 import io.mvnpm.npm.NpmRegistryFacade;
 import io.mvnpm.npm.model.Name;
+import io.mvnpm.npm.model.NameParser;
 import io.mvnpm.npm.model.ProjectInfo;
-import io.mvnpm.version.InvalidVersionException;
 import io.mvnpm.version.Version;
+import io.mvnpm.version.VersionIndex;
 import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.vertx.ConsumeEvent;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import io.vertx.mutiny.core.buffer.Buffer;
 import io.vertx.mutiny.ext.web.client.HttpResponse;
 
@@ -62,14 +77,10 @@ public class MetadataService {
     @ConfigProperty(name = "mvnpm.metadata-timeout.minutes")
     int timeout;
 
-    public Metadata getMetadata(Name name) {
-        final Path metadataXml = getMetadataXml(name);
-        try (InputStream is = Files.newInputStream(metadataXml)) {
-            return metadataXpp3Reader.read(is);
-        } catch (IOException | XmlPullParserException e) {
-            throw new RuntimeException(e);
-        }
+    private final Set<String> reconciling = ConcurrentHashMap.newKeySet();
 
+    public Metadata getMetadata(Name name) {
+        return readMetadata(getMetadataXml(name));
     }
 
     public Path getMetadataXml(Name name) {
@@ -78,26 +89,145 @@ public class MetadataService {
         if (!Files.exists(localFilePath) || !Files.isRegularFile(localFilePath) || isOlderThanTimeout(localFilePath, timeout)) {
             createDir(localFilePath);
             if (name.isInternal()) {
-                final Buffer buffer = mavenCentralService.getFromMavenCentral(name, null, Constants.MAVEN_METADATA_XML)
-                        .map(HttpResponse::bodyAsBuffer)
-                        .await().atMost(Duration.ofSeconds(10));
-                FileUtil.writeAtomic(localFilePath, buffer.getBytes());
+                createCompositeMetadata(name, localFilePath);
             } else {
-                try (StringWriter stringWriter = new StringWriter()) {
-                    Metadata metadata = buildMetadata(name);
-                    metadataXpp3Writer.write(stringWriter, metadata);
-                    FileUtil.writeAtomic(localFilePath, stringWriter.toString());
-                    FileUtil.createSha1(localFilePath, true);
-                    FileUtil.createMd5(localFilePath, true);
-                } catch (IOException ex) {
-                    throw new UncheckedIOException(ex);
-                }
+                writeMetadata(localFilePath, buildMetadata(name));
             }
 
         }
         return localFilePath;
     }
 
+    /**
+     * Keep the composite metadata up to date when a new composite version is released
+     */
+    @ConsumeEvent("central-sync-item-stage-change")
+    @Blocking
+    public void compositeReleased(CentralSyncItem centralSyncItem) {
+        if (centralSyncItem.stage.equals(Stage.RELEASED)) {
+            Name name = NameParser.fromMavenGA(centralSyncItem.groupId, centralSyncItem.artifactId);
+            Path localFilePath = packageFileLocator.getLocalMetadataXmlFullPath(name);
+            if (name.isInternal() && Files.isRegularFile(localFilePath)) {
+                // The stage change might not be committed yet, so add the released version explicitly
+                Set<String> versions = getKnownCompositeVersions(name, localFilePath);
+                versions.add(centralSyncItem.version);
+                writeMetadata(localFilePath, buildCompositeMetadata(name, versions));
+            }
+        }
+    }
+
+    private void createCompositeMetadata(Name name, Path localFilePath) {
+        Set<String> versions = getKnownCompositeVersions(name, localFilePath);
+        if (versions.isEmpty()) {
+            // Nothing known locally yet, so this first time we have to get it from Central
+            final Buffer buffer = mavenCentralService.getFromMavenCentral(name, null, Constants.MAVEN_METADATA_XML)
+                    .map(HttpResponse::bodyAsBuffer)
+                    .await().atMost(Duration.ofSeconds(10));
+            FileUtil.writeAtomic(localFilePath, buffer.getBytes());
+            FileUtil.createSha1(localFilePath, true);
+            FileUtil.createMd5(localFilePath, true);
+        } else {
+            writeMetadata(localFilePath, buildCompositeMetadata(name, versions));
+            reconcileWithCentral(name, localFilePath);
+        }
+    }
+
+    /**
+     * Versions we know about locally: released composites in the db, and what we served before
+     */
+    private Set<String> getKnownCompositeVersions(Name name, Path localFilePath) {
+        Set<String> versions = new HashSet<>(findReleasedVersions(name));
+        if (Files.isRegularFile(localFilePath)) {
+            versions.addAll(getVersions(readMetadata(localFilePath)));
+        }
+        return versions;
+    }
+
+    /**
+     * In its own transaction, as this also runs on worker threads without one (e.g. when reconciling)
+     */
+    List<String> findReleasedVersions(Name name) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> CentralSyncItem.findReleasedVersions(name.mvnGroupId, name.mvnArtifactId));
+    }
+
+    /**
+     * Central stays the source of truth for composites released before we tracked them,
+     * so we merge its versions in the background without holding up the request.
+     */
+    private void reconcileWithCentral(Name name, Path localFilePath) {
+        final String ga = name.mvnGroupId + Constants.DOUBLE_POINT + name.mvnArtifactId;
+        if (!reconciling.add(ga)) {
+            return;
+        }
+        mavenCentralService.getFromMavenCentral(name, null, Constants.MAVEN_METADATA_XML)
+                .map(HttpResponse::bodyAsBuffer)
+                .emitOn(Infrastructure.getDefaultWorkerPool())
+                .onTermination().invoke(() -> reconciling.remove(ga))
+                .subscribe().with(buffer -> mergeCentralVersions(name, localFilePath, buffer.getBytes()),
+                        failure -> Log.warnf("Could not reconcile metadata of %s with Central: %s", ga,
+                                failure.getMessage()));
+    }
+
+    /**
+     * Add the versions in the metadata from Central to the composite metadata, if there are new ones
+     */
+    void mergeCentralVersions(Name name, Path localFilePath, byte[] centralMetadata) {
+        Set<String> versions = getKnownCompositeVersions(name, localFilePath);
+        try (InputStream is = new ByteArrayInputStream(centralMetadata)) {
+            if (versions.addAll(getVersions(metadataXpp3Reader.read(is)))) {
+                Log.debugf("Adding versions from Central to the metadata of %s", name.displayName);
+                writeMetadata(localFilePath, buildCompositeMetadata(name, versions));
+            }
+        } catch (IOException | XmlPullParserException e) {
+            Log.warnf("Invalid metadata in Central for %s: %s", name.displayName, e.getMessage());
+        }
+    }
+
+    private Metadata buildCompositeMetadata(Name name, Set<String> versions) {
+        List<String> sorted = new ArrayList<>(versions);
+        sorted.sort(Comparator.comparing(ComparableVersion::new));
+        String latest = sorted.get(sorted.size() - 1);
+
+        Versioning versioning = new Versioning();
+        versioning.setVersions(sorted);
+        versioning.setLatest(latest);
+        versioning.setRelease(latest);
+        versioning.setLastUpdated(new SimpleDateFormat(TIME_STAMP_FORMAT).format(new Date()));
+
+        Metadata metadata = new Metadata();
+        metadata.setGroupId(name.mvnGroupId);
+        metadata.setArtifactId(name.mvnArtifactId);
+        metadata.setVersioning(versioning);
+        return metadata;
+    }
+
+    private List<String> getVersions(Metadata metadata) {
+        if (metadata.getVersioning() == null) {
+            return List.of();
+        }
+        return metadata.getVersioning().getVersions();
+    }
+
+    private Metadata readMetadata(Path metadataXml) {
+        try (InputStream is = Files.newInputStream(metadataXml)) {
+            return metadataXpp3Reader.read(is);
+        } catch (IOException | XmlPullParserException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeMetadata(Path localFilePath, Metadata metadata) {
+        try (StringWriter stringWriter = new StringWriter()) {
+            metadataXpp3Writer.write(stringWriter, metadata);
+            FileUtil.writeAtomic(localFilePath, stringWriter.toString());
+            FileUtil.createSha1(localFilePath, true);
+            FileUtil.createMd5(localFilePath, true);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
     public StreamingOutput getMetadataSha1(Name name) {
 
         Path localSha1Path = packageFileLocator.getLocalMetadataXmlSha1FullPath(name);
@@ -143,19 +273,17 @@ public class MetadataService {
         versioning.setLatest(latest);
         versioning.setRelease(latest);
 
-        for (String version : info.versions()) {
-            try {
-                Version v = Version.fromString(version);
-                if (!versioning.getVersions().contains(v.toString())) {
-                    // Ignore pre release
-                    if (v.qualifier() == null) {
-                        versioning.addVersion(v.toString());
-                    }
-                }
-            } catch (InvalidVersionException ive) {
-                Log.warn("Ignoring version [" + ive.getVersion() + "] for " + name.displayName);
+        VersionIndex versionIndex = info.versionIndex();
+        Set<String> added = new HashSet<>();
+        for (Version v : versionIndex.stableVersions()) {
+            // Ignore pre release
+            if (v.qualifier() == null && added.add(v.toString())) {
+                versioning.addVersion(v.toString());
             }
         }
+        for (String version : versionIndex.invalidVersions()) {
+            Log.warn("Ignoring version [" + version + "] for " + name.displayName);
+        }
 
         String lastModified = info.lastModified();
         if (lastModified != null) {
@@ -12,9 +12,15 @@ import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.function.Function;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -29,17 +35,20 @@ import org.apache.maven.model.Scm;
 import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import io.mvnpm.Constants;
 import io.mvnpm.creator.utils.FileUtil;
-import io.mvnpm.npm.NpmRegistryFacade;
 import io.mvnpm.npm.model.Bugs;
 import io.mvnpm.npm.model.Maintainer;
 import io.mvnpm.npm.model.Name;
-import io.mvnpm.npm.model.ProjectInfo;
+import io.mvnpm.npm.model.NameParser;
+import io.mvnpm.npm.model.Packument;
 import io.mvnpm.npm.model.Repository;
-import io.mvnpm.version.VersionConverter;
 import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 
 /**
  * Creates a pom.xml from the NPM Package
@@ -50,10 +59,13 @@ import io.quarkus.logging.Log;
 public class PomService {
 
     @Inject
-    NpmRegistryFacade npmRegistryFacade;
+    HashService hashService;
 
     @Inject
-    HashService hashService;
+    DependencyVersionService dependencyVersionService;
+
+    @ConfigProperty(name = "mvnpm.pom.latest-version.concurrency", defaultValue = "4")
+    int latestVersionConcurrency;
 
     private final MavenXpp3Reader mavenXpp3Reader = new MavenXpp3Reader();
     private final MavenXpp3Writer mavenXpp3Writer = new MavenXpp3Writer();
@@ -113,13 +125,62 @@ public class PomService {
         }
     }
 
+    /**
+     * Create the poms of many versions of a package in one pass, e.g. from the {@link Packument}.
+     * Range conversions, and the latest versions used for open ended ranges, are shared by all versions.
+     * Poms that already exist are skipped, and a version that fails (e.g. an invalid range) does not stop the others.
+     *
+     * @return the poms that were created
+     */
+    public List<Path> createAndSavePoms(Collection<io.mvnpm.npm.model.Package> packages,
+            Function<io.mvnpm.npm.model.Package, Path> localFilePath) {
+        Map<String, String> mavenRanges = new HashMap<>();
+        List<PomToCreate> poms = new ArrayList<>();
+        Set<String> openEnded = new LinkedHashSet<>();
+        for (io.mvnpm.npm.model.Package p : packages) {
+            Path path = localFilePath.apply(p);
+            if (!Files.exists(path)) {
+                try {
+                    List<Dependency> deps = toDependencies(p, mavenRanges);
+                    openEnded.addAll(getOpenEndedNames(deps));
+                    poms.add(new PomToCreate(p, path, deps));
+                } catch (RuntimeException e) {
+                    logNotCreated(p, e);
+                }
+            }
+        }
+        Map<String, String> latestVersions = getLatestVersions(openEnded);
+
+        List<Path> created = new ArrayList<>(poms.size());
+        for (PomToCreate pom : poms) {
+            try {
+                resolveOpenEndedRanges(pom.deps(), latestVersions);
+                writePom(toModel(pom.p(), pom.deps()), pom.path());
+                hashService.createHashes(pom.path());
+                created.add(pom.path());
+            } catch (RuntimeException e) {
+                logNotCreated(pom.p(), e);
+            }
+        }
+        Log.debugf("Created %d of %d poms (%d ranges converted)", created.size(), packages.size(), mavenRanges.size());
+        return created;
+    }
+
+    private void logNotCreated(io.mvnpm.npm.model.Package p, RuntimeException e) {
+        Log.warnf("Could not create pom for %s %s: %s", p.name().displayName, p.version(), e.getMessage());
+    }
+
     private void writePomToFileSystem(io.mvnpm.npm.model.Package p, Path localFilePath) {
         if (Files.exists(localFilePath)) {
             Log.warnf("%s was already created.", localFilePath);
             return;
         }
-        List<Dependency> deps = toDependencies(p);
+        List<Dependency> deps = toDependencies(p, new HashMap<>());
+        resolveOpenEndedRanges(deps, getLatestVersions(getOpenEndedNames(deps)));
+        writePom(toModel(p, deps), localFilePath);
+    }
 
+    private Model toModel(io.mvnpm.npm.model.Package p, List<Dependency> deps) {
         Model model = new Model();
 
         model.setModelVersion(MODEL_VERSION);
@@ -155,7 +216,10 @@ public class PomService {
             model.setProperties(properties);
             model.setDependencies(deps);
         }
+        return model;
+    }
 
+    private void writePom(Model model, Path localFilePath) {
         FileUtil.createDirectories(localFilePath);
         try (StringWriter out = new StringWriter()) {
             mavenXpp3Writer.write(out, model);
@@ -268,14 +332,18 @@ public class PomService {
         return ds;
     }
 
-    private List<Dependency> toDependencies(io.mvnpm.npm.model.Package p) {
+    /**
+     * @param mavenRanges npm to maven ranges already converted
+     */
+    private List<Dependency> toDependencies(io.mvnpm.npm.model.Package p, Map<String, String> mavenRanges) {
         List<Dependency> deps = new ArrayList<>();
-        populateFromMap(deps, p.dependencies());
-        populateFromMap(deps, p.peerDependencies());
+        populateFromMap(deps, p.dependencies(), mavenRanges);
+        populateFromMap(deps, p.peerDependencies(), mavenRanges);
         return deps;
     }
 
-    private void populateFromMap(List<Dependency> listToPopulate, Map<Name, String> dependencies) {
+    private void populateFromMap(List<Dependency> listToPopulate, Map<Name, String> dependencies,
+            Map<String, String> mavenRanges) {
         if (dependencies != null && !dependencies.isEmpty()) {
             for (Map.Entry<Name, String> e : dependencies.entrySet()) {
                 if (e.getValue().startsWith("file:")) {
@@ -283,32 +351,80 @@ public class PomService {
                 }
                 Name name = e.getKey();
                 String version = e.getValue();
-                listToPopulate.add(toDependency(name, version));
+                listToPopulate.add(toDependency(name,
+                        mavenRanges.computeIfAbsent(version, dependencyVersionService::toMavenRange)));
             }
         }
     }
 
-    private Dependency toDependency(Name name, String version) {
+    private Dependency toDependency(Name name, String mavenRange) {
         Dependency d = new Dependency();
         d.setGroupId(name.mvnGroupId);
         d.setArtifactId(name.mvnArtifactId);
-        d.setVersion(toVersion(name, version));
+        d.setVersion(mavenRange);
         return d;
     }
 
-    private String toVersion(Name name, String version) {
-        String trimVersion = VersionConverter.convert(version).trim().replaceAll("\\s+", "");
+    /**
+     * Open ended ranges get the latest version as bottom boundary. We look those up all at once.
+     */
+    private Set<String> getOpenEndedNames(List<Dependency> deps) {
+        Set<String> npmNames = new LinkedHashSet<>();
+        for (Dependency d : deps) {
+            if (d.getVersion().equals(OPEN_ENDED)) {
+                npmNames.add(NameParser.fromMavenGA(d.getGroupId(), d.getArtifactId()).npmFullName);
+            }
+        }
+        return npmNames;
+    }
+
+    private void resolveOpenEndedRanges(List<Dependency> deps, Map<String, String> latestVersions) {
+        for (Dependency d : deps) {
+            if (d.getVersion().equals(OPEN_ENDED)) {
+                String npmName = NameParser.fromMavenGA(d.getGroupId(), d.getArtifactId()).npmFullName;
+                String latest = latestVersions.get(npmName);
+                if (latest == null) {
+                    throw new IllegalStateException("Could not find the latest version of " + npmName);
+                }
+                d.setVersion(OPEN_BLOCK + latest + COMMA + CLOSE_ROUND);
+            }
+        }
+    }
 
-        // This is an open ended range. Let's get the latest for a bottom boundary
-        if (trimVersion.equals(OPEN_BLOCK + COMMA + CLOSE_ROUND)) {
-            ProjectInfo info = npmRegistryFacade.getProjectInfo(name.npmFullName);
-            return OPEN_BLOCK + info.distTags().latest() + COMMA + CLOSE_ROUND;
+    /**
+     * @return the latest version of the packages that could be looked up
+     */
+    private Map<String, String> getLatestVersions(Set<String> npmNames) {
+        if (npmNames.isEmpty()) {
+            return Map.of();
+        } else if (npmNames.size() == 1) {
+            String npmName = npmNames.iterator().next();
+            try {
+                return Collections.singletonMap(npmName, dependencyVersionService.getLatestVersion(npmName));
+            } catch (RuntimeException e) {
+                Log.warnf("Could not get the latest version of %s: %s", npmName, e.getMessage());
+                return Map.of();
+            }
         }
-        // TODO: Make other ranges more effient too ?
-        return trimVersion;
+        // Mostly cache hits, the npm registry governor paces the rest
+        return Multi.createFrom().iterable(npmNames)
+                .onItem().transformToUni(npmName -> Uni.createFrom()
+                        .item(() -> Map.entry(npmName, dependencyVersionService.getLatestVersion(npmName)))
+                        .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                        .onFailure().invoke(e -> Log.warnf("Could not get the latest version of %s: %s", npmName,
+                                e.getMessage()))
+                        .onFailure().recoverWithNull())
+                .merge(latestVersionConcurrency)
+                .filter(entry -> entry != null)
+                .collect().asMap(Map.Entry::getKey, Map.Entry::getValue)
+                .await().indefinitely();
+    }
+
+    private record PomToCreate(io.mvnpm.npm.model.Package p, Path path, List<Dependency> deps) {
     }
 
     private static final String JAR = "jar";
+    private static final String OPEN_ENDED = OPEN_BLOCK + COMMA + CLOSE_ROUND;
 
     private static final String MODEL_VERSION = "4.0.0";
     private static final String GIT_PLUS = "git+";
@@ -0,0 +1,130 @@
+package io.mvnpm.creator.type;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+
+import io.mvnpm.Constants;
+import io.mvnpm.creator.utils.ParallelJarWriter;
+import io.quarkus.logging.Log;
+
+/**
+ * The jar of an earlier version of the same artifact, used to copy unchanged entries as raw compressed bytes
+ * so that only changed files needs to be deflated again.
+ *
+ * Entries are matched on their path relative to the version root, and only reused when size, crc and content are the
+ * same.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+final class PreviousJar implements Closeable {
+
+    private final ZipFile zipFile;
+    private final String previousRoot;
+    private final String currentRoot;
+    private int reused = 0;
+
+    private PreviousJar(ZipFile zipFile, String previousRoot, String currentRoot) {
+        this.zipFile = zipFile;
+        this.previousRoot = previousRoot;
+        this.currentRoot = currentRoot;
+    }
+
+    /**
+     * Open the jar of the highest local version lower than the given version, if any.
+     *
+     * @param jarOutputPath the jar we are about to create
+     * @param version the version we are about to create
+     * @param currentRoot the entry root of the jar we are about to create (it ends with the version)
+     */
+    static Optional<PreviousJar> open(Path jarOutputPath, String artifactId, String version, String currentRoot) {
+        if (!currentRoot.endsWith(version + Constants.SLASH)) {
+            return Optional.empty();
+        }
+        Path artifactRoot = jarOutputPath.getParent().getParent();
+        ComparableVersion current = new ComparableVersion(version);
+        Optional<Path> previousVersionDir;
+        try (Stream<Path> versionDirs = Files.list(artifactRoot)) {
+            previousVersionDir = versionDirs
+                    .filter(dir -> new ComparableVersion(dir.getFileName().toString()).compareTo(current) < 0)
+                    .filter(dir -> Files.isRegularFile(getJar(dir, artifactId)))
+                    .max(Comparator.comparing(dir -> new ComparableVersion(dir.getFileName().toString())));
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
+        if (previousVersionDir.isEmpty()) {
+            return Optional.empty();
+        }
+        Path dir = previousVersionDir.get();
+        String previousVersion = dir.getFileName().toString();
+        String previousRoot = currentRoot.substring(0, currentRoot.length() - version.length() - 1)
+                + previousVersion + Constants.SLASH;
+        try {
+            ZipFile zipFile = ZipFile.builder().setPath(getJar(dir, artifactId)).get();
+            return Optional.of(new PreviousJar(zipFile, previousRoot, currentRoot));
+        } catch (IOException ex) {
+            // The previous jar might be removed or replaced while we look at it
+            Log.debugf("Could not open previous jar in %s: %s", dir, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Copy the entry from the previous jar if it contains exactly the same content
+     *
+     * @return true if the entry was copied, false if it needs to be written
+     */
+    boolean copyIfUnchanged(ParallelJarWriter jarWriter, String filename, byte[] filecontents) throws IOException {
+        if (!filename.startsWith(currentRoot)) {
+            return false;
+        }
+        ZipArchiveEntry previous = zipFile.getEntry(previousRoot + filename.substring(currentRoot.length()));
+        if (previous == null
+                || (previous.getMethod() != ZipArchiveEntry.DEFLATED && previous.getMethod() != ZipArchiveEntry.STORED)
+                || previous.getSize() != filecontents.length
+                || previous.getCrc() != crc(filecontents)
+                || !sameContent(previous, filecontents)) {
+            return false;
+        }
+        jarWriter.copyRaw(zipFile, previous, filename);
+        reused++;
+        return true;
+    }
+
+    int getReused() {
+        return reused;
+    }
+
+    @Override
+    public void close() throws IOException {
+        zipFile.close();
+    }
+
+    // Inflating to compare is a lot cheaper than deflating again, and makes sure a crc collision can not leak content
+    private boolean sameContent(ZipArchiveEntry previous, byte[] filecontents) throws IOException {
+        try (InputStream in = zipFile.getInputStream(previous)) {
+            return Arrays.equals(in.readAllBytes(), filecontents);
+        }
+    }
+
+    private static long crc(byte[] filecontents) {
+        CRC32 crc = new CRC32();
+        crc.update(filecontents);
+        return crc.getValue();
+    }
+
+    private static Path getJar(Path versionDir, String artifactId) {
+        return versionDir.resolve(artifactId + Constants.HYPHEN + versionDir.getFileName() + Constants.DOT_JAR);
+    }
+}
@@ -14,14 +14,15 @@ import java.util.zip.GZIPInputStream;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
-import org.apache.commons.compress.archivers.jar.JarArchiveEntry;
 import org.apache.commons.compress.archivers.jar.JarArchiveOutputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.utils.IOUtils;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import io.mvnpm.Constants;
 import io.mvnpm.creator.utils.FileUtil;
+import io.mvnpm.creator.utils.ParallelJarWriter;
 import io.quarkus.logging.Log;
 
 /**
@@ -32,6 +33,9 @@ import io.quarkus.logging.Log;
 @ApplicationScoped
 public class SourceService {
 
+    @ConfigProperty(name = "mvnpm.compression.threads", defaultValue = "1")
+    int compressionThreads;
+
     public Path createSource(Path tgzFile) {
         Path sourceFile = Path.of(tgzFile.toString().replace(Constants.DOT_TGZ, Constants.DASH_SOURCES_DOT_JAR));
         createJar(tgzFile, sourceFile);
@@ -48,9 +52,11 @@ public class SourceService {
             }
             final Path tempFile = FileUtil.getTempFilePathFor(sourceFile);
             try (OutputStream fileOutput = Files.newOutputStream(tempFile);
-                    JarArchiveOutputStream jarOutput = new JarArchiveOutputStream(fileOutput)) {
-                tgzToJar(tgzFile, jarOutput);
-                jarOutput.finish();
+                    JarArchiveOutputStream jarOutput = new JarArchiveOutputStream(fileOutput);
+                    ParallelJarWriter jarWriter = new ParallelJarWriter(jarOutput, compressionThreads,
+                            ParallelJarWriter.estimateContentSize(tgzFile))) {
+                tgzToJar(tgzFile, jarWriter);
+                jarWriter.finish();
                 FileUtil.forceMoveAtomic(tempFile, sourceFile);
             } catch (IOException ex) {
                 throw new UncheckedIOException(ex);
@@ -58,26 +64,26 @@ public class SourceService {
         }
     }
 
-    private void tgzToJar(Path tarFile, JarArchiveOutputStream jarOutput) throws IOException {
+    private void tgzToJar(Path tarFile, ParallelJarWriter jarWriter) throws IOException {
         if (Files.exists(tarFile)) {
             try (InputStream is = new BufferedInputStream(Files.newInputStream(tarFile))) {
-                tgzToJar(is, jarOutput);
+                tgzToJar(is, jarWriter);
             }
         }
     }
 
-    private void tgzToJar(InputStream tarInput, JarArchiveOutputStream jarOutput) throws IOException {
+    private void tgzToJar(InputStream tarInput, ParallelJarWriter jarWriter) throws IOException {
         try (GZIPInputStream inputStream = new GZIPInputStream(tarInput);
                 TarArchiveInputStream tarArchiveInputStream = new TarArchiveInputStream(inputStream)) {
 
             for (TarArchiveEntry entry = tarArchiveInputStream.getNextTarEntry(); entry != null; entry = tarArchiveInputStream
                     .getNextTarEntry()) {
-                tgzEntryToJarEntry(entry, tarArchiveInputStream, jarOutput);
+                tgzEntryToJarEntry(entry, tarArchiveInputStream, jarWriter);
             }
         }
     }
 
-    private void tgzEntryToJarEntry(ArchiveEntry entry, TarArchiveInputStream tar, JarArchiveOutputStream jarOutput)
+    private void tgzEntryToJarEntry(ArchiveEntry entry, TarArchiveInputStream tar, ParallelJarWriter jarWriter)
             throws IOException {
 
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -85,19 +91,11 @@ public class SourceService {
             IOUtils.copy(tar, bos, bufferSize);
             bos.flush();
             baos.flush();
-            writeJarEntry(jarOutput, entry.getName(), baos.toByteArray());
+            jarWriter.write(entry.getName(), baos.toByteArray());
         }
 
     }
 
-    private void writeJarEntry(JarArchiveOutputStream jarOutput, String filename, byte[] filecontents) throws IOException {
-        JarArchiveEntry entry = new JarArchiveEntry(filename);
-        entry.setSize(filecontents.length);
-        jarOutput.putArchiveEntry(entry);
-        jarOutput.write(filecontents);
-        jarOutput.closeArchiveEntry();
-    }
-
     private final int bufferSize = 4096;
 
 }
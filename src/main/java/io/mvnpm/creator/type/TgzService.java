@@ -2,30 +2,82 @@ package io.mvnpm.creator.type;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.UncheckedIOException;
-import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.mvnpm.Constants;
+import io.mvnpm.creator.exceptions.IntegrityCheckException;
 import io.mvnpm.creator.utils.FileUtil;
+import io.mvnpm.npm.model.Dist;
 import io.quarkus.logging.Log;
 
 /**
- * Downloads or stream the tar files from npm
+ * Downloads or stream the tar files from npm, and verify them against the integrity (or shasum) npm publish
  *
  * @author Phillip Kruger (phillip.kruger@gmail.com)
- *
- *         TODO: Error handling (when version / package does not exist)
- *         TODO: Add metrics / analytics / eventing ?
  */
 @ApplicationScoped
 public class TgzService {
 
+    @ConfigProperty(name = "mvnpm.tarball.connect-timeout.seconds", defaultValue = "10")
+    int connectTimeoutSeconds;
+
+    @ConfigProperty(name = "mvnpm.tarball.timeout.seconds", defaultValue = "120")
+    int timeoutSeconds;
+
+    @ConfigProperty(name = "mvnpm.tarball.retries", defaultValue = "3")
+    int retries;
+
+    private volatile HttpClient httpClient;
+
+    // One client, so connections (and HTTP/2 streams) to the registry are reused
+    private HttpClient httpClient() {
+        if (httpClient == null) {
+            synchronized (this) {
+                if (httpClient == null) {
+                    httpClient = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_2)
+                            .followRedirects(HttpClient.Redirect.NORMAL)
+                            .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                            .executor(Executors.newVirtualThreadPerTaskExecutor())
+                            .build();
+                }
+            }
+        }
+        return httpClient;
+    }
+
+    @PreDestroy
+    void close() {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+    }
+
     public void fetchRemoteAndSave(io.mvnpm.npm.model.Package p, Path localFileName) {
         URL tarball = p.dist().tarball();
         if (Files.exists(localFileName)) {
@@ -34,38 +86,167 @@ public class TgzService {
         }
         try {
             FileUtil.createDirectories(localFileName);
-            downloadFileTo(tarball, localFileName);
+            downloadFileTo(p.dist(), localFileName);
         } catch (IOException ex) {
             throw new RuntimeException("Error download tar from NPM " + tarball + " [" + ex.getMessage() + "]");
         }
     }
 
-    private void downloadFileTo(URL url, Path localFileName) throws FileNotFoundException {
+    private void downloadFileTo(Dist dist, Path localFileName) throws FileNotFoundException {
+        final URL url = dist.tarball();
+        final URI uri = toUri(url);
+        for (int attempt = 0;; attempt++) {
+            try {
+                download(uri, dist, localFileName);
+                return;
+            } catch (FileNotFoundException e) {
+                throw e;
+            } catch (IOException e) {
+                if (attempt >= retries) {
+                    throw new UncheckedIOException(e);
+                }
+                Log.warnf("Download of %s failed (attempt %d of %d), retrying: %s", url, attempt + 1, retries + 1,
+                        e.getMessage());
+                // A corrupt download is not the registry being busy, so no need to wait
+                if (!(e instanceof IntegrityCheckException)) {
+                    backoff(attempt);
+                }
+            }
+        }
+    }
+
+    private void download(URI uri, Dist dist, Path localFileName) throws IOException {
+        final Path tempFile = FileUtil.getTempFilePathFor(localFileName);
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(timeoutSeconds))
+                .GET()
+                .build();
+
+        // Hash while streaming, to verify the content and to not read the file again for the sha1 and md5
+        final MessageDigest sha1 = newMessageDigest(SHA_1);
+        final MessageDigest md5 = newMessageDigest(MD5);
+        final Optional<Integrity> integrity = Integrity.parse(dist.integrity());
+        final MessageDigest integrityDigest = integrity.map(i -> newMessageDigest(i.algorithm())).orElse(null);
+        final List<MessageDigest> digests = integrityDigest == null ? List.of(sha1, md5)
+                : List.of(sha1, md5, integrityDigest);
+
+        // The request timeout only covers the response headers, so we also limit the whole download
+        final DigestingBodySubscriber<Path> body = new DigestingBodySubscriber<>(
+                HttpResponse.BodySubscribers.ofFile(tempFile), digests);
+        CompletableFuture<HttpResponse<Path>> future = httpClient().sendAsync(request,
+                responseInfo -> responseInfo.statusCode() == 200 ? body : HttpResponse.BodySubscribers.replacing(null));
         try {
-            final Path tempFile = FileUtil.getTempFilePathFor(localFileName);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            HttpResponse<Path> response = future.get(timeoutSeconds, TimeUnit.SECONDS);
+            int status = response.statusCode();
+            if (status == 404) {
+                throw new FileNotFoundException("Status: " + status);
+            } else if (status != 200) {
+                throw new IOException("Status: " + status);
+            }
+            String sha1Hex = FileUtil.toHex(sha1.digest());
+            verify(dist, integrity, integrityDigest, sha1Hex);
+            FileUtil.forceMoveAtomic(tempFile, localFileName);
+            FileUtil.writeAtomic(Path.of(localFileName + Constants.DOT_SHA1), sha1Hex);
+            FileUtil.writeAtomic(Path.of(localFileName + Constants.DOT_MD5), FileUtil.toHex(md5.digest()));
+        } catch (TimeoutException e) {
+            // Stop writing to the temp file before we delete it
+            body.cancel();
+            future.cancel(true);
+            throw new IOException("Timeout after " + timeoutSeconds + "s", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ioe ? ioe : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            body.cancel();
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
 
-            int responseCode = connection.getResponseCode();
-            if (responseCode != HttpURLConnection.HTTP_OK) {
-                throw new FileNotFoundException("Status: " + responseCode);
+    private void verify(Dist dist, Optional<Integrity> integrity, MessageDigest integrityDigest, String sha1Hex)
+            throws IntegrityCheckException {
+        if (integrity.isPresent()) {
+            byte[] actual = integrityDigest.digest();
+            if (!MessageDigest.isEqual(actual, integrity.get().digest())) {
+                throw new IntegrityCheckException("Integrity mismatch, expected " + dist.integrity() + " but got "
+                        + integrity.get().prefix() + Base64.getEncoder().encodeToString(actual));
             }
+        } else if (dist.shasum() != null && !dist.shasum().isBlank() && !dist.shasum().equalsIgnoreCase(sha1Hex)) {
+            throw new IntegrityCheckException("Shasum mismatch, expected " + dist.shasum() + " but got " + sha1Hex);
+        }
+    }
 
-            try (InputStream in = connection.getInputStream();
-                    OutputStream out = Files.newOutputStream(tempFile)) {
+    private static MessageDigest newMessageDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-                byte[] buffer = new byte[4096];
-                int bytesRead;
+    /**
+     * The strongest hash in a Subresource Integrity string (e.g. sha512-base64), as used by npm
+     */
+    record Integrity(String prefix, String algorithm, byte[] digest) {
 
-                while ((bytesRead = in.read(buffer)) != -1) {
-                    out.write(buffer, 0, bytesRead);
+        static Optional<Integrity> parse(String integrity) {
+            if (integrity == null || integrity.isBlank()) {
+                return Optional.empty();
+            }
+            Integrity strongest = null;
+            for (String hash : integrity.trim().split("\\s+")) {
+                int dash = hash.indexOf('-');
+                if (dash < 0) {
+                    continue;
+                }
+                String prefix = hash.substring(0, dash + 1);
+                int strength = SRI_ALGORITHMS.indexOf(prefix);
+                if (strength < 0 || (strongest != null && strength <= SRI_ALGORITHMS.indexOf(strongest.prefix()))) {
+                    continue;
+                }
+                try {
+                    byte[] digest = Base64.getDecoder().decode(stripOptions(hash.substring(dash + 1)));
+                    strongest = new Integrity(prefix, SRI_TO_JAVA.get(prefix), digest);
+                } catch (IllegalArgumentException e) {
+                    Log.debugf("Ignoring invalid integrity %s", hash);
                 }
-
-            } finally {
-                connection.disconnect();
             }
-            FileUtil.forceMoveAtomic(tempFile, localFileName);
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+            return Optional.ofNullable(strongest);
+        }
+
+        private static String stripOptions(String base64) {
+            int options = base64.indexOf('?');
+            return options < 0 ? base64 : base64.substring(0, options);
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(BACKOFF.toMillis() << attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
         }
     }
+
+    private static URI toUri(URL url) {
+        try {
+            return url.toURI();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid tarball url " + url, e);
+        }
+    }
+
+    private static final Duration BACKOFF = Duration.ofMillis(500);
+    private static final String SHA_1 = "SHA-1";
+    private static final String MD5 = "MD5";
+    // Weakest to strongest
+    private static final List<String> SRI_ALGORITHMS = List.of("sha1-", "sha256-", "sha384-", "sha512-");
+    private static final Map<String, String> SRI_TO_JAVA = Map.of(
+            "sha1-", SHA_1,
+            "sha256-", "SHA-256",
+            "sha384-", "SHA-384",
+            "sha512-", "SHA-512");
 }
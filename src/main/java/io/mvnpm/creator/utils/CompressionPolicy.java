@@ -0,0 +1,60 @@
+package io.mvnpm.creator.utils;
+
+import java.util.List;
+
+/**
+ * Decide if a jar entry is worth deflating.
+ * Content that is already compressed (fonts, images, archives) is stored as is, so we do not spend CPU
+ * compressing it at build time, or inflating it when the jar is read.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public class CompressionPolicy {
+
+    private CompressionPolicy() {
+    }
+
+    /**
+     * @return true if the entry should be STORED, false if it should be DEFLATED
+     */
+    public static boolean shouldStore(String filename, byte[] contents) {
+        String name = filename.toLowerCase();
+        for (String extension : COMPRESSED_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return contents.length >= MIN_SAMPLE_SIZE && entropy(contents) >= MAX_ENTROPY;
+    }
+
+    /**
+     * Shannon entropy (in bits per byte) of the start of the content.
+     * Compressed or encrypted content is close to 8, text and code is well below 6.
+     */
+    static double entropy(byte[] contents) {
+        int length = Math.min(contents.length, SAMPLE_SIZE);
+        int[] counts = new int[256];
+        for (int i = 0; i < length; i++) {
+            counts[contents[i] & 0xff]++;
+        }
+        double entropy = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                double p = (double) count / length;
+                entropy -= p * (Math.log(p) / LOG_2);
+            }
+        }
+        return entropy;
+    }
+
+    static final List<String> COMPRESSED_EXTENSIONS = List.of(
+            ".woff", ".woff2",
+            ".png", ".jpg", ".jpeg", ".gif", ".webp", ".avif",
+            ".mp3", ".mp4", ".webm", ".ogg",
+            ".gz", ".tgz", ".br", ".zip", ".jar", ".7z", ".xz", ".zst");
+
+    private static final int MIN_SAMPLE_SIZE = 1024;
+    private static final int SAMPLE_SIZE = 4096;
+    private static final double MAX_ENTROPY = 7.5;
+    private static final double LOG_2 = Math.log(2);
+}
@@ -113,17 +113,28 @@ public final class FileUtil {
 
     private static String getSha1(java.io.InputStream inputStream) {
         try {
-            byte[] digest = FileUtil.getMessageDigest(inputStream, Constants.SHA1);
-            StringBuilder result = new StringBuilder();
-            for (byte b : digest) {
-                result.append(String.format("%02x", b));
-            }
-            return result.toString();
+            return toHex(FileUtil.getMessageDigest(inputStream, Constants.SHA1));
         } catch (NoSuchAlgorithmException | IOException e) {
             throw new IllegalStateException(e);
         }
     }
 
+    public static String getSha256(Path file) {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return toHex(FileUtil.getMessageDigest(inputStream, Constants.SHA256));
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String toHex(byte[] digest) {
+        StringBuilder result = new StringBuilder();
+        for (byte b : digest) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
     public static Path createMd5(Path forFile) {
         return FileUtil.createMd5(forFile, false);
     }
@@ -0,0 +1,288 @@
+package io.mvnpm.creator.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+import org.apache.commons.compress.archivers.jar.JarArchiveEntry;
+import org.apache.commons.compress.archivers.jar.JarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.parallel.FileBasedScatterGatherBackingStore;
+import org.apache.commons.compress.parallel.InputStreamSupplier;
+import org.apache.commons.compress.parallel.ScatterGatherBackingStore;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Write entries to a jar, deflating them over multiple threads when the content is big enough to benefit.
+ *
+ * Entries that are already compressed are stored as is (see {@link CompressionPolicy}).
+ * With more than one thread, deflated entries are gathered and written to the jar on finish, after the raw entries.
+ * The compression threads are shared by all the jars being written, so concurrent builds do not multiply them.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public class ParallelJarWriter implements Closeable {
+
+    // Below this size, the scatter (temp file per thread) overhead is more than we gain
+    public static final long PARALLEL_MIN_SIZE = 1024 * 1024;
+    private static final int TGZ_INFLATE_FACTOR = 4;
+
+    // One pool per configured size (so in practice one), shared by all the writers
+    private static final Map<Integer, ExecutorService> POOLS = new ConcurrentHashMap<>();
+
+    private final JarArchiveOutputStream jarOutput;
+    private final JarExecutor executor;
+    private final ParallelScatterZipCreator scatter;
+    private final List<ScatterGatherBackingStore> stores = new ArrayList<>();
+    private boolean closed = false;
+
+    /**
+     * @param threads the configured number of threads, 1 (or less) to deflate on the calling thread
+     * @param inputSize the (estimated) size of the content, to decide if it is worth going parallel
+     */
+    public ParallelJarWriter(JarArchiveOutputStream jarOutput, int threads, long inputSize) {
+        this.jarOutput = jarOutput;
+        if (threads > 1 && inputSize >= PARALLEL_MIN_SIZE) {
+            this.executor = new JarExecutor(POOLS.computeIfAbsent(threads, ParallelJarWriter::createPool));
+            this.scatter = new ParallelScatterZipCreator(executor, this::createStore);
+        } else {
+            this.executor = null;
+            this.scatter = null;
+        }
+    }
+
+    /**
+     * npm tarballs are mostly text, so the content is a few times bigger than the tgz
+     */
+    public static long estimateContentSize(Path tgz) throws IOException {
+        return Files.exists(tgz) ? Files.size(tgz) * TGZ_INFLATE_FACTOR : 0;
+    }
+
+    public boolean isParallel() {
+        return scatter != null;
+    }
+
+    public void write(String filename, byte[] filecontents) throws IOException {
+        if (CompressionPolicy.shouldStore(filename, filecontents)) {
+            store(filename, filecontents);
+        } else {
+            write(filename, filecontents.length, () -> new ByteArrayInputStream(filecontents));
+        }
+    }
+
+    /**
+     * Write the entry without compression
+     */
+    public void store(String filename, byte[] filecontents) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(filecontents);
+        JarArchiveEntry entry = new JarArchiveEntry(filename);
+        entry.setMethod(ZipArchiveEntry.STORED);
+        entry.setSize(filecontents.length);
+        entry.setCompressedSize(filecontents.length);
+        entry.setCrc(crc.getValue());
+        writeRaw(entry, new ByteArrayInputStream(filecontents));
+    }
+
+    public void write(String filename, long size, InputStreamSupplier content) throws IOException {
+        JarArchiveEntry entry = new JarArchiveEntry(filename);
+        entry.setSize(size);
+        if (scatter != null) {
+            entry.setMethod(ZipArchiveEntry.DEFLATED);
+            scatter.addArchiveEntry(entry, content);
+        } else {
+            jarOutput.putArchiveEntry(entry);
+            try (InputStream in = content.get()) {
+                in.transferTo(jarOutput);
+            }
+            jarOutput.closeArchiveEntry();
+        }
+    }
+
+    /**
+     * Write an entry that is already compressed, as is
+     */
+    public void writeRaw(ZipArchiveEntry entry, InputStream rawContent) throws IOException {
+        jarOutput.addRawArchiveEntry(entry, rawContent);
+    }
+
+    /**
+     * Copy an entry from another jar as is, without inflating and deflating it again
+     *
+     * @param filename the name in this jar
+     */
+    public void copyRaw(ZipFile from, ZipArchiveEntry fromEntry, String filename) throws IOException {
+        JarArchiveEntry entry = new JarArchiveEntry(filename);
+        entry.setMethod(fromEntry.getMethod());
+        entry.setSize(fromEntry.getSize());
+        entry.setCompressedSize(fromEntry.getCompressedSize());
+        entry.setCrc(fromEntry.getCrc());
+        try (InputStream raw = from.getRawInputStream(fromEntry)) {
+            writeRaw(entry, raw);
+        }
+    }
+
+    public void finish() throws IOException {
+        if (scatter != null) {
+            try {
+                scatter.writeTo(jarOutput);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while compressing jar entries", ex);
+            } catch (ExecutionException ex) {
+                throw new IOException("Could not compress jar entries", ex.getCause());
+            }
+        }
+        jarOutput.finish();
+    }
+
+    /**
+     * Stop the compression of this jar (if it did not finish) and delete the scatter temp files
+     */
+    @Override
+    public void close() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        List<ScatterGatherBackingStore> toClose;
+        synchronized (stores) {
+            closed = true;
+            toClose = List.copyOf(stores);
+            stores.clear();
+        }
+        for (ScatterGatherBackingStore store : toClose) {
+            try {
+                store.close();
+            } catch (IOException ex) {
+                Log.warnf("Could not delete jar scatter file: %s", ex.getMessage());
+            }
+        }
+    }
+
+    private ScatterGatherBackingStore createStore() throws IOException {
+        synchronized (stores) {
+            if (closed) {
+                throw new IOException("Jar writer is closed");
+            }
+            ScatterGatherBackingStore store = new FileBasedScatterGatherBackingStore(
+                    Files.createTempFile("mvnpm-scatter", ".tmp"));
+            stores.add(store);
+            return store;
+        }
+    }
+
+    private static ExecutorService createPool(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "mvnpm-compression-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The view of the shared pool for one jar. ParallelScatterZipCreator shuts its executor down when done, so this
+     * only stops (and cancels) the tasks of this jar, not the pool.
+     */
+    private static class JarExecutor extends AbstractExecutorService {
+        private final ExecutorService pool;
+        private final List<Future<?>> tasks = new ArrayList<>();
+        private volatile boolean shutdown = false;
+
+        JarExecutor(ExecutorService pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+            FutureTask<T> task = new FutureTask<>(callable);
+            synchronized (tasks) {
+                tasks.add(task);
+            }
+            return task;
+        }
+
+        @Override
+        protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+            return newTaskFor(Executors.callable(runnable, value));
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Jar executor is shut down");
+            }
+            pool.execute(command);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            for (Future<?> task : getTasks()) {
+                task.cancel(true);
+            }
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && getTasks().stream().allMatch(Future::isDone);
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            for (Future<?> task : getTasks()) {
+                try {
+                    task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (ExecutionException | CancellationException ex) {
+                    // Done
+                } catch (TimeoutException ex) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private List<Future<?>> getTasks() {
+            synchronized (tasks) {
+                return List.copyOf(tasks);
+            }
+        }
+    }
+}
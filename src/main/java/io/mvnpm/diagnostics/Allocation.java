@@ -0,0 +1,20 @@
+package io.mvnpm.diagnostics;
+
+import java.time.LocalDateTime;
+
+/**
+ * How much heap one build allocated
+ *
+ * @param kind what was built
+ * @param gav the package that was built
+ * @param allocatedBytes bytes allocated by the building thread
+ * @param millis how long the build took
+ * @param time when the build finished
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public record Allocation(AllocationTracker.Kind kind, String gav, long allocatedBytes, long millis, LocalDateTime time) {
+
+    public long allocatedMb() {
+        return allocatedBytes / (1024 * 1024);
+    }
+}
@@ -0,0 +1,191 @@
+package io.mvnpm.diagnostics;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Measure how much heap a build allocates, to find the packages that blow up the heap.
+ * Only the allocations of the building thread are counted (so not those of the compression threads), so see this as a
+ * lower bound that is good to compare packages with.
+ *
+ * Virtual threads can not be measured (the JVM reports -1), so builds on a virtual thread (the upload jobs and the
+ * prefetcher) are not in the heaviest list. They are counted as unmeasured instead (mvnpm.build.unmeasured, and in
+ * /api/diagnostics/heap), and still show as a build in JFR recordings, where the allocation samples can tell more.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@ApplicationScoped
+public class AllocationTracker {
+
+    private static final long MB = 1024 * 1024;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "mvnpm.diagnostics.heaviest.size", defaultValue = "50")
+    int heaviestSize;
+
+    @ConfigProperty(name = "mvnpm.diagnostics.heavy-build.mb", defaultValue = "512")
+    long heavyBuildMb;
+
+    private final com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+
+    // Sorted, heaviest first
+    private final List<Allocation> heaviest = new ArrayList<>();
+
+    private final Map<Kind, AtomicLong> unmeasured = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> unmeasuredCounters = new EnumMap<>(Kind.class);
+
+    /**
+     * What is being built
+     */
+    public enum Kind {
+        JAR,
+        COMPOSITE,
+        UPLOAD
+    }
+
+    public AllocationTracker() {
+        for (Kind kind : Kind.values()) {
+            unmeasured.put(kind, new AtomicLong());
+        }
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        for (Kind kind : Kind.values()) {
+            unmeasuredCounters.put(kind, Counter.builder("mvnpm.build.unmeasured")
+                    .tag("kind", kind.name())
+                    .description("Builds of which the allocations could not be measured (e.g. on a virtual thread)")
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Start measuring a build on this thread. Stop by closing the measurement (on the same thread)
+     */
+    public Measurement start(Kind kind, String gav) {
+        return new Measurement(kind, gav);
+    }
+
+    public boolean isSupported() {
+        return threadMXBean != null;
+    }
+
+    /**
+     * @return the builds that allocated the most, heaviest first (one per kind and package)
+     */
+    public synchronized List<Allocation> getHeaviest(int limit) {
+        return List.copyOf(heaviest.subList(0, Math.min(limit, heaviest.size())));
+    }
+
+    /**
+     * @return the number of builds per kind that could not be measured, so are not in the heaviest
+     */
+    public Map<Kind, Long> getUnmeasured() {
+        Map<Kind, Long> counts = new EnumMap<>(Kind.class);
+        unmeasured.forEach((kind, count) -> counts.put(kind, count.get()));
+        return counts;
+    }
+
+    void unmeasured(Kind kind, String gav) {
+        unmeasured.get(kind).incrementAndGet();
+        Counter counter = unmeasuredCounters.get(kind);
+        if (counter != null) {
+            counter.increment();
+        }
+        Log.debugf("Could not measure the allocations of %s of %s on %s", kind, gav, Thread.currentThread());
+    }
+
+    synchronized void record(Allocation allocation) {
+        heaviest.removeIf(a -> a.kind() == allocation.kind() && a.gav().equals(allocation.gav())
+                && a.allocatedBytes() <= allocation.allocatedBytes());
+        boolean alreadyHeavier = heaviest.stream()
+                .anyMatch(a -> a.kind() == allocation.kind() && a.gav().equals(allocation.gav()));
+        if (!alreadyHeavier) {
+            heaviest.add(allocation);
+            heaviest.sort(Comparator.comparingLong(Allocation::allocatedBytes).reversed());
+            while (heaviest.size() > heaviestSize) {
+                heaviest.remove(heaviest.size() - 1);
+            }
+        }
+    }
+
+    private long allocatedBytes() {
+        return threadMXBean == null ? -1 : threadMXBean.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            if (!bean.isThreadAllocatedMemoryEnabled()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return bean;
+        }
+        Log.warn("Measuring allocations per thread is not supported on this JVM");
+        return null;
+    }
+
+    public class Measurement implements AutoCloseable {
+        private final Kind kind;
+        private final String gav;
+        private final long start = System.nanoTime();
+        private final long startAllocated = allocatedBytes();
+        private final BuildEvent event = new BuildEvent();
+
+        private Measurement(Kind kind, String gav) {
+            this.kind = kind;
+            this.gav = gav;
+            event.begin();
+        }
+
+        @Override
+        public void close() {
+            long endAllocated = allocatedBytes();
+            boolean measured = startAllocated >= 0 && endAllocated >= 0;
+            long allocated = measured ? endAllocated - startAllocated : -1;
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.kind = kind.name();
+                event.gav = gav;
+                event.allocated = allocated;
+                event.commit();
+            }
+            if (!measured) {
+                unmeasured(kind, gav);
+                return;
+            }
+            DistributionSummary.builder("mvnpm.build.allocated")
+                    .tag("kind", kind.name())
+                    .baseUnit("bytes")
+                    .description("Heap allocated by a build")
+                    .register(meterRegistry)
+                    .record(allocated);
+            if (allocated > heavyBuildMb * MB) {
+                Log.warnf("%s of %s allocated %d MB in %d ms", kind, gav, allocated / MB, millis);
+            }
+            record(new Allocation(kind, gav, allocated, millis, LocalDateTime.now()));
+        }
+    }
+}
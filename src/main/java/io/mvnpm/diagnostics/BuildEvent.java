@@ -0,0 +1,30 @@
+package io.mvnpm.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A package build, so that JFR recordings show what was being built when memory went up
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@Name("io.mvnpm.Build")
+@Label("Package build")
+@Category("mvnpm")
+@Description("Building a jar, a composite or uploading a bundle")
+class BuildEvent extends jdk.jfr.Event {
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Package")
+    String gav;
+
+    @Label("Allocated")
+    @Description("By the building thread, -1 if that could not be measured (a virtual thread)")
+    @DataAmount
+    long allocated;
+}
@@ -0,0 +1,46 @@
+package io.mvnpm.diagnostics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.QueryParam;
+
+import org.jboss.resteasy.reactive.NoCache;
+
+/**
+ * Find out what is using the heap: the heaviest package builds. JFR recordings are in {@link JfrAdminApi}
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@Path("/api/diagnostics")
+public class DiagnosticsApi {
+
+    private static final long MB = 1024 * 1024;
+
+    @Inject
+    AllocationTracker allocationTracker;
+
+    @GET
+    @NoCache
+    @Path("/heap")
+    public HeapUsage getHeap() {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        return new HeapUsage(heap.getUsed() / MB, heap.getCommitted() / MB, heap.getMax() < 0 ? -1 : heap.getMax() / MB,
+                allocationTracker.isSupported(), allocationTracker.getUnmeasured());
+    }
+
+    /**
+     * The package builds on this pod that allocated the most
+     */
+    @GET
+    @NoCache
+    @Path("/heaviest")
+    public List<Allocation> getHeaviest(@QueryParam("limit") @DefaultValue("20") int limit) {
+        return allocationTracker.getHeaviest(Math.max(1, limit));
+    }
+}
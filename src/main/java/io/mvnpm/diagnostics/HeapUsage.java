@@ -0,0 +1,14 @@
+package io.mvnpm.diagnostics;
+
+import java.util.Map;
+
+/**
+ * The current heap usage of this pod
+ *
+ * @param maxMb -1 if there is no max
+ * @param unmeasuredBuilds the builds (per kind) of which the allocations could not be measured
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public record HeapUsage(long usedMb, long committedMb, long maxMb, boolean allocationTracking,
+        Map<AllocationTracker.Kind, Long> unmeasuredBuilds) {
+}
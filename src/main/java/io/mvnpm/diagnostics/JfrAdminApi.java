@@ -0,0 +1,94 @@
+package io.mvnpm.diagnostics;
+
+import java.time.Duration;
+import java.util.List;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import org.jboss.resteasy.reactive.NoCache;
+
+import io.mvnpm.creator.utils.FileUtil;
+
+/**
+ * JFR recordings on demand. This is not part of the public api: /admin should only be reachable from inside the
+ * cluster, and recordings are disabled unless mvnpm.diagnostics.jfr.enabled is set.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@Path("/admin/jfr")
+public class JfrAdminApi {
+
+    @Inject
+    JfrService jfrService;
+
+    @GET
+    @NoCache
+    public List<JfrRecording> getRecordings() {
+        checkJfrEnabled();
+        return jfrService.list();
+    }
+
+    /**
+     * Start a JFR recording on this pod
+     *
+     * @param seconds how long to record, up to mvnpm.diagnostics.jfr.max-duration
+     * @param settings default (low overhead) or profile (more detail, including allocations)
+     */
+    @POST
+    @NoCache
+    @Path("/start")
+    public JfrRecording startRecording(@QueryParam("seconds") @DefaultValue("60") int seconds,
+            @QueryParam("settings") @DefaultValue("profile") String settings) {
+        checkJfrEnabled();
+        if (seconds < 1) {
+            throw new BadRequestException("Record for at least one second");
+        }
+        if (!settings.equals("default") && !settings.equals("profile")) {
+            throw new BadRequestException("Settings should be default or profile, not " + settings);
+        }
+        return jfrService.start(Duration.ofSeconds(seconds), settings)
+                .orElseThrow(() -> new ClientErrorException("A recording is already running", Response.Status.CONFLICT));
+    }
+
+    @POST
+    @NoCache
+    @Path("/{id}/stop")
+    public JfrRecording stopRecording(@PathParam("id") long id) {
+        checkJfrEnabled();
+        return jfrService.stop(id).orElseThrow(() -> new NotFoundException("No recording " + id));
+    }
+
+    /**
+     * Download a finished recording, to open in JDK Mission Control
+     */
+    @GET
+    @NoCache
+    @Path("/{id}")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public Response downloadRecording(@PathParam("id") long id) {
+        checkJfrEnabled();
+        java.nio.file.Path file = jfrService.getFile(id)
+                .orElseThrow(() -> new NotFoundException("No finished recording " + id));
+        return Response.ok(FileUtil.toStreamingOutput(file))
+                .header("Content-Disposition", "attachment; filename=\"" + file.getFileName() + "\"")
+                .build();
+    }
+
+    private void checkJfrEnabled() {
+        if (!jfrService.isEnabled()) {
+            throw new NotFoundException("JFR recordings are disabled (mvnpm.diagnostics.jfr.enabled)");
+        }
+    }
+}
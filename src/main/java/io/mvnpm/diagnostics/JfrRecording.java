@@ -0,0 +1,14 @@
+package io.mvnpm.diagnostics;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * A JFR recording started with the diagnostics api
+ *
+ * @param state NEW, DELAYED, RUNNING, STOPPED or CLOSED
+ * @param size the size of the recording file once stopped, else -1
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public record JfrRecording(long id, String name, String state, LocalDateTime startTime, Duration duration, long size) {
+}
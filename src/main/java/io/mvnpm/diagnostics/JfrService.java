@@ -0,0 +1,174 @@
+package io.mvnpm.diagnostics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.logging.Log;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Start JFR recordings on demand, so we can see what is using the heap in production without attaching a profiler.
+ * Only one recording runs at a time, and only the last few recordings are kept on disk.
+ * Disabled by default. Recordings do not include the environment variables and system properties, as those hold
+ * secrets.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@ApplicationScoped
+public class JfrService {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @ConfigProperty(name = "mvnpm.diagnostics.jfr.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "mvnpm.diagnostics.jfr.max-duration", defaultValue = "10m")
+    Duration maxDuration;
+
+    @ConfigProperty(name = "mvnpm.diagnostics.jfr.keep", defaultValue = "5")
+    int keep;
+
+    @ConfigProperty(name = "mvnpm.diagnostics.jfr.directory")
+    Optional<String> directory;
+
+    private final Map<Long, Recording> recordings = new ConcurrentSkipListMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start a recording that stops (and is written to disk) after the duration
+     *
+     * @param settings the JFR settings to use (default or profile)
+     * @return the new recording, or empty if a recording is already running
+     */
+    public synchronized Optional<JfrRecording> start(Duration duration, String settings) {
+        if (recordings.values().stream().anyMatch(r -> r.getState() == RecordingState.RUNNING)) {
+            return Optional.empty();
+        }
+        cleanup();
+        try {
+            Path dir = getDirectory();
+            Files.createDirectories(dir);
+            Map<String, String> jfrSettings = new HashMap<>(Configuration.getConfiguration(settings).getSettings());
+            jfrSettings.put("jdk.InitialEnvironmentVariable#enabled", "false");
+            jfrSettings.put("jdk.InitialSystemProperty#enabled", "false");
+            Recording recording = new Recording(jfrSettings);
+            String name = "mvnpm-" + LocalDateTime.now().format(FILE_TIME) + "-" + recording.getId();
+            recording.setName(name);
+            recording.setToDisk(true);
+            recording.setDuration(duration.compareTo(maxDuration) > 0 ? maxDuration : duration);
+            recording.setDestination(dir.resolve(name + ".jfr"));
+            recording.start();
+            recordings.put(recording.getId(), recording);
+            Log.infof("Started JFR recording %s for %s (%s)", name, recording.getDuration(), settings);
+            return Optional.of(toJfrRecording(recording));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (ParseException ex) {
+            throw new IllegalArgumentException("Invalid JFR settings " + settings, ex);
+        }
+    }
+
+    /**
+     * Stop a running recording early. It is written to disk as if it was done
+     */
+    public synchronized Optional<JfrRecording> stop(long id) {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            return Optional.empty();
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            Log.infof("Stopped JFR recording %s", recording.getName());
+        }
+        return Optional.of(toJfrRecording(recording));
+    }
+
+    public List<JfrRecording> list() {
+        return recordings.values().stream()
+                .sorted(Comparator.comparingLong(Recording::getId).reversed())
+                .map(this::toJfrRecording)
+                .toList();
+    }
+
+    /**
+     * @return the file of a finished recording
+     */
+    public Optional<Path> getFile(long id) {
+        Recording recording = recordings.get(id);
+        if (recording == null || recording.getDestination() == null || !isDone(recording)
+                || !Files.exists(recording.getDestination())) {
+            return Optional.empty();
+        }
+        return Optional.of(recording.getDestination());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        recordings.values().forEach(Recording::close);
+    }
+
+    private void cleanup() {
+        List<Recording> done = recordings.values().stream()
+                .filter(this::isDone)
+                .sorted(Comparator.comparingLong(Recording::getId).reversed())
+                .toList();
+        for (Recording old : done.subList(Math.min(Math.max(keep - 1, 0), done.size()), done.size())) {
+            recordings.remove(old.getId());
+            old.close();
+            try {
+                if (old.getDestination() != null) {
+                    Files.deleteIfExists(old.getDestination());
+                }
+            } catch (IOException ex) {
+                Log.warnf("Could not delete old JFR recording %s: %s", old.getDestination(), ex.getMessage());
+            }
+        }
+    }
+
+    private boolean isDone(Recording recording) {
+        return recording.getState() == RecordingState.STOPPED || recording.getState() == RecordingState.CLOSED;
+    }
+
+    private Path getDirectory() {
+        return directory.map(Path::of).orElse(Path.of(System.getProperty("java.io.tmpdir"), "mvnpm-jfr"));
+    }
+
+    private JfrRecording toJfrRecording(Recording recording) {
+        Path destination = recording.getDestination();
+        long size = -1;
+        try {
+            if (destination != null && isDone(recording) && Files.exists(destination)) {
+                size = Files.size(destination);
+            }
+        } catch (IOException ex) {
+            // Just no size
+        }
+        return new JfrRecording(recording.getId(), recording.getName(), recording.getState().name(),
+                recording.getStartTime() == null ? null
+                        : LocalDateTime.ofInstant(recording.getStartTime(), ZoneId.systemDefault()),
+                recording.getDuration(), size);
+    }
+}
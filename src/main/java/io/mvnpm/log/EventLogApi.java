@@ -81,6 +81,14 @@ public class EventLogApi {
         broadcast(eventLogEntry);
     }
 
+    @ConsumeEvent("event-log")
+    @Blocking
+    @Transactional
+    public void log(EventLogEntry eventLogEntry) {
+        eventLogEntry.persist();
+        broadcast(eventLogEntry);
+    }
+
     @GET
     @NoCache
     @Path("/top")
@@ -3,6 +3,7 @@ package io.mvnpm.maven;
 import static io.mvnpm.Constants.HEADER_CACHE_CONTROL;
 import static io.mvnpm.Constants.HEADER_CACHE_CONTROL_IMMUTABLE;
 
+import java.nio.file.Files;
 import java.util.Optional;
 
 import jakarta.inject.Inject;
@@ -18,8 +19,11 @@ import jakarta.ws.rs.core.StreamingOutput;
 import org.jboss.resteasy.reactive.NoCache;
 
 import io.mvnpm.Constants;
+import io.mvnpm.creator.CreationMetrics;
 import io.mvnpm.creator.FileType;
 import io.mvnpm.creator.PackageCreator;
+import io.mvnpm.creator.PackageFileLocator;
+import io.mvnpm.creator.exceptions.PackageNotCreatedException;
 import io.mvnpm.creator.type.MetadataService;
 import io.mvnpm.creator.utils.FileUtil;
 import io.mvnpm.mavencentral.sync.CentralSyncItem;
@@ -57,6 +61,12 @@ public class MavenRepositoryApi {
     @Inject
     PackageCreator packageCreator;
 
+    @Inject
+    PackageFileLocator packageFileLocator;
+
+    @Inject
+    CreationMetrics creationMetrics;
+
     @GET
     @Path("/org/mvnpm/{ga : (.+)?}/maven-metadata.xml")
     @NoCache
@@ -287,25 +297,44 @@ public class MavenRepositoryApi {
     Response resolveAndStream(NameVersion nv, FileType type, Optional<String> dotSigned, PathResolver resolver) {
         Name fullName = nv.name();
         String version = nv.version();
-        CentralSyncItem item = centralSyncService
-                .checkReleaseInDbAndCentral(fullName.mvnGroupId, fullName.mvnArtifactId, version, type.triggerSync());
-        if (item.alreadyReleased()) {
-            throw packageCreator.newPackageAlreadySyncedException(fullName, version, type, dotSigned);
-        }
+        long start = System.nanoTime();
+        String cache = "released";
+        String outcome = "error";
         try {
-            return streamPath(resolver.resolve(fullName, version, type));
-        } catch (GetPackageException e) {
-            if (e.isPermanentlyUnavailable()) {
-                Log.warnf("Package permanently unavailable on NPM, cleaning up sync item: %s:%s:%s — %s",
-                        fullName.mvnGroupId, fullName.mvnArtifactId, version, e.getMessage());
+            CentralSyncItem item = centralSyncService
+                    .checkReleaseInDbAndCentral(fullName.mvnGroupId, fullName.mvnArtifactId, version, type.triggerSync());
+            if (item.alreadyReleased()) {
+                outcome = "ok";
+                throw packageCreator.newPackageAlreadySyncedException(fullName, version, type, dotSigned);
+            }
+            // The file that was asked for, a .sha1 can be missing while the jar is there
+            cache = Files.exists(packageFileLocator.getLocalFullPath(type, fullName, version, dotSigned)) ? "hit"
+                    : "miss";
+            try {
+                Response response = streamPath(resolver.resolve(fullName, version, type));
+                outcome = "ok";
+                return response;
+            } catch (GetPackageException e) {
+                outcome = "npm-error";
+                if (e.isPermanentlyUnavailable()) {
+                    outcome = "not-found";
+                    Log.warnf("Package permanently unavailable on NPM, cleaning up sync item: %s:%s:%s — %s",
+                            fullName.mvnGroupId, fullName.mvnArtifactId, version, e.getMessage());
+                    centralSyncItemService.delete(item);
+                }
+                throw e;
+            } catch (InvalidVersionException e) {
+                outcome = "invalid-version";
+                Log.warnf("Invalid version, cleaning up sync item: %s:%s:%s — %s",
+                        fullName.mvnGroupId, fullName.mvnArtifactId, version, e.getVersion());
                 centralSyncItemService.delete(item);
+                throw e;
+            } catch (PackageNotCreatedException e) {
+                outcome = "not-found";
+                throw e;
             }
-            throw e;
-        } catch (InvalidVersionException e) {
-            Log.warnf("Invalid version, cleaning up sync item: %s:%s:%s — %s",
-                    fullName.mvnGroupId, fullName.mvnArtifactId, version, e.getVersion());
-            centralSyncItemService.delete(item);
-            throw e;
+        } finally {
+            creationMetrics.served(type, dotSigned, cache, outcome, System.nanoTime() - start);
         }
     }
 
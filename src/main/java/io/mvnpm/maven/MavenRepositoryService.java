@@ -3,19 +3,18 @@ package io.mvnpm.maven;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.Duration;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import org.apache.maven.model.Model;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import io.mvnpm.Constants;
 import io.mvnpm.creator.FileType;
 import io.mvnpm.creator.PackageCreator;
+import io.mvnpm.creator.PackagePrefetcher;
 import io.mvnpm.creator.composite.CompositeService;
 import io.mvnpm.creator.events.DependencyVersionCheckRequest;
 import io.mvnpm.creator.type.PomService;
@@ -30,7 +29,6 @@ import io.mvnpm.npm.model.NameParser;
 import io.mvnpm.npm.model.Package;
 import io.mvnpm.npm.model.ProjectInfo;
 import io.mvnpm.version.Version;
-import io.mvnpm.version.VersionMatcher;
 import io.quarkus.logging.Log;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
@@ -66,6 +64,12 @@ public class MavenRepositoryService {
     @Inject
     private CentralSyncService centralSyncService;
 
+    @Inject
+    private PackagePrefetcher packagePrefetcher;
+
+    @ConfigProperty(name = "mvnpm.dependency-check.concurrency", defaultValue = "4")
+    int dependencyCheckConcurrency;
+
     public byte[] getImportMap(NameVersion nameVersion) {
         if (nameVersion.name().isInternal()) {
             try {
@@ -114,20 +118,18 @@ public class MavenRepositoryService {
         Model model = pomService.readPom(req.pomFile());
         final String reqGavString = req.name().toGavString(req.version());
         return Multi.createFrom().iterable(PomService.resolveDependencies(model))
-                .onItem().transformToUniAndConcatenate(d -> Uni.createFrom().item(() -> {
+                .onItem().transformToUni(d -> Uni.createFrom().item(() -> {
                     final String range = d.getVersion();
                     final Name name = NameParser.fromMavenGA(d.getGroupId(), d.getArtifactId());
                     ProjectInfo info = npmRegistryFacade.getProjectInfo(name.npmFullName);
                     if (info == null) {
                         return null;
                     }
-                    final Set<Version> versions = info.versions().stream()
-                            .map(Version::fromString)
-                            .collect(Collectors.toSet());
-                    final Version version = VersionMatcher.selectLatestMatchingVersion(versions, range);
+                    final Version version = info.versionIndex().latestMatching(range);
                     return version != null ? new NameVersion(name, version.toString()) : null;
-                }).runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
-                        .onItem().delayIt().by(Duration.ofSeconds(1)))
+                }).runSubscriptionOn(Infrastructure.getDefaultWorkerPool()))
+                // The npm rate limiter paces the registry calls
+                .merge(dependencyCheckConcurrency)
                 .filter(Objects::nonNull)
                 .emitOn(Infrastructure.getDefaultWorkerPool())
                 .invoke(n -> {
@@ -137,6 +139,8 @@ public class MavenRepositoryService {
                     boolean queued = centralSyncService.initializeSync(n.name(), n.version());
                     if (queued) {
                         Log.infof("Dependency '%s' queued for sync", depGavString);
+                        // So the tgz is there when it gets packaged, or when maven asks for it
+                        packagePrefetcher.prefetch(n.name(), n.version());
                     } else {
                         Log.debugf("Dependency '%s' already synced or in progress", depGavString);
                     }
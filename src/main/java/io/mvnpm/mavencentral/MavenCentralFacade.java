@@ -86,7 +86,8 @@ public class MavenCentralFacade {
                     Log.info("Uploaded bundle " + path + " to releaseId [" + releaseId + "]");
                     return releaseId;
                 } else {
-                    throw new UploadFailedException("HTTP Response status [" + uploadResponse.getStatus() + "] for " + path);
+                    throw new UploadFailedException("HTTP Response status [" + uploadResponse.getStatus() + "] for " + path,
+                            uploadResponse.getStatus());
                 }
             } else {
                 throw new UnauthorizedException("Authorization not present for " + path);
@@ -2,9 +2,16 @@ package io.mvnpm.mavencentral.exceptions;
 
 public class UploadFailedException extends Exception {
 
+    private int statusCode = -1;
+
     public UploadFailedException() {
     }
 
+    public UploadFailedException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
     public UploadFailedException(String message) {
         super(message);
     }
@@ -21,4 +28,11 @@ public class UploadFailedException extends Exception {
         super(message, cause, enableSuppression, writableStackTrace);
     }
 
+    /**
+     * @return the HTTP status from Central, or -1 if we did not get a response
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
 }
@@ -0,0 +1,173 @@
+package io.mvnpm.mavencentral.sync;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+
+/**
+ * A bulk sync (backfill) of many versions of one package. The versions to sync are planned as {@link BulkSyncItem}s,
+ * that also act as the checkpoint when a bulk sync is resumed (e.g. on another pod).
+ * A pod claims a bulk sync by moving it to PLANNING (or by taking over a PLANNING or RUNNING one without heartbeat),
+ * and keeps it by sending heartbeats. Planning that fails is retried later, with exponential backoff.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@Entity
+@Table(indexes = {
+        @Index(columnList = "status, heartbeat")
+})
+public class BulkSync extends PanacheEntity {
+
+    public enum Status {
+        PLANNED, // Requested, versions not planned yet
+        PLANNING, // Claimed by a pod, finding the versions to sync
+        RUNNING, // Versions are being created and uploaded
+        DONE, // All versions are processed
+        CANCELLED, // Stopped by a user
+        FAILED // Planning failed too many times
+    }
+
+    private static final List<Status> ACTIVE = List.of(Status.PLANNED, Status.PLANNING, Status.RUNNING);
+    private static final Duration PLAN_BASE_DELAY = Duration.ofMinutes(1);
+    private static final Duration PLAN_MAX_DELAY = Duration.ofHours(1);
+
+    public String groupId;
+    public String artifactId;
+    public String versionRange; // Maven range, null for all versions
+    public Status status;
+    public String owner; // The pod running this
+    public LocalDateTime heartbeat;
+    public LocalDateTime runAfter; // Planned bulk syncs are not claimed before this
+    public int attempts = 0; // Times planning was started
+    @Column(columnDefinition = "text")
+    public String lastError;
+    public LocalDateTime createdTime;
+    public LocalDateTime finishedTime;
+
+    public BulkSync() {
+    }
+
+    public BulkSync(String groupId, String artifactId, String versionRange) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.versionRange = versionRange;
+        this.status = Status.PLANNED;
+        this.createdTime = LocalDateTime.now();
+        this.runAfter = this.createdTime;
+    }
+
+    public static BulkSync findActive(String groupId, String artifactId) {
+        return find("groupId = ?1 and artifactId = ?2 and status in ?3", groupId, artifactId, ACTIVE).firstResult();
+    }
+
+    public static List<BulkSync> findRecent(int limit) {
+        return find("order by createdTime DESC").range(0, limit - 1).list();
+    }
+
+    /**
+     * Claim the next bulk sync to run: a planned one that is due, or one being planned or run by an owner that stopped
+     * sending heartbeats. A planned one is moved to PLANNING in the same transaction, so no other pod can claim it.
+     * Must be called within a transaction.
+     */
+    public static BulkSync claimNext(String owner, LocalDateTime staleBefore) {
+        LocalDateTime now = LocalDateTime.now();
+        @SuppressWarnings("unchecked")
+        List<BulkSync> candidates = getEntityManager().createNativeQuery(
+                "SELECT * FROM bulksync WHERE (status = :planned AND runafter <= :now) "
+                        + "OR (status IN (:planning, :running) AND heartbeat < :stale) "
+                        + "ORDER BY createdtime ASC LIMIT 1 FOR UPDATE SKIP LOCKED",
+                BulkSync.class)
+                .setParameter("planned", Status.PLANNED.ordinal())
+                .setParameter("now", now)
+                .setParameter("planning", Status.PLANNING.ordinal())
+                .setParameter("running", Status.RUNNING.ordinal())
+                .setParameter("stale", staleBefore)
+                .getResultList();
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        BulkSync bulkSync = candidates.get(0);
+        if (bulkSync.status != Status.RUNNING) {
+            bulkSync.status = Status.PLANNING;
+            bulkSync.attempts++;
+        }
+        bulkSync.owner = owner;
+        bulkSync.heartbeat = now;
+        bulkSync.persist();
+        return bulkSync;
+    }
+
+    /**
+     * Planning is done, start running. Must be called within a transaction.
+     *
+     * @return false if we should stop (cancelled, or taken over by another pod)
+     */
+    public static boolean planned(Long id, String owner) {
+        return update("status = ?1, heartbeat = ?2 where id = ?3 and owner = ?4 and status = ?5", Status.RUNNING,
+                LocalDateTime.now(), id, owner, Status.PLANNING) == 1;
+    }
+
+    /**
+     * Planning failed. Plan again later, or give up after too many attempts. Must be called within a transaction.
+     */
+    public static void planFailed(Long id, String owner, String error, int maxAttempts) {
+        BulkSync bulkSync = findById(id);
+        if (bulkSync == null || bulkSync.status != Status.PLANNING || !owner.equals(bulkSync.owner)) {
+            return;
+        }
+        bulkSync.lastError = error;
+        bulkSync.owner = null;
+        if (bulkSync.attempts >= maxAttempts) {
+            bulkSync.status = Status.FAILED;
+            bulkSync.finishedTime = LocalDateTime.now();
+        } else {
+            bulkSync.status = Status.PLANNED;
+            bulkSync.runAfter = LocalDateTime.now().plus(planBackoff(bulkSync.attempts));
+        }
+    }
+
+    /**
+     * @param attempts the number of times planning was started
+     * @return how long to wait before planning again
+     */
+    static Duration planBackoff(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 20);
+        Duration delay = PLAN_BASE_DELAY.multipliedBy(1L << doublings);
+        return delay.compareTo(PLAN_MAX_DELAY) > 0 ? PLAN_MAX_DELAY : delay;
+    }
+
+    /**
+     * Tell others we are still working on this. Must be called within a transaction.
+     *
+     * @return false if we should stop (cancelled, or taken over by another pod)
+     */
+    public static boolean heartbeat(Long id, String owner) {
+        return update("heartbeat = ?1 where id = ?2 and owner = ?3 and status in ?4",
+                LocalDateTime.now(), id, owner, List.of(Status.PLANNING, Status.RUNNING)) == 1;
+    }
+
+    /**
+     * Stop a bulk sync that is not done yet. Must be called within a transaction.
+     */
+    public static int cancel(Long id) {
+        return update("status = ?1, finishedTime = ?2 where id = ?3 and status in ?4", Status.CANCELLED,
+                LocalDateTime.now(), id, ACTIVE);
+    }
+
+    public String toGaString() {
+        return groupId + ":" + artifactId;
+    }
+
+    @Override
+    public String toString() {
+        return "Bulk sync " + id + " of " + toGaString() + (versionRange != null ? " " + versionRange : "")
+                + " [" + status + "]";
+    }
+}
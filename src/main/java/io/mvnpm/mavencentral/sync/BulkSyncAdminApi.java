@@ -0,0 +1,121 @@
+package io.mvnpm.mavencentral.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+
+import org.jboss.resteasy.reactive.NoCache;
+
+import io.mvnpm.npm.model.Name;
+import io.mvnpm.npm.model.NameParser;
+
+/**
+ * Request and follow bulk syncs (syncing many versions of a package). This is not part of the public api: /admin should
+ * only be reachable from inside the cluster, and bulk syncs are disabled unless mvnpm.bulk-sync.enabled is set.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@Path("/admin/bulk-sync")
+public class BulkSyncAdminApi {
+
+    @Inject
+    BulkSyncService bulkSyncService;
+
+    @GET
+    @NoCache
+    public List<BulkSyncProgress> getRecent(@QueryParam("limit") @DefaultValue("50") int limit) {
+        checkBulkSyncEnabled();
+        return bulkSyncService.getRecent(Math.max(1, Math.min(limit, 500)));
+    }
+
+    @POST
+    @NoCache
+    @Path("/request/{groupId}/{artifactId}")
+    public BulkSyncProgress request(@PathParam("groupId") String groupId, @PathParam("artifactId") String artifactId,
+            @QueryParam("range") String range) {
+        checkBulkSyncEnabled();
+        return bulkSyncService.request(groupId, artifactId, range);
+    }
+
+    /**
+     * Request a bulk sync for many packages, up to mvnpm.bulk-sync.max-packages-per-request
+     */
+    @POST
+    @NoCache
+    @Path("/request")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public List<BulkSyncProgress> request(BulkSyncRequest request) {
+        checkBulkSyncEnabled();
+        if (request == null || request.packages() == null || request.packages().isEmpty()) {
+            throw new BadRequestException("No packages to sync");
+        }
+        int max = bulkSyncService.getMaxPackagesPerRequest();
+        if (request.packages().size() > max) {
+            throw new BadRequestException("Too many packages (" + request.packages().size() + "), request at most "
+                    + max + " at a time");
+        }
+        List<BulkSyncProgress> requested = new ArrayList<>(request.packages().size());
+        for (String p : request.packages()) {
+            Name name = toName(p);
+            requested.add(bulkSyncService.request(name.mvnGroupId, name.mvnArtifactId, request.range()));
+        }
+        return requested;
+    }
+
+    @GET
+    @NoCache
+    @Path("/{id}")
+    public BulkSyncProgress getProgress(@PathParam("id") Long id) {
+        checkBulkSyncEnabled();
+        BulkSyncProgress progress = bulkSyncService.getProgress(id);
+        if (progress == null) {
+            throw new NotFoundException("No bulk sync " + id);
+        }
+        return progress;
+    }
+
+    @POST
+    @NoCache
+    @Path("/{id}/cancel")
+    public BulkSyncProgress cancel(@PathParam("id") Long id) {
+        checkBulkSyncEnabled();
+        BulkSyncProgress progress = bulkSyncService.cancel(id);
+        if (progress == null) {
+            throw new NotFoundException("No bulk sync " + id);
+        }
+        return progress;
+    }
+
+    private void checkBulkSyncEnabled() {
+        if (!bulkSyncService.isEnabled()) {
+            throw new NotFoundException("Bulk syncs are disabled (mvnpm.bulk-sync.enabled)");
+        }
+    }
+
+    private Name toName(String p) {
+        String trimmed = p.trim();
+        int colon = trimmed.indexOf(':');
+        if (colon > 0) {
+            return NameParser.fromMavenGA(trimmed.substring(0, colon), trimmed.substring(colon + 1));
+        }
+        return NameParser.fromNpmProject(trimmed);
+    }
+
+    /**
+     * @param packages the packages, as groupId:artifactId or as npm name
+     * @param range a maven range, like [1.0.0,2), or empty for all versions
+     */
+    public record BulkSyncRequest(List<String> packages, String range) {
+    }
+}
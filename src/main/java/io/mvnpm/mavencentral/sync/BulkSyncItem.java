@@ -0,0 +1,75 @@
+package io.mvnpm.mavencentral.sync;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+
+/**
+ * One version in a {@link BulkSync}, and how far we got with it
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@Entity
+@Table(indexes = {
+        @Index(columnList = "bulkSyncId, state")
+})
+public class BulkSyncItem extends PanacheEntity {
+
+    public enum State {
+        PENDING, // Nothing done yet
+        CREATED, // Files created and signed, ready to upload
+        UPLOADED, // Uploaded to Central, the sync queue follows up on the release
+        SKIPPED, // Already released, or handled by the sync queue
+        FAILED // See the message. The sync queue retries uploads that failed
+    }
+
+    public Long bulkSyncId;
+    public String version;
+    public State state;
+    public LocalDateTime updateTime;
+    @Column(columnDefinition = "text")
+    public String message;
+
+    public BulkSyncItem() {
+    }
+
+    public BulkSyncItem(Long bulkSyncId, String version) {
+        this.bulkSyncId = bulkSyncId;
+        this.version = version;
+        this.state = State.PENDING;
+        this.updateTime = LocalDateTime.now();
+    }
+
+    public static List<BulkSyncItem> findUnfinished(Long bulkSyncId) {
+        return find("bulkSyncId = ?1 and state in ?2 order by id", bulkSyncId,
+                List.of(State.PENDING, State.CREATED)).list();
+    }
+
+    public static Map<State, Long> countByState(Long bulkSyncId) {
+        Map<State, Long> counts = new EnumMap<>(State.class);
+        for (State state : State.values()) {
+            counts.put(state, 0L);
+        }
+        getEntityManager().createQuery(
+                "select state, count(*) from BulkSyncItem where bulkSyncId = ?1 group by state", Object[].class)
+                .setParameter(1, bulkSyncId)
+                .getResultList()
+                .forEach(row -> counts.put((State) row[0], (Long) row[1]));
+        return counts;
+    }
+
+    /**
+     * Record how far we got. Must be called within a transaction.
+     */
+    public static void checkpoint(Long id, State state, String message) {
+        update("state = ?1, message = ?2, updateTime = ?3 where id = ?4", state, message, LocalDateTime.now(), id);
+    }
+}
@@ -0,0 +1,32 @@
+package io.mvnpm.mavencentral.sync;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Where a bulk sync is at
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public record BulkSyncProgress(
+        Long id,
+        String groupId,
+        String artifactId,
+        String versionRange,
+        BulkSync.Status status,
+        String owner,
+        LocalDateTime createdTime,
+        LocalDateTime heartbeat,
+        LocalDateTime finishedTime,
+        int attempts,
+        String lastError,
+        long total,
+        Map<BulkSyncItem.State, Long> states) {
+
+    public static BulkSyncProgress of(BulkSync bulkSync, Map<BulkSyncItem.State, Long> states) {
+        long total = states.values().stream().mapToLong(Long::longValue).sum();
+        return new BulkSyncProgress(bulkSync.id, bulkSync.groupId, bulkSync.artifactId, bulkSync.versionRange,
+                bulkSync.status, bulkSync.owner, bulkSync.createdTime, bulkSync.heartbeat, bulkSync.finishedTime,
+                bulkSync.attempts, bulkSync.lastError, total, states);
+    }
+}
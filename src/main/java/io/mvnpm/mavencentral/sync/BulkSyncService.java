@@ -0,0 +1,419 @@
+package io.mvnpm.mavencentral.sync;
+
+import static io.quarkus.scheduler.Scheduled.ConcurrentExecution.SKIP;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.mvnpm.creator.PackageCreator;
+import io.mvnpm.log.EventLogEntry;
+import io.mvnpm.maven.exceptions.PackageAlreadySyncedException;
+import io.mvnpm.npm.NpmRegistryFacade;
+import io.mvnpm.npm.model.Name;
+import io.mvnpm.npm.model.NameParser;
+import io.mvnpm.npm.model.ProjectInfo;
+import io.mvnpm.version.CompiledVersionRange;
+import io.mvnpm.version.InvalidVersionException;
+import io.mvnpm.version.Version;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.mutiny.core.eventbus.EventBus;
+
+/**
+ * Sync the history of a package (all versions, or the versions in a range) to Central.
+ * A bulk sync is planned into items (one per version), then the files are created and signed, and uploaded, as a
+ * pipeline: creation of the next versions continues while a version is uploading. Every step is checkpointed on the
+ * item, so a bulk sync that stopped (restart, or a pod that died) is picked up where it left off by any pod.
+ *
+ * Uploads that fail are handed to the normal sync queue, that retries them.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@ApplicationScoped
+public class BulkSyncService {
+
+    @Inject
+    NpmRegistryFacade npmRegistryFacade;
+
+    @Inject
+    PackageCreator packageCreator;
+
+    @Inject
+    CentralSyncService centralSyncService;
+
+    @Inject
+    CentralSyncItemService centralSyncItemService;
+
+    @Inject
+    ContinuousSyncService continuousSyncService;
+
+    @Inject
+    EventBus bus;
+
+    @Inject
+    SyncMetrics syncMetrics;
+
+    @ConfigProperty(name = "mvnpm.bulk-sync.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "mvnpm.bulk-sync.max-packages-per-request", defaultValue = "50")
+    int maxPackagesPerRequest;
+
+    @ConfigProperty(name = "mvnpm.bulk-sync.max-versions", defaultValue = "500")
+    int maxVersions;
+
+    @ConfigProperty(name = "mvnpm.bulk-sync.creation-concurrency", defaultValue = "2")
+    int creationConcurrency;
+
+    @ConfigProperty(name = "mvnpm.bulk-sync.upload-concurrency", defaultValue = "1")
+    int uploadConcurrency;
+
+    @ConfigProperty(name = "mvnpm.bulk-sync.upload-interval.seconds", defaultValue = "5")
+    int uploadIntervalSeconds;
+
+    @ConfigProperty(name = "mvnpm.bulk-sync.lease.minutes", defaultValue = "10")
+    int leaseMinutes;
+
+    @ConfigProperty(name = "mvnpm.bulk-sync.progress-every", defaultValue = "10")
+    int progressEvery;
+
+    @ConfigProperty(name = "mvnpm.bulk-sync.max-plan-attempts", defaultValue = "5")
+    int maxPlanAttempts;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    /**
+     * Request a bulk sync of a package. If there is already one planned or running for this package, that one is
+     * returned.
+     *
+     * @param versionRange a maven range (like [1.0.0,2)), or null for all versions
+     */
+    public BulkSyncProgress request(String groupId, String artifactId, String versionRange) {
+        Name name = NameParser.fromMavenGA(groupId, artifactId);
+        if (name.isInternal()) {
+            throw new BadRequestException("Bulk sync is not supported for internal package " + name.displayName);
+        }
+        String range = (versionRange == null || versionRange.isBlank()) ? null : versionRange.trim();
+        if (range != null && CompiledVersionRange.compile(range) == null) {
+            throw new BadRequestException("Invalid version range " + range);
+        }
+        BulkSync bulkSync = QuarkusTransaction.requiringNew().call(() -> {
+            BulkSync active = BulkSync.findActive(groupId, artifactId);
+            if (active != null) {
+                return active;
+            }
+            BulkSync requested = new BulkSync(groupId, artifactId, range);
+            requested.persist();
+            return requested;
+        });
+        Log.infof("%s requested", bulkSync);
+        return getProgress(bulkSync.id);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxPackagesPerRequest() {
+        return maxPackagesPerRequest;
+    }
+
+    public BulkSyncProgress getProgress(Long id) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            BulkSync bulkSync = BulkSync.findById(id);
+            if (bulkSync == null) {
+                return null;
+            }
+            return BulkSyncProgress.of(bulkSync, BulkSyncItem.countByState(id));
+        });
+    }
+
+    public List<BulkSyncProgress> getRecent(int limit) {
+        return QuarkusTransaction.requiringNew().call(() -> BulkSync.findRecent(limit).stream()
+                .map(bulkSync -> BulkSyncProgress.of(bulkSync, BulkSyncItem.countByState(bulkSync.id)))
+                .toList());
+    }
+
+    /**
+     * Stop a bulk sync. The versions in progress will finish, the rest is not done.
+     */
+    public BulkSyncProgress cancel(Long id) {
+        QuarkusTransaction.requiringNew().run(() -> BulkSync.cancel(id));
+        return getProgress(id);
+    }
+
+    @Scheduled(every = "${mvnpm.bulk-sync.every:1m}", concurrentExecution = SKIP)
+    @RunOnVirtualThread
+    void runNext() {
+        if (!enabled) {
+            return;
+        }
+        BulkSync bulkSync = null;
+        try {
+            bulkSync = claim();
+            if (bulkSync != null) {
+                run(bulkSync);
+            }
+        } catch (Throwable t) {
+            Log.errorf(t, "Error while running %s", bulkSync);
+        }
+    }
+
+    /**
+     * Claim the next bulk sync for this pod
+     */
+    BulkSync claim() {
+        LocalDateTime staleBefore = LocalDateTime.now().minusMinutes(leaseMinutes);
+        return QuarkusTransaction.requiringNew().call(() -> BulkSync.claimNext(owner, staleBefore));
+    }
+
+    void run(BulkSync bulkSync) {
+        Name name = NameParser.fromMavenGA(bulkSync.groupId, bulkSync.artifactId);
+        if (bulkSync.status == BulkSync.Status.PLANNING && !plan(bulkSync, name)) {
+            return;
+        }
+
+        List<BulkSyncItem> items = QuarkusTransaction.requiringNew()
+                .call(() -> BulkSyncItem.findUnfinished(bulkSync.id));
+        if (!items.isEmpty()) {
+            Log.infof("%s: %d versions to do", bulkSync, items.size());
+            // Create the poms in one go from the packument, rather than one registry call per version
+            List<String> pending = items.stream()
+                    .filter(item -> item.state == BulkSyncItem.State.PENDING)
+                    .map(item -> item.version)
+                    .toList();
+            if (!pending.isEmpty()) {
+                try {
+                    packageCreator.createPoms(name, pending);
+                } catch (RuntimeException e) {
+                    Log.warnf("%s: could not create poms upfront, they will be created per version: %s", bulkSync,
+                            e.getMessage());
+                }
+            }
+
+            AtomicInteger done = new AtomicInteger();
+            Multi.createFrom().iterable(items)
+                    .onItem().transformToUni(item -> Uni.createFrom()
+                            .item(() -> create(bulkSync, name, item))
+                            .runSubscriptionOn(Infrastructure.getDefaultWorkerPool()))
+                    .merge(creationConcurrency)
+                    .filter(Objects::nonNull)
+                    .onItem().transformToUni(item -> Uni.createFrom()
+                            .item(() -> upload(bulkSync, item))
+                            .runSubscriptionOn(Infrastructure.getDefaultWorkerPool()))
+                    .merge(uploadConcurrency)
+                    .onItem().invoke(item -> {
+                        if (done.incrementAndGet() % progressEvery == 0) {
+                            log(bulkSync, "Bulk sync uploaded " + done.get() + " of " + items.size() + " versions");
+                        }
+                    })
+                    .collect().last()
+                    .await().indefinitely();
+        }
+        finish(bulkSync);
+    }
+
+    /**
+     * Plan a claimed bulk sync. A failure is recorded on the bulk sync, that is planned again later.
+     *
+     * @return true if the bulk sync is planned and running
+     */
+    boolean plan(BulkSync bulkSync, Name name) {
+        try {
+            int planned = planVersions(bulkSync, name);
+            if (planned < 0) {
+                Log.infof("%s: stopped while planning", bulkSync);
+                return false;
+            }
+            log(bulkSync, "Bulk sync planned " + planned + " versions" + rangeMessage(bulkSync));
+            return true;
+        } catch (RuntimeException e) {
+            Log.warnf("%s: planning failed (attempt %d of %d) because: %s", bulkSync, bulkSync.attempts,
+                    maxPlanAttempts, e.getMessage());
+            String error = String.valueOf(e.getMessage());
+            QuarkusTransaction.requiringNew()
+                    .run(() -> BulkSync.planFailed(bulkSync.id, owner, error, maxPlanAttempts));
+            return false;
+        }
+    }
+
+    /**
+     * Find the versions to sync, and create an item for each
+     *
+     * @return the number of versions planned, or -1 if this pod no longer owns the bulk sync
+     */
+    private int planVersions(BulkSync bulkSync, Name name) {
+        ProjectInfo info = npmRegistryFacade.getProjectInfo(name.npmFullName);
+        CompiledVersionRange range = bulkSync.versionRange == null ? null
+                : CompiledVersionRange.compile(bulkSync.versionRange);
+        Set<String> released = new HashSet<>(QuarkusTransaction.requiringNew()
+                .call(() -> CentralSyncItem.findReleasedVersions(bulkSync.groupId, bulkSync.artifactId)));
+
+        // Stable versions only, newest first, so that the versions most likely to be used are there first
+        List<Map.Entry<Version, String>> toSync = new ArrayList<>();
+        for (String versionString : info.versions()) {
+            if (released.contains(versionString)) {
+                continue;
+            }
+            try {
+                Version version = Version.fromString(versionString);
+                if (!version.hasQualifier() && (range == null || range.contains(version))) {
+                    toSync.add(Map.entry(version, versionString));
+                }
+            } catch (InvalidVersionException ive) {
+                Log.debugf("%s: skipping invalid version %s", bulkSync, versionString);
+            }
+        }
+        toSync.sort(Map.Entry.<Version, String> comparingByKey(Comparator.reverseOrder()));
+        if (toSync.size() > maxVersions) {
+            Log.warnf("%s: %d versions found, only syncing the latest %d", bulkSync, toSync.size(), maxVersions);
+            toSync = toSync.subList(0, maxVersions);
+        }
+
+        List<String> versions = toSync.stream().map(Map.Entry::getValue).toList();
+        boolean planned = QuarkusTransaction.requiringNew().call(() -> {
+            // The update locks the bulk sync, so only the owner adds the items
+            if (!BulkSync.planned(bulkSync.id, owner)) {
+                return false;
+            }
+            for (String version : versions) {
+                new BulkSyncItem(bulkSync.id, version).persist();
+            }
+            return true;
+        });
+        if (!planned) {
+            return -1;
+        }
+        bulkSync.status = BulkSync.Status.RUNNING;
+        return versions.size();
+    }
+
+    /**
+     * Create (and sign) all the files for this version
+     *
+     * @return the item if it is ready to upload, else null
+     */
+    private BulkSyncItem create(BulkSync bulkSync, Name name, BulkSyncItem item) {
+        if (!heartbeat(bulkSync)) {
+            return null;
+        }
+        if (item.state == BulkSyncItem.State.CREATED) {
+            return item;
+        }
+        CentralSyncItem csi = centralSyncItemService.findOrCreate(bulkSync.groupId, bulkSync.artifactId,
+                item.version, Stage.NONE);
+        try {
+            if (!centralSyncService.canProcessSync(csi)) {
+                checkpoint(item, BulkSyncItem.State.SKIPPED, "Already released or in progress");
+                return null;
+            }
+            continuousSyncService.ensureFilesExist(csi);
+        } catch (PackageAlreadySyncedException e) {
+            checkpoint(item, BulkSyncItem.State.SKIPPED, "Already released");
+            return null;
+        } catch (RuntimeException e) {
+            Log.warnf("%s: could not create %s because: %s", bulkSync, name.toGavString(item.version), e.getMessage());
+            checkpoint(item, BulkSyncItem.State.FAILED, "Creation failed: " + e.getMessage());
+            return null;
+        }
+        checkpoint(item, BulkSyncItem.State.CREATED, null);
+        return item;
+    }
+
+    /**
+     * Upload this version to Central. The normal sync queue takes it from there (release, or retry on failure)
+     */
+    private BulkSyncItem upload(BulkSync bulkSync, BulkSyncItem item) {
+        if (!heartbeat(bulkSync)) {
+            return item;
+        }
+        CentralSyncItem csi = centralSyncItemService
+                .claimForUpload(new Gav(bulkSync.groupId, bulkSync.artifactId, item.version));
+        if (csi == null) {
+            checkpoint(item, BulkSyncItem.State.SKIPPED, "Handled by the sync queue");
+            return item;
+        }
+        try {
+            csi.stagingRepoId = centralSyncService.sync(csi);
+            centralSyncItemService.changeStage(csi, Stage.UPLOADED);
+            checkpoint(item, BulkSyncItem.State.UPLOADED, csi.stagingRepoId);
+        } catch (Throwable t) {
+            Log.warnf("%s: upload of %s failed because: %s", bulkSync, csi.toGavString(), t.getMessage());
+            // Let the sync queue retry this one
+            csi.retryLater(FailureClass.of(t), csi.uploadAttempts);
+            syncMetrics.retry("upload", csi.lastFailure);
+            centralSyncItemService.changeStage(csi, Stage.INIT);
+            checkpoint(item, BulkSyncItem.State.FAILED, "Upload failed, queued for retry: " + t.getMessage());
+        }
+        throttle();
+        return item;
+    }
+
+    private void finish(BulkSync bulkSync) {
+        boolean finished = QuarkusTransaction.requiringNew().call(() -> BulkSync.update(
+                "status = ?1, finishedTime = ?2 where id = ?3 and owner = ?4 and status = ?5", BulkSync.Status.DONE,
+                LocalDateTime.now(), bulkSync.id, owner, BulkSync.Status.RUNNING) == 1);
+        BulkSyncProgress progress = getProgress(bulkSync.id);
+        Map<BulkSyncItem.State, Long> states = progress.states();
+        log(bulkSync, "Bulk sync " + (finished ? "done" : "stopped") + ": "
+                + states.get(BulkSyncItem.State.UPLOADED) + " uploaded, "
+                + states.get(BulkSyncItem.State.SKIPPED) + " skipped, "
+                + states.get(BulkSyncItem.State.FAILED) + " failed, "
+                + (states.get(BulkSyncItem.State.PENDING) + states.get(BulkSyncItem.State.CREATED)) + " not done");
+    }
+
+    private boolean heartbeat(BulkSync bulkSync) {
+        return QuarkusTransaction.requiringNew().call(() -> BulkSync.heartbeat(bulkSync.id, owner));
+    }
+
+    private void checkpoint(BulkSyncItem item, BulkSyncItem.State state, String message) {
+        item.state = state;
+        QuarkusTransaction.requiringNew().run(() -> BulkSyncItem.checkpoint(item.id, state, message));
+    }
+
+    private void throttle() {
+        if (uploadIntervalSeconds > 0) {
+            try {
+                TimeUnit.SECONDS.sleep(uploadIntervalSeconds);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void log(BulkSync bulkSync, String message) {
+        Log.infof("%s: %s", bulkSync, message);
+        EventLogEntry ele = new EventLogEntry();
+        ele.time = LocalDateTime.now();
+        ele.groupId = bulkSync.groupId;
+        ele.artifactId = bulkSync.artifactId;
+        ele.stage = Stage.NONE;
+        ele.message = message;
+        ele.color = "lightblue";
+        bus.publish("event-log", ele);
+    }
+
+    private String rangeMessage(BulkSync bulkSync) {
+        return bulkSync.versionRange == null ? "" : " in " + bulkSync.versionRange;
+    }
+}
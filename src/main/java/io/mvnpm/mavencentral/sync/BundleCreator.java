@@ -1,21 +1,21 @@
 package io.mvnpm.mavencentral.sync;
 
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
 import io.mvnpm.Constants;
 import io.mvnpm.creator.PackageFileLocator;
 import io.mvnpm.creator.utils.FileUtil;
@@ -49,10 +49,7 @@ public class BundleCreator {
 
         if (!Files.exists(bundlePath)) {
             final Path temp = FileUtil.getTempFilePathFor(bundlePath);
-            File bundleFile = temp.toFile();
-            try (FileOutputStream fos = new FileOutputStream(bundleFile);
-                    BufferedOutputStream bos = new BufferedOutputStream(fos);
-                    ZipOutputStream zos = new ZipOutputStream(bos)) {
+            try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(temp)) {
 
                 String basePath = groupId.replace('.', '/') + "/" + artifactId + "/" + version + "/";
 
@@ -60,20 +57,20 @@ public class BundleCreator {
                     String zipEntryName = basePath + path.getFileName();
                     Log.debug("\tAdding to bundle: " + zipEntryName);
 
-                    ZipEntry zipEntry = new ZipEntry(zipEntryName);
-                    zos.putNextEntry(zipEntry);
-                    try (InputStream fileInputStream = Files.newInputStream(path)) {
-                        int bytesRead;
-                        byte[] buffer = new byte[4096];
-                        while ((bytesRead = fileInputStream.read(buffer)) != -1) {
-                            zos.write(buffer, 0, bytesRead);
-                        }
+                    ZipArchiveEntry zipEntry = new ZipArchiveEntry(zipEntryName);
+                    // Jars are already compressed, deflating them again only costs CPU
+                    if (path.getFileName().toString().endsWith(Constants.DOT_JAR)) {
+                        zipEntry.setMethod(ZipArchiveEntry.STORED);
+                    }
+                    zos.putArchiveEntry(zipEntry);
+                    try {
+                        Files.copy(path, zos);
                     } catch (IOException e) {
                         throw new RuntimeException("Error streaming file content: " + path, e);
                     }
-                    zos.closeEntry();
+                    zos.closeArchiveEntry();
                 }
-
+                zos.finish();
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
@@ -91,9 +88,10 @@ public class BundleCreator {
         Path parent = packageFileLocator.getLocalDirectory(groupId, artifactId, version);
         String base = artifactId + Constants.HYPHEN + version;
         List<Path> fileNames = getFileNamesInBundle(parent, base);
+        Set<String> available = listFileNames(parent);
         List<String> notReady = new ArrayList<>();
         for (Path fileName : fileNames) {
-            boolean ready = Files.exists(fileName);
+            boolean ready = available.contains(fileName.getFileName().toString());
             Log.debug("\tbundle: " + fileName + " [" + ready + "]");
             if (!ready) {
                 notReady.add(fileName.toString());
@@ -108,6 +106,18 @@ public class BundleCreator {
                         notReady, groupId, artifactId, version));
     }
 
+    // One directory listing instead of checking every file
+    private Set<String> listFileNames(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return Set.of();
+        }
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.map(p -> p.getFileName().toString()).collect(Collectors.toSet());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private List<Path> getFileNamesInBundle(Path parent, String base) {
         List<Path> fileNames = List.of(
                 parent.resolve(base + Constants.DOT_POM),
@@ -22,6 +22,7 @@ import org.jboss.resteasy.reactive.NoCache;
 import io.mvnpm.creator.FileType;
 import io.mvnpm.maven.MavenRepositoryService;
 import io.quarkus.logging.Log;
+import io.quarkus.panache.common.Sort;
 import io.quarkus.vertx.ConsumeEvent;
 import io.smallrye.common.annotation.Blocking;
 import io.vertx.core.impl.ConcurrentHashSet;
@@ -147,8 +148,10 @@ public class CentralSyncApi {
     @GET
     @NoCache
     @Path("/items")
-    public List<CentralSyncItem> getItems() {
-        return CentralSyncItem.findAll().list();
+    public List<CentralSyncItem> getItems(@QueryParam("page") @DefaultValue("0") int page,
+            @QueryParam("size") @DefaultValue("500") int size) {
+        return CentralSyncItem.findAll(Sort.by("stageChangeTime", Sort.Direction.Descending))
+                .page(Math.max(page, 0), Math.max(1, Math.min(size, 1000))).list();
     }
 
 }
@@ -18,6 +18,7 @@ import jakarta.inject.Inject;
 
 import org.apache.commons.io.FileUtils;
 
+import io.mvnpm.creator.ContentStore;
 import io.mvnpm.creator.PackageFileLocator;
 import io.quarkus.logging.Log;
 import io.quarkus.scheduler.Scheduled;
@@ -41,6 +42,9 @@ public class CentralSyncCleanup {
     @Inject
     CentralSyncItemService centralSyncItemService;
 
+    @Inject
+    ContentStore contentStore;
+
     void onStart(@Observes io.quarkus.runtime.StartupEvent ev) {
         Uni.createFrom().voidItem()
                 .onItem().delayIt().by(Duration.ofMinutes(5))
@@ -105,6 +109,7 @@ public class CentralSyncCleanup {
             FileUtils.deleteQuietly(dir.toFile());
         }
         Log.infof("Weekly cleanup complete: deleted %d version directories", toDelete.size());
+        contentStore.collectGarbage();
     }
 
     private boolean canDelete(Path versionDir) {
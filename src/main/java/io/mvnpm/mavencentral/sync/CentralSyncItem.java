@@ -1,10 +1,10 @@
 package io.mvnpm.mavencentral.sync;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.IdClass;
@@ -22,7 +22,7 @@ import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 })
 @NamedQueries({
         @NamedQuery(name = "CentralSyncItem.findByStage", query = "from CentralSyncItem where stage = ?1 order by stageChangeTime DESC LIMIT ?2"),
-        @NamedQuery(name = "CentralSyncItem.findUploadedButNotReleased", query = "from CentralSyncItem where stage IN ?1 order by stageChangeTime DESC")
+        @NamedQuery(name = "CentralSyncItem.findVersionsByGaAndStage", query = "select version from CentralSyncItem where groupId = ?1 and artifactId = ?2 and stage = ?3")
 })
 public class CentralSyncItem extends PanacheEntityBase {
     @Id
@@ -41,6 +41,11 @@ public class CentralSyncItem extends PanacheEntityBase {
     public int creationAttempts = 0;
     public int uploadAttempts = 0;
     public int promotionAttempts = 0;
+    @Column(columnDefinition = "integer not null default 0")
+    public int errorRetries = 0;
+
+    public LocalDateTime nextAttemptAt; // Retries wait till then (null is now)
+    public FailureClass lastFailure;
 
     public CentralSyncItem() {
 
@@ -62,8 +67,8 @@ public class CentralSyncItem extends PanacheEntityBase {
 
     private static int insertIfNotPresent(Gav gav, Stage stage) {
         return getEntityManager().createNativeQuery(
-                "INSERT INTO centralsyncitem (groupid, artifactid, version, starttime, stage, stagechangetime, dependencieschecked, creationattempts, uploadattempts, promotionattempts)"
-                        + " VALUES (:groupId, :artifactId, :version, :now, :stage, :now, false, 0, 0, 0)"
+                "INSERT INTO centralsyncitem (groupid, artifactid, version, starttime, stage, stagechangetime, dependencieschecked, creationattempts, uploadattempts, promotionattempts, errorretries)"
+                        + " VALUES (:groupId, :artifactId, :version, :now, :stage, :now, false, 0, 0, 0, 0)"
                         + " ON CONFLICT (groupid, artifactid, version) DO NOTHING")
                 .setParameter("groupId", gav.getGroupId())
                 .setParameter("artifactId", gav.getArtifactId())
@@ -84,9 +89,12 @@ public class CentralSyncItem extends PanacheEntityBase {
                 Stage.RELEASED, limit).list();
     }
 
-    public static List<CentralSyncItem> findUpdloadedButNotReleased() {
-        List<Stage> uploadedButNotReleased = Arrays.asList(Stage.UPLOADED, Stage.CLOSED, Stage.RELEASING);
-        return find("#CentralSyncItem.findUploadedButNotReleased", uploadedButNotReleased).list();
+    public static List<String> findReleasedVersions(String groupId, String artifactId) {
+        return getEntityManager().createNamedQuery("CentralSyncItem.findVersionsByGaAndStage", String.class)
+                .setParameter(1, groupId)
+                .setParameter(2, artifactId)
+                .setParameter(3, Stage.RELEASED)
+                .getResultList();
     }
 
     public boolean isInProgress() {
@@ -116,6 +124,14 @@ public class CentralSyncItem extends PanacheEntityBase {
         this.uploadAttempts = this.uploadAttempts + 1;
     }
 
+    /**
+     * Wait before trying again, depending on why it failed and how many times we tried
+     */
+    public void retryLater(FailureClass failure, int attempts) {
+        this.lastFailure = failure;
+        this.nextAttemptAt = failure.nextAttempt(attempts);
+    }
+
     public void increasePromotionAttempt() {
         this.promotionAttempts = this.promotionAttempts + 1;
     }
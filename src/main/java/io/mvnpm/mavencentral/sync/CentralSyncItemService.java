@@ -23,6 +23,9 @@ public class CentralSyncItemService {
     @Inject
     EventBus bus;
 
+    @Inject
+    SyncMetrics syncMetrics;
+
     @Transactional
     public CentralSyncItem changeStage(CentralSyncItem centralSyncItem, Stage stage) {
         Gav gav = new Gav(centralSyncItem.groupId, centralSyncItem.artifactId, centralSyncItem.version);
@@ -37,6 +40,13 @@ public class CentralSyncItemService {
             return locked;
         }
         Log.infof("[MULTI-POD] changeStage: %s %s -> %s", gav, locked.stage, stage);
+        syncMetrics.stageChanged(locked.stage, locked.stageChangeTime, stage);
+        if (stage == Stage.ERROR) {
+            syncMetrics.error(centralSyncItem.lastFailure);
+            // Retried from the start later, waiting longer every time it ends up here.
+            // Only the wait is ERROR's, lastFailure still tells why it failed
+            centralSyncItem.nextAttemptAt = FailureClass.ERROR.nextAttempt(centralSyncItem.errorRetries + 1);
+        }
         // Merge caller's pending field changes (e.g. stagingRepoId, attempt counters)
         centralSyncItem.stage = stage;
         centralSyncItem.stageChangeTime = LocalDateTime.now();
@@ -45,6 +55,7 @@ public class CentralSyncItemService {
         if (stage == Stage.RELEASED) {
             SyncedPackage.createIfAbsent(centralSyncItem.groupId, centralSyncItem.artifactId);
         }
+        enqueueJob(centralSyncItem);
         bus.publish("central-sync-item-stage-change", centralSyncItem);
         return centralSyncItem;
     }
@@ -66,6 +77,19 @@ public class CentralSyncItemService {
         return applyErrorRetry(item);
     }
 
+    /**
+     * Leave the item in its stage, but only pick it up again after the backoff for this failure
+     */
+    @Transactional
+    public CentralSyncItem retryLater(CentralSyncItem centralSyncItem, FailureClass failure, int attempts) {
+        centralSyncItem = merge(centralSyncItem);
+        centralSyncItem.retryLater(failure, attempts);
+        centralSyncItem.persist();
+        syncMetrics.retry("packaging", failure);
+        Log.infof("Retrying %s after %s (%s)", centralSyncItem, centralSyncItem.nextAttemptAt, failure);
+        return centralSyncItem;
+    }
+
     @Transactional
     public CentralSyncItem increaseCreationAttempt(CentralSyncItem centralSyncItem) {
         centralSyncItem = merge(centralSyncItem);
@@ -82,25 +106,24 @@ public class CentralSyncItemService {
         return Panache.getEntityManager().merge(centralSyncItem);
     }
 
+    /**
+     * Claim a specific item for upload, if nobody else is busy with it.
+     *
+     * @return the claimed item, or null if it is already uploading, uploaded or released
+     */
     @Transactional
-    public CentralSyncItem claimNextForUpload() {
-        @SuppressWarnings("unchecked")
-        List<CentralSyncItem> candidates = Panache.getEntityManager()
-                .createNativeQuery(
-                        "SELECT * FROM centralsyncitem WHERE stage = :init "
-                                + "ORDER BY stagechangetime ASC LIMIT 1 FOR UPDATE SKIP LOCKED",
-                        CentralSyncItem.class)
-                .setParameter("init", Stage.INIT.ordinal())
-                .getResultList();
-        if (candidates.isEmpty()) {
+    public CentralSyncItem claimForUpload(Gav gav) {
+        CentralSyncItem item = CentralSyncItem.findById(gav, LockModeType.PESSIMISTIC_WRITE);
+        if (item == null || (item.stage != Stage.NONE && item.stage != Stage.PACKAGING && item.stage != Stage.INIT)) {
             return null;
         }
-        CentralSyncItem item = candidates.get(0);
+        syncMetrics.stageChanged(item.stage, item.stageChangeTime, Stage.UPLOADING);
         item.stage = Stage.UPLOADING;
         item.stageChangeTime = LocalDateTime.now();
         item.uploadAttempts++;
+        item.nextAttemptAt = null;
         item.persist();
-        Log.infof("[MULTI-POD] Claimed for upload: %s (attempt %d)", item.toGavString(), item.uploadAttempts);
+        Log.infof("[MULTI-POD] Claimed %s for upload (attempt %d)", item.toGavString(), item.uploadAttempts);
         return item;
     }
 
@@ -110,9 +133,11 @@ public class CentralSyncItemService {
         List<CentralSyncItem> candidates = Panache.getEntityManager()
                 .createNativeQuery(
                         "SELECT * FROM centralsyncitem WHERE stage = :error "
+                                + "AND (nextattemptat IS NULL OR nextattemptat <= :now) "
                                 + "ORDER BY stagechangetime ASC LIMIT 1 FOR UPDATE SKIP LOCKED",
                         CentralSyncItem.class)
                 .setParameter("error", Stage.ERROR.ordinal())
+                .setParameter("now", LocalDateTime.now())
                 .getResultList();
         if (candidates.isEmpty()) {
             return null;
@@ -121,12 +146,9 @@ public class CentralSyncItemService {
     }
 
     private CentralSyncItem applyErrorRetry(CentralSyncItem item) {
-        if (item.uploadAttempts > 0) {
-            item.uploadAttempts--;
-        }
-        if (item.promotionAttempts > 0) {
-            item.promotionAttempts--;
-        }
+        syncMetrics.stageChanged(item.stage, item.stageChangeTime, Stage.PACKAGING);
+        item.errorRetries++;
+        item.nextAttemptAt = null;
         item.stage = Stage.PACKAGING;
         item.stageChangeTime = LocalDateTime.now();
         item.persist();
@@ -140,9 +162,11 @@ public class CentralSyncItemService {
         List<CentralSyncItem> candidates = Panache.getEntityManager()
                 .createNativeQuery(
                         "SELECT * FROM centralsyncitem WHERE stage = :packaging "
+                                + "AND (nextattemptat IS NULL OR nextattemptat <= :now) "
                                 + "ORDER BY stagechangetime ASC LIMIT 1 FOR UPDATE SKIP LOCKED",
                         CentralSyncItem.class)
                 .setParameter("packaging", Stage.PACKAGING.ordinal())
+                .setParameter("now", LocalDateTime.now())
                 .getResultList();
         if (candidates.isEmpty()) {
             return null;
@@ -163,7 +187,25 @@ public class CentralSyncItemService {
 
     @Transactional
     public CentralSyncItem findOrCreate(String groupId, String artifactId, String version, Stage stage) {
-        return CentralSyncItem.findOrCreate(new Gav(groupId, artifactId, version), stage);
+        CentralSyncItem centralSyncItem = CentralSyncItem.findOrCreate(new Gav(groupId, artifactId, version), stage);
+        enqueueJob(centralSyncItem);
+        return centralSyncItem;
+    }
+
+    /**
+     * Add the job that moves the item to the next stage (in the same transaction as the stage change)
+     */
+    private void enqueueJob(CentralSyncItem centralSyncItem) {
+        switch (centralSyncItem.stage) {
+            case INIT -> SyncJob.enqueue(SyncJob.Type.UPLOAD, centralSyncItem.groupId, centralSyncItem.artifactId,
+                    centralSyncItem.version,
+                    centralSyncItem.nextAttemptAt != null ? centralSyncItem.nextAttemptAt : LocalDateTime.now());
+            case UPLOADED, CLOSED, RELEASING -> SyncJob.enqueue(SyncJob.Type.RELEASE_CHECK, centralSyncItem.groupId,
+                    centralSyncItem.artifactId, centralSyncItem.version,
+                    LocalDateTime.now().plus(SyncJob.Type.RELEASE_CHECK.backoff(1)));
+            default -> {
+            }
+        }
     }
 
 }
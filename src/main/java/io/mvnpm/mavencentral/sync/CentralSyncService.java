@@ -1,11 +1,14 @@
 package io.mvnpm.mavencentral.sync;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
+import io.mvnpm.diagnostics.AllocationTracker;
 import io.mvnpm.mavencentral.MavenCentralFacade;
 import io.mvnpm.mavencentral.exceptions.MissingFilesForBundleException;
 import io.mvnpm.mavencentral.exceptions.UploadFailedException;
@@ -33,6 +36,12 @@ public class CentralSyncService {
     @Inject
     CentralSyncItemService centralSyncItemService;
 
+    @Inject
+    SyncMetrics syncMetrics;
+
+    @Inject
+    AllocationTracker allocationTracker;
+
     @Transactional
     public CentralSyncItem checkReleaseInDbAndCentral(String groupId, String artifactId, String version, boolean startSync) {
         if ("latest".equalsIgnoreCase(version)) {
@@ -109,8 +118,42 @@ public class CentralSyncService {
 
     public String sync(String groupId, String artifactId, String version)
             throws UploadFailedException, MissingFilesForBundleException {
-        Path bundlePath = bundleCreator.bundle(groupId, artifactId, version);
-        return mavenCentralFacade.upload(bundlePath);
+        try (AllocationTracker.Measurement allocation = allocationTracker.start(AllocationTracker.Kind.UPLOAD,
+                groupId + ":" + artifactId + ":" + version)) {
+            return bundleAndUpload(groupId, artifactId, version);
+        }
+    }
+
+    private String bundleAndUpload(String groupId, String artifactId, String version)
+            throws UploadFailedException, MissingFilesForBundleException {
+        long start = System.nanoTime();
+        Path bundlePath;
+        try {
+            bundlePath = bundleCreator.bundle(groupId, artifactId, version);
+        } catch (RuntimeException | MissingFilesForBundleException e) {
+            syncMetrics.bundled(System.nanoTime() - start, false);
+            throw e;
+        }
+        syncMetrics.bundled(System.nanoTime() - start, true);
+
+        long size = bundleSize(bundlePath);
+        start = System.nanoTime();
+        try {
+            String releaseId = mavenCentralFacade.upload(bundlePath);
+            syncMetrics.uploaded(size, System.nanoTime() - start, true);
+            return releaseId;
+        } catch (RuntimeException | UploadFailedException e) {
+            syncMetrics.uploaded(size, System.nanoTime() - start, false);
+            throw e;
+        }
+    }
+
+    private long bundleSize(Path bundlePath) {
+        try {
+            return Files.size(bundlePath);
+        } catch (IOException e) {
+            return -1;
+        }
     }
 
     public String getLatestVersion(String groupId, String artifactId) {
@@ -8,9 +8,7 @@ import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
@@ -19,6 +17,7 @@ import jakarta.transaction.Transactional;
 import jakarta.ws.rs.WebApplicationException;
 
 import org.apache.commons.io.FileUtils;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import io.mvnpm.creator.FileType;
 import io.mvnpm.creator.PackageCreator;
@@ -46,8 +45,6 @@ import io.quarkus.logging.Log;
 import io.quarkus.runtime.StartupEvent;
 import io.quarkus.scheduler.Scheduled;
 import io.quarkus.security.UnauthorizedException;
-import io.quarkus.vertx.ConsumeEvent;
-import io.smallrye.common.annotation.Blocking;
 import io.smallrye.common.annotation.RunOnVirtualThread;
 
 /**
@@ -95,14 +92,32 @@ public class ContinuousSyncService {
     @Inject
     io.vertx.mutiny.core.eventbus.EventBus bus;
 
-    @Scheduled(cron = "{mvnpm.checkerror.cron.expr}", concurrentExecution = SKIP)
+    @Inject
+    SyncJobService syncJobService;
+
+    @Inject
+    SyncMetrics syncMetrics;
+
+    @ConfigProperty(name = "mvnpm.sync-job.upload.batch-size", defaultValue = "1")
+    int uploadBatchSize;
+
+    @ConfigProperty(name = "mvnpm.sync-job.release-check.batch-size", defaultValue = "20")
+    int releaseCheckBatchSize;
+
+    @ConfigProperty(name = "mvnpm.error-retry.batch-size", defaultValue = "10")
+    int errorRetryBatchSize;
+
+    /**
+     * Retry items in error once their backoff passed
+     */
+    @Scheduled(every = "${mvnpm.error-retry.every:5m}", concurrentExecution = SKIP)
     @RunOnVirtualThread
     public void checkError() {
         try {
             Log.debug("Starting error retry...");
             CentralSyncItem item;
             int count = 0;
-            while ((item = centralSyncItemService.claimNextForErrorRetry()) != null && count < 10) {
+            while (count < errorRetryBatchSize && (item = centralSyncItemService.claimNextForErrorRetry()) != null) {
                 bus.publish("central-sync-item-stage-change", item);
                 count++;
             }
@@ -255,12 +270,16 @@ public class ContinuousSyncService {
                         deletePackagingItem(itemToBeCreated);
                     } else {
                         Log.warnf("NPM error for %s: %s", itemToBeCreated, e.getMessage());
+                        centralSyncItemService.retryLater(itemToBeCreated, FailureClass.of(e),
+                                itemToBeCreated.creationAttempts + 1);
                     }
                 } catch (InvalidVersionException e) {
                     Log.warnf("Invalid version, removing: %s — %s", itemToBeCreated, e.getVersion());
                     deletePackagingItem(itemToBeCreated);
                 } catch (Exception e) {
                     Log.warnf("Error checking packaging for %s: %s", itemToBeCreated, e.getMessage());
+                    centralSyncItemService.retryLater(itemToBeCreated, FailureClass.of(e),
+                            itemToBeCreated.creationAttempts + 1);
                 }
 
             }
@@ -276,96 +295,128 @@ public class ContinuousSyncService {
     }
 
     /**
-     * This just check if there is an artifact being uploaded, and if not change the status and fire an event
+     * Upload the next item in the upload job queue, if there is not an upload in progress
      */
     @Scheduled(every = "${mvnpm.next-upload.every:3m}", concurrentExecution = SKIP)
     @RunOnVirtualThread
-    void nextToUploadStatusChange() {
+    void processUploadJobs() {
         if (isCurrentlyUploading()) {
             Log.debug("Sync upload in progress");
             return;
         }
-        CentralSyncItem item = centralSyncItemService.claimNextForUpload();
-        if (item == null) {
+        List<SyncJob> jobs = syncJobService.claim(SyncJob.Type.UPLOAD, uploadBatchSize);
+        if (jobs.isEmpty()) {
             Log.debug("Nothing in the queue to sync");
             return;
         }
-        // Check if already in Central (avoid duplicate upload)
-        if (centralSyncService.checkCentralStatusAndUpdateStageIfNeeded(item)) {
-            return; // Item moved to RELEASED inside the check
+        for (SyncJob job : jobs) {
+            try {
+                processUploadJob(job);
+            } catch (Throwable t) {
+                Log.errorf("Error while processing %s: %s", job, t.getMessage());
+                syncJobService.retryLater(job, t.getMessage());
+            }
         }
-        Log.debugf("Version [%s] of %s is NOT in central. Kicking off sync...",
-                item.version, item.toGavString());
-        bus.publish("central-sync-item-stage-change", item);
     }
 
-    @Scheduled(every = "${mvnpm.clean-release.every:3m}", concurrentExecution = SKIP)
-    @RunOnVirtualThread
-    void cleanCentralStatuses() {
-        // Check if this is in central, and update the status
-        List<CentralSyncItem> uploadedToCentral = CentralSyncItem.findUpdloadedButNotReleased();
-        for (CentralSyncItem centralSyncItem : uploadedToCentral) {
-            centralSyncService.checkCentralStatusAndUpdateStageIfNeeded(centralSyncItem);
+    private void processUploadJob(SyncJob job) {
+        CentralSyncItem item = centralSyncItemService.find(job.groupId, job.artifactId, job.version);
+        if (item == null || item.stage != Stage.INIT) {
+            // Not waiting for an upload anymore (removed, released, or uploaded by a bulk sync)
+            syncJobService.complete(job);
+            return;
+        }
+        item = centralSyncItemService.claimForUpload(new Gav(job.groupId, job.artifactId, job.version));
+        if (item == null) {
+            syncJobService.complete(job);
+            return;
+        }
+        bus.publish("central-sync-item-stage-change", item);
+        processNextAction(item);
+
+        CentralSyncItem processed = centralSyncItemService.find(job.groupId, job.artifactId, job.version);
+        if (processed != null && processed.stage == Stage.INIT) {
+            // The upload failed, and will be retried after the backoff for the failure
+            String reason = "Upload attempt " + processed.uploadAttempts + " failed (" + processed.lastFailure + ")";
+            if (processed.nextAttemptAt != null) {
+                syncJobService.retryAt(job, processed.nextAttemptAt, reason);
+            } else {
+                syncJobService.retryLater(job, reason);
+            }
+        } else {
+            syncJobService.complete(job);
         }
     }
 
+    /**
+     * Follow uploaded items till they are released (or failed) in Central
+     */
     @Scheduled(every = "${mvnpm.release.every:60s}", concurrentExecution = SKIP)
     @RunOnVirtualThread
-    void processCentralStatuses() {
-        List<CentralSyncItem> uploadedToCentral = CentralSyncItem.findUpdloadedButNotReleased();
-        if (!uploadedToCentral.isEmpty()) {
-            Map<String, CentralSyncItem> uploadedToCentralMap = mapByReleaseId(uploadedToCentral);
-            if (!uploadedToCentralMap.isEmpty()) {
-
-                for (Map.Entry<String, CentralSyncItem> itemToCheck : uploadedToCentralMap.entrySet()) {
-                    CentralSyncItem uploadedItem = itemToCheck.getValue();
-                    String releaseId = itemToCheck.getKey();
-                    try {
-                        ReleaseStatus releaseStatus = mavenCentralFacade.status(uploadedItem, releaseId);
-                        switch (releaseStatus) {
-                            case PENDING:
-                            case VALIDATING:
-                                uploadedItem = centralSyncItemService.changeStage(uploadedItem, Stage.UPLOADED);
-                                break;
-                            case VALIDATED:
-                            case PUBLISHING:
-                                uploadedItem = centralSyncItemService.changeStage(uploadedItem, Stage.CLOSED);
-                                break;
-                            case PUBLISHED:
-                                uploadedItem = centralSyncItemService.changeStage(uploadedItem, Stage.RELEASED);
-                                break;
-                            case FAILED:
-                                uploadedItem = centralSyncItemService.changeStage(uploadedItem, Stage.ERROR);
-                                // TODO: Here we should get more details, and do a drop maybe ?
-                                break;
-                            default:
-                                throw new AssertionError();
-                        }
-                    } catch (StatusCheckException ex) {
-                        // Nothing really. We will catch this with the next one
-                        Log.warn("Could not get status for " + uploadedItem.toGavString() + " (release Id: " + releaseId + ")");
-                    }
+    void processReleaseCheckJobs() {
+        List<SyncJob> jobs = syncJobService.claim(SyncJob.Type.RELEASE_CHECK, releaseCheckBatchSize);
+        for (SyncJob job : jobs) {
+            try {
+                if (checkRelease(job)) {
+                    syncJobService.complete(job);
+                } else {
+                    syncJobService.retryLater(job, "Not released yet");
                 }
+            } catch (Throwable t) {
+                Log.errorf("Error while processing %s: %s", job, t.getMessage());
+                syncJobService.retryLater(job, t.getMessage());
             }
         }
     }
 
-    @ConsumeEvent("central-sync-item-stage-change")
-    @Blocking
-    public void processNextAction(CentralSyncItem centralSyncItem) {
-        if (centralSyncItem.stage.equals(Stage.UPLOADING)) {
-            processNextUpload(centralSyncItem);
+    /**
+     * @return true if there is nothing more to check for this item
+     */
+    private boolean checkRelease(SyncJob job) {
+        CentralSyncItem uploadedItem = centralSyncItemService.find(job.groupId, job.artifactId, job.version);
+        if (uploadedItem == null || !(uploadedItem.stage == Stage.UPLOADED || uploadedItem.stage == Stage.CLOSED
+                || uploadedItem.stage == Stage.RELEASING)) {
+            return true;
+        }
+        String releaseId = uploadedItem.stagingRepoId;
+        if (releaseId != null && !releaseId.isEmpty()) {
+            long start = System.nanoTime();
+            try {
+                ReleaseStatus releaseStatus = mavenCentralFacade.status(uploadedItem, releaseId);
+                syncMetrics.statusChecked(System.nanoTime() - start, releaseStatus.name());
+                switch (releaseStatus) {
+                    case PENDING:
+                    case VALIDATING:
+                        uploadedItem = centralSyncItemService.changeStage(uploadedItem, Stage.UPLOADED);
+                        break;
+                    case VALIDATED:
+                    case PUBLISHING:
+                        uploadedItem = centralSyncItemService.changeStage(uploadedItem, Stage.CLOSED);
+                        break;
+                    case PUBLISHED:
+                        centralSyncItemService.changeStage(uploadedItem, Stage.RELEASED);
+                        return true;
+                    case FAILED:
+                        centralSyncItemService.changeStage(uploadedItem, Stage.ERROR);
+                        // TODO: Here we should get more details, and do a drop maybe ?
+                        return true;
+                    default:
+                        throw new AssertionError();
+                }
+            } catch (StatusCheckException ex) {
+                syncMetrics.statusChecked(System.nanoTime() - start, "error");
+                // Nothing really. We will catch this with the next one
+                Log.warn("Could not get status for " + uploadedItem.toGavString() + " (release Id: " + releaseId + ")");
+            }
         }
+        // It might be in Central already
+        return centralSyncService.checkCentralStatusAndUpdateStageIfNeeded(uploadedItem);
     }
 
-    private Map<String, CentralSyncItem> mapByReleaseId(List<CentralSyncItem> uploadedToCentral) {
-        Map<String, CentralSyncItem> mapByReleaseId = new HashMap<>();
-        for (CentralSyncItem csi : uploadedToCentral) {
-            if (csi.stagingRepoId != null && !csi.stagingRepoId.isEmpty()) {
-                mapByReleaseId.put(csi.stagingRepoId, csi);
-            }
+    public void processNextAction(CentralSyncItem centralSyncItem) {
+        if (centralSyncItem.stage.equals(Stage.UPLOADING)) {
+            processNextUpload(centralSyncItem);
         }
-        return mapByReleaseId;
     }
 
     private boolean isCurrentlyUploading() {
@@ -440,7 +491,7 @@ public class ContinuousSyncService {
      * Files may have been created on another pod — this recreates them if missing.
      * All creation services are idempotent (skip if file already exists).
      */
-    private void ensureFilesExist(CentralSyncItem centralSyncItem) {
+    void ensureFilesExist(CentralSyncItem centralSyncItem) {
         Name name = NameParser.fromMavenGA(centralSyncItem.groupId, centralSyncItem.artifactId);
         String version = centralSyncItem.version;
         // getPath creates jar + pom + tgz if not cached (jar creation triggers pom/tgz internally)
@@ -454,10 +505,15 @@ public class ContinuousSyncService {
 
     private void retryUpload(CentralSyncItem centralSyncItem, Throwable t) {
         if (centralSyncItem.uploadAttempts < 10) {
+            centralSyncItem.retryLater(FailureClass.of(t), centralSyncItem.uploadAttempts);
+            syncMetrics.retry("upload", centralSyncItem.lastFailure);
+            Log.infof("Retrying upload of %s after %s (%s)", centralSyncItem.toGavString(),
+                    centralSyncItem.nextAttemptAt, centralSyncItem.lastFailure);
             centralSyncItem = centralSyncItemService.changeStage(centralSyncItem, Stage.INIT);
         } else {
             t.printStackTrace();
             errorHandlingService.handle(centralSyncItem, t);
+            centralSyncItem.lastFailure = FailureClass.of(t);
             centralSyncItem = centralSyncItemService.changeStage(centralSyncItem, Stage.ERROR);
         }
     }
@@ -0,0 +1,72 @@
+package io.mvnpm.mavencentral.sync;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.mvnpm.mavencentral.exceptions.MissingFilesForBundleException;
+import io.mvnpm.mavencentral.exceptions.UploadFailedException;
+import io.mvnpm.npm.exceptions.GetPackageException;
+
+/**
+ * Why a step in the sync failed, and so how long to wait before trying again.
+ * The wait grows exponentially with the attempts, with jitter so that items that failed together are not retried
+ * together.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public enum FailureClass {
+    NPM_UNAVAILABLE(Duration.ofMinutes(2), Duration.ofHours(2)), // npm registry 5xx or 429
+    CENTRAL_RATE_LIMITED(Duration.ofMinutes(10), Duration.ofHours(6)), // Central 429
+    MISSING_FILES(Duration.ofMinutes(1), Duration.ofMinutes(30)), // Bundle files not (yet) there
+    OTHER(Duration.ofMinutes(3), Duration.ofHours(3)),
+    ERROR(Duration.ofHours(1), Duration.ofDays(2)); // Item in ERROR, retried from the start
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+
+    FailureClass(Duration baseDelay, Duration maxDelay) {
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * @param attempts the number of attempts so far
+     * @return the wait before the next attempt, without jitter
+     */
+    public Duration backoff(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 20);
+        Duration delay = baseDelay.multipliedBy(1L << doublings);
+        return delay.compareTo(maxDelay) > 0 ? maxDelay : delay;
+    }
+
+    /**
+     * @param attempts the number of attempts so far
+     * @return when to try again: somewhere between half and all of the backoff from now
+     */
+    public LocalDateTime nextAttempt(int attempts) {
+        long delay = backoff(attempts).toMillis();
+        long half = delay / 2;
+        return LocalDateTime.now().plus(Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1)));
+    }
+
+    public static FailureClass of(Throwable t) {
+        Throwable cause = t;
+        while (cause != null) {
+            if (cause instanceof GetPackageException gpe) {
+                int status = gpe.getResponse().getStatus();
+                if (status >= 500 || status == TOO_MANY_REQUESTS) {
+                    return NPM_UNAVAILABLE;
+                }
+            } else if (cause instanceof UploadFailedException ufe && ufe.getStatusCode() == TOO_MANY_REQUESTS) {
+                return CENTRAL_RATE_LIMITED;
+            } else if (cause instanceof MissingFilesForBundleException) {
+                return MISSING_FILES;
+            }
+            cause = cause.getCause() == cause ? null : cause.getCause();
+        }
+        return OTHER;
+    }
+}
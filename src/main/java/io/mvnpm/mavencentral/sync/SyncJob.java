@@ -0,0 +1,183 @@
+package io.mvnpm.mavencentral.sync;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+
+/**
+ * A durable job in the sync pipeline. Jobs are created in the same transaction as the stage change that needs them
+ * (see {@link CentralSyncItemService#changeStage}), and claimed by workers on any pod in batches.
+ * A claimed job is leased to the pod until it is completed, retried later (with exponential backoff per type), or the
+ * lease expires.
+ *
+ * The partial indexes used by the claim queries can not be described with JPA, so they are created on startup (see
+ * {@link SyncJobService}).
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@Entity
+@IdClass(SyncJobId.class)
+@Table(name = "syncjob")
+public class SyncJob extends PanacheEntityBase {
+
+    public enum Type {
+        UPLOAD(Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofMinutes(30)), // Upload an INIT item to Central
+        RELEASE_CHECK(Duration.ofSeconds(30), Duration.ofMinutes(10), Duration.ofMinutes(5)); // Follow an uploaded item till released
+
+        private final Duration baseDelay;
+        private final Duration maxDelay;
+        private final Duration lease;
+
+        Type(Duration baseDelay, Duration maxDelay, Duration lease) {
+            this.baseDelay = baseDelay;
+            this.maxDelay = maxDelay;
+            this.lease = lease;
+        }
+
+        /**
+         * @param attempts the number of times the job has run
+         * @return how long to wait before running it again
+         */
+        public Duration backoff(int attempts) {
+            int doublings = Math.min(Math.max(attempts - 1, 0), 20);
+            Duration delay = baseDelay.multipliedBy(1L << doublings);
+            return delay.compareTo(maxDelay) > 0 ? maxDelay : delay;
+        }
+
+        public Duration lease() {
+            return lease;
+        }
+    }
+
+    @Id
+    public Type type;
+    @Id
+    public String groupId;
+    @Id
+    public String artifactId;
+    @Id
+    public String version;
+
+    public LocalDateTime runAfter;
+    public int attempts = 0;
+    public String leaseOwner;
+    public LocalDateTime leaseUntil;
+    public LocalDateTime createdTime;
+    @Column(columnDefinition = "text")
+    public String lastError;
+
+    public SyncJob() {
+    }
+
+    /**
+     * Add a job, if there is not already one of this type for this version. Must be called within a transaction.
+     */
+    public static int enqueue(Type type, String groupId, String artifactId, String version, LocalDateTime runAfter) {
+        return getEntityManager().createNativeQuery(
+                "INSERT INTO syncjob (type, groupid, artifactid, version, runafter, attempts, createdtime)"
+                        + " VALUES (:type, :groupId, :artifactId, :version, :runAfter, 0, :now)"
+                        + " ON CONFLICT (type, groupid, artifactid, version) DO NOTHING")
+                .setParameter("type", type.ordinal())
+                .setParameter("groupId", groupId)
+                .setParameter("artifactId", artifactId)
+                .setParameter("version", version)
+                .setParameter("runAfter", runAfter)
+                .setParameter("now", LocalDateTime.now())
+                .executeUpdate();
+    }
+
+    /**
+     * Add a job for every item in one of the stages that does not have one yet (e.g. items from before the job
+     * queue). Must be called within a transaction.
+     */
+    public static int enqueueForStages(Type type, List<Stage> stages) {
+        return getEntityManager().createNativeQuery(
+                "INSERT INTO syncjob (type, groupid, artifactid, version, runafter, attempts, createdtime)"
+                        + " SELECT :type, groupid, artifactid, version, :now, 0, :now FROM centralsyncitem"
+                        + " WHERE stage IN (:stages)"
+                        + " ON CONFLICT (type, groupid, artifactid, version) DO NOTHING")
+                .setParameter("type", type.ordinal())
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("stages", stages.stream().map(Stage::ordinal).toList())
+                .executeUpdate();
+    }
+
+    /**
+     * Atomically lease a batch of due jobs of this type to the owner. Must be called within a transaction.
+     * Returns the number of claimed jobs.
+     */
+    public static int claimBatch(Type type, String owner, int batchSize, LocalDateTime leaseUntil) {
+        return getEntityManager().createNativeQuery(
+                "UPDATE syncjob SET leaseowner = :owner, leaseuntil = :leaseUntil, attempts = attempts + 1 "
+                        + "WHERE (type, groupid, artifactid, version) IN ("
+                        + "  SELECT type, groupid, artifactid, version FROM syncjob "
+                        + "  WHERE type = :type AND leaseowner IS NULL AND runafter <= :now "
+                        + "  ORDER BY runafter ASC "
+                        + "  LIMIT :limit FOR UPDATE SKIP LOCKED"
+                        + ")")
+                .setParameter("owner", owner)
+                .setParameter("leaseUntil", leaseUntil)
+                .setParameter("type", type.ordinal())
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("limit", batchSize)
+                .executeUpdate();
+    }
+
+    public static List<SyncJob> findClaimed(Type type, String owner, LocalDateTime leaseUntil) {
+        return find("type = ?1 and leaseOwner = ?2 and leaseUntil = ?3 order by runAfter", type, owner, leaseUntil)
+                .list();
+    }
+
+    /**
+     * The job is done. Must be called within a transaction.
+     */
+    public static void complete(SyncJob job, String owner) {
+        delete("type = ?1 and groupId = ?2 and artifactId = ?3 and version = ?4 and leaseOwner = ?5",
+                job.type, job.groupId, job.artifactId, job.version, owner);
+    }
+
+    /**
+     * Run the job again later, and let go of the lease. Must be called within a transaction.
+     */
+    public static void retryAt(SyncJob job, String owner, LocalDateTime runAfter, String error) {
+        update("runAfter = ?1, lastError = ?2, leaseOwner = null, leaseUntil = null "
+                + "where type = ?3 and groupId = ?4 and artifactId = ?5 and version = ?6 and leaseOwner = ?7",
+                runAfter, error, job.type, job.groupId, job.artifactId, job.version, owner);
+    }
+
+    /**
+     * Make jobs leased by pods that did not finish them in time available again. Must be called within a transaction.
+     */
+    public static int releaseExpiredLeases() {
+        return update("leaseOwner = null, leaseUntil = null where leaseOwner is not null and leaseUntil < ?1",
+                LocalDateTime.now());
+    }
+
+    public static void createPartialIndexes() {
+        // Due jobs per type, only the ones not leased
+        getEntityManager().createNativeQuery(
+                "CREATE INDEX IF NOT EXISTS syncjob_due_idx ON syncjob (type, runafter) WHERE leaseowner IS NULL")
+                .executeUpdate();
+        // Leased jobs, to find expired leases
+        getEntityManager().createNativeQuery(
+                "CREATE INDEX IF NOT EXISTS syncjob_lease_idx ON syncjob (leaseuntil) WHERE leaseowner IS NOT NULL")
+                .executeUpdate();
+    }
+
+    public String toGavString() {
+        return groupId + ":" + artifactId + ":" + version;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + toGavString() + " [attempts=" + attempts + ", runAfter=" + runAfter + "]";
+    }
+}
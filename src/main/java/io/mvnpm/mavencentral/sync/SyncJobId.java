@@ -0,0 +1,69 @@
+package io.mvnpm.mavencentral.sync;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class SyncJobId implements Serializable {
+    private SyncJob.Type type;
+    private String groupId;
+    private String artifactId;
+    private String version;
+
+    public SyncJobId() {
+    }
+
+    public SyncJobId(SyncJob.Type type, String groupId, String artifactId, String version) {
+        this.type = type;
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+    }
+
+    public SyncJob.Type getType() {
+        return type;
+    }
+
+    public void setType(SyncJob.Type type) {
+        this.type = type;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(String groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public void setArtifactId(String artifactId) {
+        this.artifactId = artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, groupId, artifactId, version);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        SyncJobId other = (SyncJobId) obj;
+        return type == other.type && Objects.equals(groupId, other.groupId)
+                && Objects.equals(artifactId, other.artifactId) && Objects.equals(version, other.version);
+    }
+}
@@ -0,0 +1,88 @@
+package io.mvnpm.mavencentral.sync;
+
+import static io.quarkus.scheduler.Scheduled.ConcurrentExecution.SKIP;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.Transactional;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+
+/**
+ * Claim and finish the jobs in the sync job queue (see {@link SyncJob})
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@ApplicationScoped
+public class SyncJobService {
+
+    private final String owner = UUID.randomUUID().toString();
+
+    void onStart(@Observes StartupEvent ev) {
+        try {
+            QuarkusTransaction.requiringNew().run(SyncJob::createPartialIndexes);
+        } catch (RuntimeException e) {
+            // Another pod might be creating them at the same time
+            Log.warnf("Could not create the sync job indexes: %s", e.getMessage());
+        }
+        // Items that were queued before the job queue existed
+        int uploads = QuarkusTransaction.requiringNew()
+                .call(() -> SyncJob.enqueueForStages(SyncJob.Type.UPLOAD, List.of(Stage.INIT)));
+        int releaseChecks = QuarkusTransaction.requiringNew()
+                .call(() -> SyncJob.enqueueForStages(SyncJob.Type.RELEASE_CHECK,
+                        List.of(Stage.UPLOADED, Stage.CLOSED, Stage.RELEASING)));
+        if (uploads > 0 || releaseChecks > 0) {
+            Log.infof("Added %d upload and %d release check jobs for existing items", uploads, releaseChecks);
+        }
+    }
+
+    /**
+     * Lease a batch of due jobs of this type to this pod
+     */
+    @Transactional
+    public List<SyncJob> claim(SyncJob.Type type, int batchSize) {
+        LocalDateTime leaseUntil = LocalDateTime.now().plus(type.lease());
+        int claimed = SyncJob.claimBatch(type, owner, batchSize, leaseUntil);
+        if (claimed == 0) {
+            return List.of();
+        }
+        return SyncJob.findClaimed(type, owner, leaseUntil);
+    }
+
+    @Transactional
+    public void complete(SyncJob job) {
+        SyncJob.complete(job, owner);
+    }
+
+    /**
+     * Run the job again after the backoff for its type
+     */
+    @Transactional
+    public void retryLater(SyncJob job, String reason) {
+        retryAt(job, LocalDateTime.now().plus(job.type.backoff(job.attempts)), reason);
+    }
+
+    @Transactional
+    public void retryAt(SyncJob job, LocalDateTime runAfter, String reason) {
+        Log.debugf("Retrying %s after %s: %s", job, runAfter, reason);
+        SyncJob.retryAt(job, owner, runAfter, reason);
+    }
+
+    @Scheduled(every = "${mvnpm.sync-job.expire-leases.every:5m}", concurrentExecution = SKIP)
+    @RunOnVirtualThread
+    @Transactional
+    void releaseExpiredLeases() {
+        int released = SyncJob.releaseExpiredLeases();
+        if (released > 0) {
+            Log.infof("[MULTI-POD] Released %d sync jobs with an expired lease", released);
+        }
+    }
+}
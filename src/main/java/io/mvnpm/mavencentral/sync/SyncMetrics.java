@@ -0,0 +1,216 @@
+package io.mvnpm.mavencentral.sync;
+
+import static io.quarkus.scheduler.Scheduled.ConcurrentExecution.SKIP;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+
+/**
+ * Metrics of the Central sync pipeline: how many items are in every stage (and for how long the oldest is waiting),
+ * how long items stay in a stage, the stage transitions, uploads, status polls, and retries and errors by cause.
+ * The queue depths are counted in the database on a schedule, so scraping the metrics does not hit the database.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@ApplicationScoped
+public class SyncMetrics {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final Map<Stage, AtomicLong> itemsInStage = new EnumMap<>(Stage.class);
+    private final Map<Stage, AtomicLong> oldestInStage = new EnumMap<>(Stage.class);
+    private final Map<SyncJob.Type, AtomicLong> jobs = new EnumMap<>(SyncJob.Type.class);
+    private final Map<SyncJob.Type, AtomicLong> dueJobs = new EnumMap<>(SyncJob.Type.class);
+
+    private DistributionSummary uploadSize;
+    private DistributionSummary uploadThroughput;
+
+    void onStart(@Observes StartupEvent ev) {
+        for (Stage stage : Stage.values()) {
+            if (stage == Stage.RELEASED) {
+                continue; // Not a queue, and by far the biggest
+            }
+            itemsInStage.put(stage, new AtomicLong());
+            oldestInStage.put(stage, new AtomicLong());
+            Gauge.builder("mvnpm.sync.stage.items", itemsInStage.get(stage), AtomicLong::get)
+                    .tag("stage", stage.name())
+                    .description("Sync items currently in this stage")
+                    .register(meterRegistry);
+            Gauge.builder("mvnpm.sync.stage.oldest.seconds", oldestInStage.get(stage), AtomicLong::get)
+                    .tag("stage", stage.name())
+                    .description("How long the oldest item in this stage has been waiting")
+                    .register(meterRegistry);
+        }
+        for (SyncJob.Type type : SyncJob.Type.values()) {
+            jobs.put(type, new AtomicLong());
+            dueJobs.put(type, new AtomicLong());
+            Gauge.builder("mvnpm.sync.jobs", jobs.get(type), AtomicLong::get)
+                    .tag("type", type.name())
+                    .description("Jobs in the sync job queue")
+                    .register(meterRegistry);
+            Gauge.builder("mvnpm.sync.jobs.due", dueJobs.get(type), AtomicLong::get)
+                    .tag("type", type.name())
+                    .description("Jobs in the sync job queue that are due and not leased")
+                    .register(meterRegistry);
+        }
+        uploadSize = DistributionSummary.builder("mvnpm.sync.upload.size")
+                .baseUnit("bytes")
+                .description("Size of the bundles uploaded to Central")
+                .register(meterRegistry);
+        uploadThroughput = DistributionSummary.builder("mvnpm.sync.upload.throughput")
+                .baseUnit("bytes/second")
+                .description("Upload speed of bundles to Central")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(every = "${mvnpm.sync-metrics.every:30s}", concurrentExecution = SKIP)
+    @RunOnVirtualThread
+    void refresh() {
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                refreshStages();
+                refreshJobs();
+            });
+        } catch (RuntimeException e) {
+            Log.warnf("Could not refresh the sync metrics: %s", e.getMessage());
+        }
+    }
+
+    private void refreshStages() {
+        LocalDateTime now = LocalDateTime.now();
+        itemsInStage.values().forEach(count -> count.set(0));
+        oldestInStage.values().forEach(age -> age.set(0));
+        Panache.getEntityManager().createQuery(
+                "select stage, count(*), min(stageChangeTime) from CentralSyncItem where stage <> ?1 group by stage",
+                Object[].class)
+                .setParameter(1, Stage.RELEASED)
+                .getResultList()
+                .forEach(row -> {
+                    Stage stage = (Stage) row[0];
+                    itemsInStage.get(stage).set((Long) row[1]);
+                    if (row[2] != null) {
+                        oldestInStage.get(stage).set(Duration.between((LocalDateTime) row[2], now).toSeconds());
+                    }
+                });
+    }
+
+    private void refreshJobs() {
+        jobs.values().forEach(count -> count.set(0));
+        dueJobs.values().forEach(count -> count.set(0));
+        Panache.getEntityManager().createQuery(
+                "select type, count(*), sum(case when leaseOwner is null and runAfter <= ?1 then 1 else 0 end) "
+                        + "from SyncJob group by type",
+                Object[].class)
+                .setParameter(1, LocalDateTime.now())
+                .getResultList()
+                .forEach(row -> {
+                    SyncJob.Type type = (SyncJob.Type) row[0];
+                    jobs.get(type).set((Long) row[1]);
+                    dueJobs.get(type).set(row[2] == null ? 0 : ((Number) row[2]).longValue());
+                });
+    }
+
+    /**
+     * An item moved from one stage to the next
+     *
+     * @param since when the item got into the stage it is leaving
+     */
+    public void stageChanged(Stage from, LocalDateTime since, Stage to) {
+        Counter.builder("mvnpm.sync.stage.transitions")
+                .tag("from", from.name())
+                .tag("to", to.name())
+                .description("Stage changes of sync items")
+                .register(meterRegistry)
+                .increment();
+        if (since != null) {
+            Timer.builder("mvnpm.sync.stage.time")
+                    .tag("stage", from.name())
+                    .description("Time sync items spend in a stage")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(Duration.between(since, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * @param step what failed (upload, packaging ...)
+     */
+    public void retry(String step, FailureClass cause) {
+        Counter.builder("mvnpm.sync.retries")
+                .tag("step", step)
+                .tag("cause", cause.name())
+                .description("Sync steps that failed and will be retried")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void error(FailureClass cause) {
+        Counter.builder("mvnpm.sync.errors")
+                .tag("cause", cause == null ? "UNKNOWN" : cause.name())
+                .description("Sync items that ended up in ERROR")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void bundled(long nanos, boolean success) {
+        Timer.builder("mvnpm.sync.bundle")
+                .tag("outcome", outcome(success))
+                .description("Time to create the bundle to upload")
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param bytes the size of the bundle
+     */
+    public void uploaded(long bytes, long nanos, boolean success) {
+        Timer.builder("mvnpm.sync.upload")
+                .tag("outcome", outcome(success))
+                .description("Time to upload a bundle to Central")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (success && bytes > 0) {
+            uploadSize.record(bytes);
+            if (nanos > 0) {
+                uploadThroughput.record(bytes * 1_000_000_000d / nanos);
+            }
+        }
+    }
+
+    /**
+     * @param outcome the release status, or error
+     */
+    public void statusChecked(long nanos, String outcome) {
+        Timer.builder("mvnpm.sync.central.status")
+                .tag("outcome", outcome)
+                .description("Time to get the release status from Central")
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String outcome(boolean success) {
+        return success ? "success" : "failure";
+    }
+}
@@ -45,6 +45,11 @@ public class SyncTools {
             sb.append("Creation Attempts: ").append(item.creationAttempts).append("\n");
             sb.append("Upload Attempts: ").append(item.uploadAttempts).append("\n");
             sb.append("Promotion Attempts: ").append(item.promotionAttempts).append("\n");
+            sb.append("Error Retries: ").append(item.errorRetries).append("\n");
+            if (item.lastFailure != null)
+                sb.append("Last Failure: ").append(item.lastFailure).append("\n");
+            if (item.nextAttemptAt != null)
+                sb.append("Next Attempt: ").append(item.nextAttemptAt).append("\n");
             sb.append("Dependencies Checked: ").append(item.dependenciesChecked).append("\n");
         }
         return ToolResponse.success(new TextContent(sb.toString()));
@@ -0,0 +1,68 @@
+package io.mvnpm.npm;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Token bucket for calls to the NPM Registry, shared by everything in this instance.
+ * Allows bursts up to the bucket size, and then a steady rate. Callers block until it's their turn (in order).
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@ApplicationScoped
+public class NpmRateLimiter {
+
+    @ConfigProperty(name = "mvnpm.npm-registry.rate-per-second", defaultValue = "20")
+    double ratePerSecond;
+
+    @ConfigProperty(name = "mvnpm.npm-registry.burst", defaultValue = "40")
+    int burst;
+
+    LongSupplier nanoClock = System::nanoTime;
+
+    private double tokens = Double.NaN;
+    private long lastRefill;
+
+    /**
+     * Wait for a token
+     */
+    public void acquire() {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the npm registry rate limit", e);
+            }
+        }
+    }
+
+    /**
+     * Take a token, going into debt if there is none.
+     *
+     * @return how long to wait before the token may be used
+     */
+    synchronized long reserve() {
+        if (ratePerSecond <= 0) {
+            return 0;
+        }
+        long now = nanoClock.getAsLong();
+        if (Double.isNaN(tokens)) {
+            tokens = burst;
+        } else {
+            tokens = Math.min(burst, tokens + (now - lastRefill) / nanosPerToken());
+        }
+        lastRefill = now;
+        tokens--;
+        return tokens >= 0 ? 0 : (long) (-tokens * nanosPerToken());
+    }
+
+    private double nanosPerToken() {
+        return TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+    }
+}
@@ -1,11 +1,14 @@
 package io.mvnpm.npm;
 
+import java.time.temporal.ChronoUnit;
+
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Response;
 
+import org.eclipse.microprofile.faulttolerance.Timeout;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
 /**
@@ -18,16 +21,25 @@ public interface NpmRegistryClient {
 
     @GET
     @Path("/{project}")
+    @Timeout(unit = ChronoUnit.SECONDS, value = 10)
     Response getProject(@PathParam("project") String project);
 
+    // The same document, but read in full (every version), so it can be big
+    @GET
+    @Path("/{project}")
+    @Timeout(unit = ChronoUnit.SECONDS, value = 30)
+    Response getPackument(@PathParam("project") String project);
+
     @GET
     @Path("/{project}/{version}")
+    @Timeout(unit = ChronoUnit.SECONDS, value = 30)
     Response getPackage(
             @PathParam("project") String project,
             @PathParam("version") String version);
 
     @GET
     @Path("/-/v1/search")
+    @Timeout(unit = ChronoUnit.SECONDS, value = 30)
     Response search(
             @QueryParam("text") String text,
             @QueryParam("size") int size,
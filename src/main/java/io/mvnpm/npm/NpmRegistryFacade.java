@@ -1,17 +1,16 @@
 package io.mvnpm.npm;
 
-import java.time.temporal.ChronoUnit;
-
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 
 import org.eclipse.microprofile.faulttolerance.Retry;
-import org.eclipse.microprofile.faulttolerance.Timeout;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 import org.jboss.resteasy.reactive.ClientWebApplicationException;
 
 import io.mvnpm.npm.exceptions.GetPackageException;
+import io.mvnpm.npm.model.Packument;
 import io.mvnpm.npm.model.Project;
 import io.mvnpm.npm.model.ProjectInfo;
 import io.mvnpm.npm.model.SearchResults;
@@ -20,7 +19,9 @@ import io.smallrye.common.annotation.Blocking;
 
 /**
  * Facade on the NPM Registry.
- * Adds caching
+ * Adds caching, and governs the access (see {@link NpmRegistryGovernor})
+ *
+ * The timeouts are on the {@link NpmRegistryClient} calls, so waiting for the governor is not cut short (and retried).
  *
  * @author Phillip Kruger (phillip.kruger@gmail.com)
  */
@@ -30,15 +31,17 @@ public class NpmRegistryFacade {
     @RestClient
     NpmRegistryClient npmRegistryClient;
 
+    @Inject
+    NpmRegistryGovernor npmRegistryGovernor;
+
     /**
      * Fetch full Project from NPM (uncached).
      * Only use when all fields are needed (e.g. REST API serialization).
      */
-    @Timeout(unit = ChronoUnit.SECONDS, value = 10)
     @Retry(maxRetries = 1)
     @Blocking
     public Project getProject(String project) {
-        Response response = npmRegistryClient.getProject(project);
+        Response response = npmRegistryGovernor.call(() -> npmRegistryClient.getProject(project));
         if (response.getStatus() < 300) {
             return response.readEntity(Project.class);
         } else {
@@ -46,12 +49,26 @@ public class NpmRegistryFacade {
         }
     }
 
+    /**
+     * Fetch the full packument from NPM (uncached), with the package of every version.
+     * Use to work on many versions at once (e.g. creating all poms of a package).
+     */
+    @Retry(maxRetries = 1)
+    @Blocking
+    public Packument getPackument(String project) {
+        Response response = npmRegistryGovernor.call(() -> npmRegistryClient.getPackument(project));
+        if (response.getStatus() < 300) {
+            return response.readEntity(Packument.class);
+        } else {
+            throw new WebApplicationException("Error while getting Packument for [" + project + "]", response);
+        }
+    }
+
     /**
      * Lightweight cached projection: distTags + version strings + lastModified.
      * Drops the large per-version time map, description, homepage, license, name.
      */
     @CacheResult(cacheName = "npm-project-cache")
-    @Timeout(unit = ChronoUnit.SECONDS, value = 10)
     @Retry(maxRetries = 1)
     @Blocking
     public ProjectInfo getProjectInfo(String project) {
@@ -59,7 +76,6 @@ public class NpmRegistryFacade {
     }
 
     @CacheResult(cacheName = "npm-package-cache")
-    @Timeout(unit = ChronoUnit.SECONDS, value = 30)
     @Retry(maxRetries = 1)
     @Blocking
     public io.mvnpm.npm.model.Package getPackage(String project, String version) {
@@ -67,20 +83,22 @@ public class NpmRegistryFacade {
             // We do not support git repos as version. Maybe something we can add later
             version = "*";
         }
+        final String v = version;
         try {
-            Response response = npmRegistryClient.getPackage(project, version);
+            Response response = npmRegistryGovernor.call(() -> npmRegistryClient.getPackage(project, v));
             return response.readEntity(io.mvnpm.npm.model.Package.class);
         } catch (ClientWebApplicationException e) {
             throw new GetPackageException(project, version, e);
         }
     }
 
-    @Timeout(unit = ChronoUnit.SECONDS, value = 30)
     @Blocking
     public SearchResults search(String term, int page) {
         if (page < 0)
             page = 1;
-        Response response = npmRegistryClient.search(term, ITEMS_PER_PAGE, page - 1, 0.0, 0.0, 1.0);
+        final int from = page - 1;
+        Response response = npmRegistryGovernor
+                .call(() -> npmRegistryClient.search(term, ITEMS_PER_PAGE, from, 0.0, 0.0, 1.0));
         if (response.getStatus() < 300) {
             return response.readEntity(SearchResults.class);
         } else {
@@ -0,0 +1,395 @@
+package io.mvnpm.npm;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Governs all access to the NPM Registry:
+ * - A local token bucket (see {@link NpmRateLimiter})
+ * - A budget shared by all pods (see {@link NpmRegistryQuota}). Only one thread per pod leases at a time, and the
+ * lease grows (up to max-lease-size) while a pod uses up its tokens within the second, so busy pods do not hit the
+ * shared row for every few calls
+ * - An adaptive concurrency limit (AIMD): one more concurrent call for every limit successful calls, and half as
+ * many when npm throttles us
+ * - When npm throttles us (429 or 503), everyone (on all pods) waits for the Retry-After before calling again
+ * - When the shared budget is not available (database down), we only use the local limits, and try it again after
+ * shared-quota.retry-after
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+@ApplicationScoped
+public class NpmRegistryGovernor {
+
+    @Inject
+    NpmRateLimiter npmRateLimiter;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "mvnpm.npm-registry.concurrency.min", defaultValue = "2")
+    int minConcurrency;
+
+    @ConfigProperty(name = "mvnpm.npm-registry.concurrency.max", defaultValue = "32")
+    int maxConcurrency;
+
+    @ConfigProperty(name = "mvnpm.npm-registry.retry-after.default.seconds", defaultValue = "10")
+    int defaultRetryAfterSeconds;
+
+    @ConfigProperty(name = "mvnpm.npm-registry.shared-quota.enabled", defaultValue = "true")
+    boolean sharedQuotaEnabled;
+
+    @ConfigProperty(name = "mvnpm.npm-registry.shared-quota.rate-per-second", defaultValue = "50")
+    int sharedRatePerSecond;
+
+    @ConfigProperty(name = "mvnpm.npm-registry.shared-quota.lease-size", defaultValue = "5")
+    int leaseSize;
+
+    @ConfigProperty(name = "mvnpm.npm-registry.shared-quota.max-lease-size", defaultValue = "25")
+    int maxLeaseSize;
+
+    @ConfigProperty(name = "mvnpm.npm-registry.shared-quota.retry-after.seconds", defaultValue = "60")
+    int sharedQuotaRetryAfterSeconds;
+
+    private double concurrencyLimit = Double.NaN;
+    private int inFlight = 0;
+    private volatile long pausedUntil = 0;
+    private long leaseWindow = -1;
+    private int leasedTokens = 0;
+    private int currentLeaseSize = 0;
+    private boolean leasing = false;
+    private long leaseRetryAt = 0;
+    private long sharedPausedUntil = 0;
+    // 0 while the shared quota is available, else when to try it again
+    private final AtomicLong sharedQuotaRetryAt = new AtomicLong();
+
+    private Counter throttledCounter;
+    private Timer waitTimer;
+
+    void onStart(@Observes StartupEvent ev) {
+        Gauge.builder("mvnpm.npm.registry.concurrency.limit", this, g -> g.getConcurrencyLimit())
+                .description("Current adaptive limit of concurrent calls to the npm registry")
+                .register(meterRegistry);
+        Gauge.builder("mvnpm.npm.registry.in.flight", this, g -> g.getInFlight())
+                .description("Calls to the npm registry in progress")
+                .register(meterRegistry);
+        Gauge.builder("mvnpm.npm.registry.paused.seconds", this, g -> g.getPausedSeconds())
+                .description("Seconds until we may call the npm registry again after being throttled")
+                .register(meterRegistry);
+        throttledCounter = Counter.builder("mvnpm.npm.registry.throttled")
+                .description("Responses from the npm registry telling us to slow down (429 / 503)")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("mvnpm.npm.registry.wait")
+                .description("Time spent waiting for permission to call the npm registry")
+                .register(meterRegistry);
+        if (sharedQuotaEnabled) {
+            try {
+                createShared();
+            } catch (RuntimeException e) {
+                suspendSharedQuota(e);
+            }
+        }
+    }
+
+    /**
+     * Call the registry when allowed to, and learn from the response
+     */
+    public Response call(Supplier<Response> call) {
+        long start = System.nanoTime();
+        acquire();
+        if (waitTimer != null) {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        try {
+            Response response = call.get();
+            onResponse(response);
+            return response;
+        } catch (WebApplicationException e) {
+            onResponse(e.getResponse());
+            throw e;
+        } finally {
+            release();
+        }
+    }
+
+    private void acquire() {
+        waitForPause();
+        npmRateLimiter.acquire();
+        leaseSharedToken();
+        synchronized (this) {
+            while (inFlight >= (int) getConcurrencyLimit()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the npm registry", e);
+                }
+            }
+            inFlight++;
+        }
+    }
+
+    private synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    private void onResponse(Response response) {
+        if (response == null) {
+            return;
+        }
+        int status = response.getStatus();
+        if (status == 429 || status == 503) {
+            onThrottled(getRetryAfter(response.getHeaderString(HttpHeaders.RETRY_AFTER)));
+        } else if (status < 500) {
+            onSuccess();
+        }
+    }
+
+    private synchronized void onSuccess() {
+        double limit = getConcurrencyLimit();
+        concurrencyLimit = Math.min(maxConcurrency, limit + 1.0 / limit);
+    }
+
+    private void onThrottled(Duration retryAfter) {
+        long until = System.currentTimeMillis() + retryAfter.toMillis();
+        synchronized (this) {
+            concurrencyLimit = Math.max(minConcurrency, getConcurrencyLimit() / 2);
+            pausedUntil = Math.max(pausedUntil, until);
+        }
+        if (throttledCounter != null) {
+            throttledCounter.increment();
+        }
+        Log.warnf("npm registry is throttling us, pausing for %ss (concurrency limit now %.0f)",
+                retryAfter.toSeconds(), concurrencyLimit);
+        if (isSharedQuotaAvailable()) {
+            synchronized (this) {
+                // The other calls that were in flight get throttled too, only tell everyone once
+                if (until <= sharedPausedUntil) {
+                    return;
+                }
+                sharedPausedUntil = until;
+            }
+            try {
+                pauseShared(until);
+            } catch (RuntimeException e) {
+                suspendSharedQuota(e);
+            }
+        }
+    }
+
+    private void waitForPause() {
+        long wait = pausedUntil - System.currentTimeMillis();
+        if (wait > 0) {
+            sleep(wait);
+        }
+    }
+
+    private void leaseSharedToken() {
+        if (!isSharedQuotaAvailable()) {
+            return;
+        }
+        boolean small = false;
+        while (true) {
+            long now = System.currentTimeMillis();
+            long window = now / 1000;
+            int tokens = 0;
+            long wait;
+            synchronized (this) {
+                if (leaseWindow == window && leasedTokens > 0) {
+                    leasedTokens--;
+                    return;
+                }
+                wait = leaseRetryAt - now;
+                if (wait <= 0 && leasing) {
+                    // Another thread is leasing for this pod, wait for its tokens
+                    waitForLease(now);
+                    continue;
+                }
+                if (wait <= 0) {
+                    leasing = true;
+                    tokens = small ? leaseSize : nextLeaseSize(window);
+                    small = false;
+                }
+            }
+            if (wait > 0) {
+                // The budget is used up (or everyone is paused), no need to ask again before then
+                sleep(wait);
+                continue;
+            }
+            boolean leased;
+            long sharedPause = 0;
+            try {
+                leased = leaseShared(window, tokens, now);
+                if (!leased) {
+                    sharedPause = findSharedPausedUntil();
+                }
+            } catch (RuntimeException e) {
+                suspendSharedQuota(e);
+                return;
+            } finally {
+                synchronized (this) {
+                    leasing = false;
+                    notifyAll();
+                }
+            }
+            synchronized (this) {
+                if (leased) {
+                    leaseWindow = window;
+                    leasedTokens = tokens - 1;
+                    return;
+                }
+                if (sharedPause > now) {
+                    // Another pod got throttled
+                    pausedUntil = Math.max(pausedUntil, sharedPause);
+                    leaseRetryAt = sharedPause;
+                } else if (tokens > leaseSize) {
+                    // Not enough left for a big lease, try a small one
+                    currentLeaseSize = leaseSize;
+                    small = true;
+                } else {
+                    leaseRetryAt = (window + 1) * 1000;
+                }
+            }
+        }
+    }
+
+    /**
+     * Double the lease when the last one was used up within its second, and halve it when tokens were left over
+     */
+    private int nextLeaseSize(long window) {
+        if (currentLeaseSize < leaseSize) {
+            currentLeaseSize = leaseSize;
+        } else if (leaseWindow == window) {
+            currentLeaseSize = Math.min(Math.max(leaseSize, maxLeaseSize), currentLeaseSize * 2);
+        } else if (leasedTokens > 0) {
+            currentLeaseSize = Math.max(leaseSize, currentLeaseSize / 2);
+        }
+        return currentLeaseSize;
+    }
+
+    private void waitForLease(long now) {
+        try {
+            wait(Math.max(1, 1000 - now % 1000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the npm registry", e);
+        }
+    }
+
+    void createShared() {
+        QuarkusTransaction.requiringNew().run(NpmRegistryQuota::createIfAbsent);
+    }
+
+    boolean leaseShared(long window, int tokens, long now) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> NpmRegistryQuota.lease(window, tokens, sharedRatePerSecond, now));
+    }
+
+    long findSharedPausedUntil() {
+        NpmRegistryQuota quota = QuarkusTransaction.requiringNew().call(NpmRegistryQuota::findQuota);
+        return quota == null ? 0 : quota.pausedUntil;
+    }
+
+    void pauseShared(long until) {
+        QuarkusTransaction.requiringNew().run(() -> NpmRegistryQuota.pause(until));
+    }
+
+    private boolean isSharedQuotaAvailable() {
+        if (!sharedQuotaEnabled) {
+            return false;
+        }
+        long retryAt = sharedQuotaRetryAt.get();
+        if (retryAt == 0) {
+            return true;
+        }
+        // One thread tries the database again, the others keep to the local limits until that worked
+        long now = System.currentTimeMillis();
+        if (now < retryAt || !sharedQuotaRetryAt.compareAndSet(retryAt, now + sharedQuotaRetryAfterMillis())) {
+            return false;
+        }
+        try {
+            createShared();
+        } catch (RuntimeException e) {
+            Log.debugf("Shared npm registry quota is still not available: %s", e.getMessage());
+            return false;
+        }
+        sharedQuotaRetryAt.set(0);
+        Log.info("Shared npm registry quota is available again");
+        return true;
+    }
+
+    // Without the database we still have the local limits
+    private void suspendSharedQuota(RuntimeException e) {
+        if (sharedQuotaRetryAt.getAndSet(System.currentTimeMillis() + sharedQuotaRetryAfterMillis()) == 0) {
+            Log.warnf("Shared npm registry quota is not available, only using local limits for %ss: %s",
+                    sharedQuotaRetryAfterSeconds, e.getMessage());
+        }
+    }
+
+    private long sharedQuotaRetryAfterMillis() {
+        return TimeUnit.SECONDS.toMillis(sharedQuotaRetryAfterSeconds);
+    }
+
+    Duration getRetryAfter(String retryAfter) {
+        if (retryAfter != null && !retryAfter.isBlank()) {
+            try {
+                return Duration.ofSeconds(Math.max(0, Long.parseLong(retryAfter.trim())));
+            } catch (NumberFormatException e) {
+                try {
+                    ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                    Duration untilDate = Duration.between(ZonedDateTime.now(), date);
+                    return untilDate.isNegative() ? Duration.ZERO : untilDate;
+                } catch (DateTimeParseException ex) {
+                    Log.debugf("Invalid Retry-After header [%s]", retryAfter);
+                }
+            }
+        }
+        return Duration.ofSeconds(defaultRetryAfterSeconds);
+    }
+
+    public synchronized double getConcurrencyLimit() {
+        if (Double.isNaN(concurrencyLimit)) {
+            concurrencyLimit = maxConcurrency;
+        }
+        return concurrencyLimit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public double getPausedSeconds() {
+        return Math.max(0, pausedUntil - System.currentTimeMillis()) / 1000.0;
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the npm registry", e);
+        }
+    }
+}
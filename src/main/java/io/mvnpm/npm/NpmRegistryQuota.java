@@ -0,0 +1,70 @@
+package io.mvnpm.npm;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+
+/**
+ * The npm registry budget shared by all pods: the number of calls used in the current second,
+ * and until when everyone should back off (after npm told one of us to slow down).
+ *
+ * There is only one row. Pods lease a few tokens at a time, so this is not hit for every call.
+ */
+@Entity
+public class NpmRegistryQuota extends PanacheEntityBase {
+    @Id
+    public String id;
+
+    public long windowStart;
+    public int used;
+    public long pausedUntil;
+
+    public NpmRegistryQuota() {
+    }
+
+    public static NpmRegistryQuota findQuota() {
+        return findById(ID);
+    }
+
+    public static void createIfAbsent() {
+        getEntityManager().createNativeQuery(
+                "INSERT INTO npmregistryquota (id, windowstart, used, pauseduntil) VALUES (:id, 0, 0, 0)"
+                        + " ON CONFLICT (id) DO NOTHING")
+                .setParameter("id", ID)
+                .executeUpdate();
+    }
+
+    /**
+     * Atomically take tokens from the budget of the given second. Must be called within a transaction.
+     *
+     * @return true if the tokens were leased, false if the budget is used up or we are paused
+     */
+    public static boolean lease(long window, int tokens, int limit, long now) {
+        return getEntityManager().createNativeQuery(
+                "UPDATE npmregistryquota SET "
+                        + "used = CASE WHEN windowstart = :window THEN used + :tokens ELSE :tokens END, "
+                        + "windowstart = :window "
+                        + "WHERE id = :id AND pauseduntil <= :now "
+                        + "AND (windowstart <> :window OR used + :tokens <= :limit)")
+                .setParameter("window", window)
+                .setParameter("tokens", tokens)
+                .setParameter("limit", limit)
+                .setParameter("now", now)
+                .setParameter("id", ID)
+                .executeUpdate() == 1;
+    }
+
+    /**
+     * Make everyone back off until the given time (epoch millis). Must be called within a transaction.
+     */
+    public static void pause(long until) {
+        getEntityManager().createNativeQuery(
+                "UPDATE npmregistryquota SET pauseduntil = GREATEST(pauseduntil, :until) WHERE id = :id")
+                .setParameter("until", until)
+                .setParameter("id", ID)
+                .executeUpdate();
+    }
+
+    private static final String ID = "npm";
+}
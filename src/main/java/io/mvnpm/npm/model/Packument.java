@@ -0,0 +1,15 @@
+package io.mvnpm.npm.model;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The full document of a Project on the NPM Registry, including the package.json of every version.
+ * This can be big, so it is not cached. Use it when working on many versions of a package at once.
+ */
+public record Packument(
+        @JsonProperty("name") Name name,
+        @JsonProperty("dist-tags") DistTags distTags,
+        Map<String, Package> versions) {
+}
@@ -2,15 +2,23 @@ package io.mvnpm.npm.model;
 
 import java.util.Set;
 
+import io.mvnpm.version.VersionIndex;
+
 /**
  * Lightweight projection of a Project for caching.
  * Only retains the fields callers actually need, dropping
  * the large per-version time map and unused metadata fields.
+ * The versions are also kept parsed and sorted (see {@link VersionIndex}).
  */
 public record ProjectInfo(
         DistTags distTags,
         Set<String> versions,
-        String lastModified) {
+        String lastModified,
+        VersionIndex versionIndex) {
+
+    public ProjectInfo(DistTags distTags, Set<String> versions, String lastModified) {
+        this(distTags, versions, lastModified, VersionIndex.of(versions));
+    }
 
     public static ProjectInfo from(Project project) {
         String modified = null;
@@ -19,4 +27,4 @@ public record ProjectInfo(
         }
         return new ProjectInfo(project.distTags(), project.versions(), modified);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,198 @@
+package io.mvnpm.version;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.artifact.versioning.Restriction;
+import org.apache.maven.artifact.versioning.VersionRange;
+
+/**
+ * A maven version range, parsed once, that can be matched against many versions.
+ *
+ * Bounds that are plain numbers (like 1.2.3) are compared on (major, minor, patch) directly, so we do not need to
+ * create a maven version for every candidate. Anything else falls back to maven's own matching.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public final class CompiledVersionRange {
+
+    private static final long UNBOUNDED = -1;
+
+    private final VersionRange range;
+    private final Bounds[] bounds;
+
+    private CompiledVersionRange(VersionRange range, Bounds[] bounds) {
+        this.range = range;
+        this.bounds = bounds;
+    }
+
+    /**
+     * @param mavenRange a maven range, like [1.2.3,2), or a single version
+     * @return the compiled range, or null if this is not a valid range
+     */
+    public static CompiledVersionRange compile(String mavenRange) {
+        if (mavenRange.isEmpty()) {
+            return null;
+        }
+        if (!isBracketed(mavenRange)) {
+            mavenRange = "[" + mavenRange + "]";
+        }
+        try {
+            VersionRange range = VersionRange.createFromVersionSpec(mavenRange);
+            List<Restriction> restrictions = range.getRestrictions();
+            Bounds[] bounds = new Bounds[restrictions.size()];
+            for (int i = 0; i < bounds.length; i++) {
+                Restriction restriction = restrictions.get(i);
+                long lower = toKey(restriction.getLowerBound());
+                long upper = toKey(restriction.getUpperBound());
+                if (lower == Version.NO_KEY || upper == Version.NO_KEY) {
+                    // Not a plain number, let maven match
+                    bounds = null;
+                    break;
+                }
+                bounds[i] = new Bounds(lower, restriction.isLowerBoundInclusive(), upper,
+                        restriction.isUpperBoundInclusive());
+            }
+            return new CompiledVersionRange(range, bounds);
+        } catch (InvalidVersionSpecificationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the version is in this range. Versions with a qualifier are matched by maven
+     */
+    public boolean contains(Version version) {
+        long key = version.key();
+        if (bounds == null || key == Version.NO_KEY) {
+            return range.containsVersion(new DefaultArtifactVersion(version.toString()));
+        }
+        for (Bounds b : bounds) {
+            if (b.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the highest version (without a qualifier) in this range, or null if none match
+     */
+    public Version selectLatest(Collection<Version> versions) {
+        Version latest = null;
+        for (Version version : versions) {
+            // We only match versions without qualifier
+            if (!version.hasQualifier() && contains(version)
+                    && (latest == null || version.compareTo(latest) > 0)) {
+                latest = version;
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Like {@link #selectLatest(Collection)}, for versions that are already sorted from low to high. We start at the
+     * top and stop at the first match.
+     */
+    public Version selectLatestFromSorted(List<Version> sortedVersions) {
+        for (int i = sortedVersions.size() - 1; i >= 0; i--) {
+            Version version = sortedVersions.get(i);
+            if (!version.hasQualifier() && contains(version)) {
+                return version;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Binary search the keys (see {@link Version#key()}) of versions sorted from low to high
+     *
+     * @return the index of the highest key in this range, -1 if none match, or -2 if this range can not be matched on
+     *         keys
+     */
+    int latestIndex(long[] keys) {
+        if (bounds == null) {
+            return -2;
+        }
+        int latest = -1;
+        for (Bounds b : bounds) {
+            int i = b.upper == UNBOUNDED ? keys.length - 1 : lastIndexBelow(keys, b.upper, b.upperInclusive);
+            if (i > latest && b.contains(keys[i])) {
+                latest = i;
+            }
+        }
+        return latest;
+    }
+
+    private static int lastIndexBelow(long[] keys, long upper, boolean inclusive) {
+        int low = 0;
+        int high = keys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < upper || (inclusive && keys[mid] == upper)) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    @Override
+    public String toString() {
+        return range.toString();
+    }
+
+    static boolean isBracketed(String range) {
+        int last = range.length() - 1;
+        if (last < 2) {
+            return false;
+        }
+        char open = range.charAt(0);
+        char close = range.charAt(last);
+        return (open == '[' || open == '(') && (close == ']' || close == ')');
+    }
+
+    /**
+     * @return the key (see {@link Version#key()}) of a bound that is a plain number, or {@link Version#NO_KEY}
+     */
+    private static long toKey(ArtifactVersion bound) {
+        if (bound == null) {
+            return UNBOUNDED;
+        }
+        String version = bound.toString();
+        int[] parts = new int[3];
+        int part = 0;
+        int digits = 0;
+        for (int i = 0; i <= version.length(); i++) {
+            char c = i < version.length() ? version.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                if (++digits > 7) {
+                    return Version.NO_KEY;
+                }
+                parts[part] = parts[part] * 10 + (c - '0');
+            } else if (c == '.' && digits > 0) {
+                if (i < version.length() && ++part > 2) {
+                    return Version.NO_KEY;
+                }
+                digits = 0;
+            } else {
+                return Version.NO_KEY;
+            }
+        }
+        return Version.pack(parts[0], parts[1], parts[2]);
+    }
+
+    private record Bounds(long lower, boolean lowerInclusive, long upper, boolean upperInclusive) {
+
+        boolean contains(long key) {
+            if (lower != UNBOUNDED && (key < lower || (key == lower && !lowerInclusive))) {
+                return false;
+            }
+            return upper == UNBOUNDED || key < upper || (key == upper && upperInclusive);
+        }
+    }
+}
@@ -8,14 +8,58 @@ import static io.mvnpm.Constants.HYPHEN;
 import static io.mvnpm.Constants.LATEST;
 import static io.mvnpm.Constants.STAR;
 
-public record Version(Integer major,
-        Integer minor,
-        Integer patch,
-        String qualifier) implements Comparable<Version> {
+import java.util.Objects;
+
+/**
+ * A npm (semver) version. The numbers are kept as primitives (with -1 for a missing or x part) and the qualifier is
+ * interned, as we keep many of these (see {@link VersionIndex}) and many versions share the same qualifiers.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public final class Version implements Comparable<Version> {
 
     private static final String DEFAULT_QUALIFIER = null;//"alpha00000000";
+    private static final int NONE = -1;
+    private static final int MAX_PART = (1 << 21) - 1;
+    static final long NO_KEY = Long.MIN_VALUE;
+
+    private final int major;
+    private final int minor;
+    private final int patch;
+    private final String qualifier;
+
+    public Version(Integer major, Integer minor, Integer patch, String qualifier) {
+        this(major == null ? NONE : major, minor == null ? NONE : minor, patch == null ? NONE : patch, qualifier);
+    }
+
+    private Version(int major, int minor, int patch, String qualifier) {
+        this.major = major;
+        this.minor = minor;
+        this.patch = patch;
+        this.qualifier = qualifier == null ? null : qualifier.intern();
+    }
+
+    public Integer major() {
+        return major == NONE ? null : major;
+    }
+
+    public Integer minor() {
+        return minor == NONE ? null : minor;
+    }
+
+    public Integer patch() {
+        return patch == NONE ? null : patch;
+    }
+
+    public String qualifier() {
+        return qualifier;
+    }
 
     public static Version fromString(String version) {
+        Version simple = fromSimpleString(version);
+        if (simple != null) {
+            return simple;
+        }
         version = version.trim();
         try {
             String numberPart = version;
@@ -42,6 +86,57 @@ public record Version(Integer major,
         throw new InvalidVersionException(version);
     }
 
+    /**
+     * Most versions are just numbers and dots (or x), like 1.2.3 or 1.x. Read those without trimming, splitting or
+     * parsing substrings.
+     *
+     * @return the version, or null if this is not such a simple version
+     */
+    private static Version fromSimpleString(String version) {
+        int length = version.length();
+        int major = NONE;
+        int minor = NONE;
+        int parts = 0;
+        int value = 0;
+        int digits = 0;
+        boolean wildcard = false;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? version.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                if (wildcard || ++digits > 9) {
+                    return null;
+                }
+                value = value * 10 + (c - '0');
+            } else if (c == 'x' || c == 'X' || c == '*') {
+                if (wildcard || digits > 0) {
+                    return null;
+                }
+                wildcard = true;
+            } else if (c == '.') {
+                if (digits == 0 && !wildcard) {
+                    return null;
+                }
+                int number = wildcard ? NONE : value;
+                parts++;
+                if (parts == 1) {
+                    major = number;
+                } else if (parts == 2) {
+                    minor = number;
+                } else if (parts == 3 && i == length) {
+                    return new Version(major, minor, number, null);
+                } else {
+                    return null;
+                }
+                value = 0;
+                digits = 0;
+                wildcard = false;
+            } else {
+                return null;
+            }
+        }
+        return new Version(major, minor, NONE, null);
+    }
+
     private static Integer toNumber(String part) {
         if (part == null || part.equals(STAR) || part.equalsIgnoreCase(EX) || part.equalsIgnoreCase(LATEST)) {
             return null;
@@ -50,23 +145,23 @@ public record Version(Integer major,
     }
 
     public Version nextMajor() {
-        if (this.major == null || this.major == 0) {
-            return new Version(1, null, null, DEFAULT_QUALIFIER);
+        if (this.major == NONE || this.major == 0) {
+            return new Version(1, NONE, NONE, DEFAULT_QUALIFIER);
         } else {
-            return new Version(this.major + 1, null, null, DEFAULT_QUALIFIER);
+            return new Version(this.major + 1, NONE, NONE, DEFAULT_QUALIFIER);
         }
     }
 
     public Version nextMinor() {
-        if (this.minor == null || this.minor == 0) {
-            return new Version(this.major, 1, null, DEFAULT_QUALIFIER);
+        if (this.minor == NONE || this.minor == 0) {
+            return new Version(this.major, 1, NONE, DEFAULT_QUALIFIER);
         } else {
-            return new Version(this.major, this.minor + 1, null, DEFAULT_QUALIFIER);
+            return new Version(this.major, this.minor + 1, NONE, DEFAULT_QUALIFIER);
         }
     }
 
     public Version nextPatch() {
-        if (this.patch == null || this.patch == 0) {
+        if (this.patch == NONE || this.patch == 0) {
             return new Version(this.major, this.minor, 1, DEFAULT_QUALIFIER);
         } else {
             return new Version(this.major, this.minor, this.patch + 1, DEFAULT_QUALIFIER);
@@ -75,14 +170,13 @@ public record Version(Integer major,
 
     @Override
     public String toString() {
-        if (this.major == null || (this.major == 0 && this.minor == null && this.patch == null))
+        if (this.major == NONE || (this.major == 0 && this.minor == NONE && this.patch == NONE))
             return EMPTY;
-        if (this.minor == null)
-            return String.valueOf(this.major) + getPostString();
-        if (this.patch == null)
-            return String.valueOf(this.major) + DOT + String.valueOf(this.minor) + getPostString();
-        return String.valueOf(this.major) + DOT + String.valueOf(this.minor) + DOT + String.valueOf(this.patch)
-                + getPostString();
+        if (this.minor == NONE)
+            return this.major + getPostString();
+        if (this.patch == NONE)
+            return this.major + DOT + this.minor + getPostString();
+        return this.major + DOT + this.minor + DOT + this.patch + getPostString();
     }
 
     private String getPostString() {
@@ -92,6 +186,30 @@ public record Version(Integer major,
         return EMPTY;
     }
 
+    /**
+     * Pack major, minor and patch in one (positive) long, 21 bits each, so comparing keys compares the versions like
+     * maven does (a missing minor or patch is 0).
+     *
+     * @return the key, or {@link #NO_KEY} for versions with a qualifier or numbers that do not fit
+     */
+    long key() {
+        if (major == NONE || qualifier != null) {
+            return NO_KEY;
+        }
+        if (minor == NONE) {
+            // 0 is written as an empty version
+            return major == 0 ? NO_KEY : pack(major, 0, 0);
+        }
+        return pack(major, minor, patch == NONE ? 0 : patch);
+    }
+
+    static long pack(int major, int minor, int patch) {
+        if (major < 0 || minor < 0 || patch < 0 || major > MAX_PART || minor > MAX_PART || patch > MAX_PART) {
+            return NO_KEY;
+        }
+        return ((long) major << 42) | ((long) minor << 21) | patch;
+    }
+
     public boolean hasQualifier() {
         if (qualifier() == null || qualifier().isBlank()) {
             return false;
@@ -99,13 +217,16 @@ public record Version(Integer major,
         return true;
     }
 
+    /**
+     * A missing (or x) part sorts before 0
+     */
     @Override
     public int compareTo(Version o) {
-        int cmp = major.compareTo(o.major);
+        int cmp = Integer.compare(major, o.major);
         if (cmp == 0)
-            cmp = minor.compareTo(o.minor);
+            cmp = Integer.compare(minor, o.minor);
         if (cmp == 0)
-            cmp = patch.compareTo(o.patch);
+            cmp = Integer.compare(patch, o.patch);
         if (cmp == 0) {
             // One version has a qualifier, the other does not
             if (qualifier == null && o.qualifier != null) {
@@ -122,4 +243,18 @@ public record Version(Integer major,
         return cmp;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Version v && major == v.major && minor == v.minor && patch == v.patch
+                && Objects.equals(qualifier, v.qualifier);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(major, minor, patch, qualifier);
+    }
+
 }
@@ -1,40 +1,20 @@
 package io.mvnpm.version;
 
-import static io.mvnpm.Constants.CARET;
-import static io.mvnpm.Constants.CLOSE_BLOCK;
-import static io.mvnpm.Constants.CLOSE_ROUND;
-import static io.mvnpm.Constants.COMMA;
 import static io.mvnpm.Constants.EMPTY;
-import static io.mvnpm.Constants.EQUAL_TO;
-import static io.mvnpm.Constants.ESCAPED_CARET;
-import static io.mvnpm.Constants.EX;
-import static io.mvnpm.Constants.GREATER_THAN;
-import static io.mvnpm.Constants.GREATER_THAN_OR_EQUAL_TO;
-import static io.mvnpm.Constants.HYPHEN;
-import static io.mvnpm.Constants.LESS_THAN;
-import static io.mvnpm.Constants.LESS_THAN_OR_EQUAL_TO;
-import static io.mvnpm.Constants.OPEN_BLOCK;
-import static io.mvnpm.Constants.OPEN_ROUND;
+import static io.mvnpm.Constants.LATEST;
 import static io.mvnpm.Constants.OR;
-import static io.mvnpm.Constants.OR_ESCAPED;
-import static io.mvnpm.Constants.SPACE;
-import static io.mvnpm.Constants.STAR;
-import static io.mvnpm.Constants.TILDE;
-import static io.mvnpm.Constants.VEE;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.jboss.logging.Logger;
 
-import io.mvnpm.Constants;
-
 /**
  * Convert a npm version to a maven version
  *
+ * The range is read in one pass per comparator set (the parts between ||) into {@link Part}s, that are then written
+ * as a maven version or range. No regular expressions, and no intermediate lists for the common single part ranges.
+ *
  * @author Phillip Kruger (phillip.kruger@gmail.com)
  *         <p>
  *         see https://maven.apache.org/enforcer/enforcer-rules/versionRanges.html
@@ -44,50 +24,59 @@ import io.mvnpm.Constants;
 public class VersionConverter {
     private static final Logger LOG = Logger.getLogger(VersionConverter.class);
 
+    private static final char NONE = 0;
+    private static final char OPEN_BLOCK = '[';
+    private static final char CLOSE_BLOCK = ']';
+    private static final char OPEN_ROUND = '(';
+    private static final char CLOSE_ROUND = ')';
+
     private VersionConverter() {
     }
 
     public static String convert(String versionString) {
         try {
-            versionString = removeIllegalVersion(versionString);
-
-            versionString = versionString.trim();
-            String[] orSet;
-            if (versionString.contains(OR)) {
-                orSet = versionString.split(OR_ESCAPED);
-            } else {
-                orSet = new String[] { versionString };
+            versionString = removeIllegalVersion(versionString).trim();
+            int or = versionString.indexOf(OR);
+            if (or < 0) {
+                Part part = parsePart(versionString);
+                return part == null ? EMPTY : part.toString().trim();
             }
-            return convertMultiple(orSet);
+            return convertMultiple(versionString, or);
         } catch (Throwable t) {
             LOG.warn("Error getting maven version from [" + versionString + "]");
             throw t;
         }
     }
 
-    private static String convertMultiple(String[] versions) {
-        List<String> versionList = new ArrayList<>();
-        for (String v : versions) {
-            final String s = convertMultiplePart(v.trim());
-            if (s != null) {
-                versionList.add(s.trim());
+    private static String convertMultiple(String versionString, int or) {
+        List<String> versionList = new ArrayList<>(4);
+        int start = 0;
+        while (start >= 0) {
+            String v = or < 0 ? versionString.substring(start) : versionString.substring(start, or);
+            Part part = parsePart(v.trim());
+            if (part != null) {
+                versionList.add(part.toString().trim());
             }
-
+            start = or < 0 ? -1 : or + OR.length();
+            or = start < 0 ? -1 : versionString.indexOf(OR, start);
         }
 
+        if (versionList.size() == 1) {
+            return versionList.get(0);
+        }
         // If multiple, it has to be in brackets
-        if (versionList.size() > 1) {
-            versionList = versionList.stream()
-                    .map(element -> {
-                        if (!element.contains("[") && !element.contains("(") && !element.contains("]")
-                                && !element.contains(")")) {
-                            return "[" + element + "]";
-                        }
-                        return element;
-                    }).collect(Collectors.toList());
-        }
-
-        return String.join(COMMA, versionList);
+        StringBuilder sb = new StringBuilder(versionString.length() + 8);
+        for (String element : versionList) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            if (isRange(element)) {
+                sb.append(element);
+            } else {
+                sb.append(OPEN_BLOCK).append(element).append(CLOSE_BLOCK);
+            }
+        }
+        return sb.toString();
     }
 
     private static String removeIllegalVersion(String versionString) {
@@ -109,57 +98,80 @@ public class VersionConverter {
     }
 
     /**
-     * This convert parts to maven format
+     * Read one comparator set
      *
-     * @param version
-     * @return
+     * @param version the trimmed comparator set
+     * @return the part, or null if this is not a version we understand
      */
-    private static String convertMultiplePart(String version) {
+    private static Part parsePart(String version) {
 
         version = removeIllegalVersion(version);
 
+        // One pass to see what we have
+        int length = version.length();
+        boolean hasSpace = false;
+        boolean hyphenRange = false;
+        boolean wildcard = false;
+        int dots = 0;
+        int firstHyphen = -1;
+        for (int i = 0; i < length; i++) {
+            char c = version.charAt(i);
+            if (c == ' ') {
+                hasSpace = true;
+            } else if (c == '.') {
+                dots++;
+            } else if (c == '-') {
+                if (firstHyphen < 0) {
+                    firstHyphen = i;
+                }
+                if (i > 0 && i + 1 < length && version.charAt(i - 1) == ' ' && version.charAt(i + 1) == ' ') {
+                    hyphenRange = true;
+                }
+            } else if (firstHyphen < 0 && (c == '*' || c == 'x' || c == 'X')) {
+                wildcard = true;
+            }
+        }
+
         // Hyphen range
-        if (version.contains(SPACE + HYPHEN + SPACE)) {
+        if (hyphenRange) {
             return convertHyphen(version);
         }
+        if (length == 0) {
+            return null;
+        }
+
+        char first = version.charAt(0);
 
         // Tilde range
-        if (version.startsWith(TILDE)) {
-            version = cleanTildeVersion(version);
-            return convertTilde(version);
+        if (first == '~') {
+            return convertTilde(removeSpacesAfter(version, '~'));
         }
 
         // Caret range
-        if (version.startsWith(CARET)) {
-            version = cleanCaretVersion(version);
-            return convertCaret(version);
+        if (first == '^') {
+            return convertCaret(removeSpacesAfter(version, '^'));
         }
 
         // Operator range
-        if (version.startsWith(LESS_THAN) || version.startsWith(GREATER_THAN)) {
-            version = cleanOperatorVersion(version);
-            return convertOperator(version);
+        if (first == '<' || first == '>') {
+            return convertOperator(removeSpacesAfterOperators(version));
         }
 
         // X range
-        if (!version.contains(SPACE)) {
-            String numberPart = version.split(HYPHEN)[0];
-            if (numberPart.contains(STAR) || numberPart.contains(EX) || numberPart.contains(EX.toUpperCase())) {
-                return convertX(version);
-            }
+        if (!hasSpace && wildcard) {
+            return convertX(version);
         }
 
         // Partial semver
-        long numberOfDots = version.chars().filter(ch -> ch == '.').count();
-        if (!version.startsWith(EQUAL_TO) && numberOfDots < 2) {
-            if (!version.matches("(v\\s*)?[0-9.]+")) {
+        if (first != '=' && dots < 2) {
+            if (!isPartialSemver(version)) {
                 return null;
             }
-            return convertPartialSemver(version);
+            return convertX(version + ".x");
         }
 
         // Exact
-        return cleanVersion(version);
+        return new Part(NONE, cleanVersion(version), null, NONE);
     }
 
     /**
@@ -169,18 +181,20 @@ public class VersionConverter {
      * @param version
      * @return
      */
-    private static String convertHyphen(String version) {
-
-        String[] parts = version.split(SPACE + HYPHEN + SPACE);
-
-        if (parts.length != 2)
-            throw new RuntimeException("Boundary set to big [" + parts.length
+    private static Part convertHyphen(String version) {
+        int separator = version.indexOf(" - ");
+        int parts = 2;
+        for (int next = version.indexOf(" - ", separator + 3); next >= 0; next = version.indexOf(" - ", next + 3)) {
+            parts++;
+        }
+        if (parts != 2)
+            throw new RuntimeException("Boundary set to big [" + parts
                     + "] - expecting 2 (lower and upper). Hyphen version [" + version + "]");
 
-        Version lowerBoundary = Version.fromString(parts[0].trim());
-        Version upperBoundary = Version.fromString(parts[1].trim());
+        String lowerBoundary = toMaven(version.substring(0, separator).trim());
+        String upperBoundary = toMaven(version.substring(separator + 3).trim());
 
-        return OPEN_BLOCK + lowerBoundary + COMMA + upperBoundary + CLOSE_BLOCK;
+        return new Part(OPEN_BLOCK, lowerBoundary, upperBoundary, CLOSE_BLOCK);
     }
 
     /**
@@ -190,35 +204,25 @@ public class VersionConverter {
      * @param version
      * @return
      */
-    private static String convertTilde(String version) {
+    private static Part convertTilde(String version) {
         version = version.substring(1);
-        if (version.equalsIgnoreCase(Constants.LATEST)) {
-            return convert(version);
+        if (version.equalsIgnoreCase(LATEST)) {
+            return new Part(NONE, convert(version), null, NONE);
         }
         Version lowerBoundary = Version.fromString(version);
-        Version upperBoundary = lowerBoundary.nextMajor();
-        if (lowerBoundary.minor() != null) {
-            upperBoundary = lowerBoundary.nextMinor();
-        }
-        return OPEN_BLOCK + lowerBoundary + COMMA + upperBoundary + CLOSE_ROUND;
+        Version upperBoundary = lowerBoundary.minor() != null ? lowerBoundary.nextMinor() : lowerBoundary.nextMajor();
+        return new Part(OPEN_BLOCK, toString(lowerBoundary, version), upperBoundary.toString(), CLOSE_ROUND);
     }
 
-    private static String convertCaret(String version) {
-        if (version.contains(SPACE)) {
-            return convertCaretRange(version);
+    private static Part convertCaret(String version) {
+        int space = version.indexOf(' ');
+        if (space >= 0) {
+            return convertRange(version, space, false);
         } else {
             return convertCaretOpenEnded(version);
         }
     }
 
-    private static String convertCaretRange(String version) {
-        String[] boundaries = version.split(SPACE);
-        if (boundaries.length > 2)
-            throw new RuntimeException("Error while converting version [" + version + "], boundary set to big ["
-                    + boundaries.length + "] - expecting 2 (lower and upper)");
-        return getLowerBoundary(boundaries[0].trim()) + COMMA + getUpperBoundary(boundaries[1].trim());
-    }
-
     /**
      * Translate caret ranges
      * see https://github.com/npm/node-semver#caret-ranges-123-025-004
@@ -226,23 +230,23 @@ public class VersionConverter {
      * @param version
      * @return
      */
-    private static String convertCaretOpenEnded(String version) {
+    private static Part convertCaretOpenEnded(String version) {
         version = version.substring(1);
-        if (version.equalsIgnoreCase(Constants.LATEST)) {
-            return convert(version);
+        if (version.equalsIgnoreCase(LATEST)) {
+            return new Part(NONE, convert(version), null, NONE);
         }
         Version lowerBoundary = Version.fromString(version);
         Version upperBoundary = lowerBoundary.nextMajor();
 
         if ((lowerBoundary.major() == 0 && lowerBoundary.minor() == null)) {
-            return OPEN_BLOCK + lowerBoundary + COMMA + upperBoundary + CLOSE_ROUND;
+            return new Part(OPEN_BLOCK, toString(lowerBoundary, version), upperBoundary.toString(), CLOSE_ROUND);
         } else if ((lowerBoundary.major() == 0 && lowerBoundary.minor() > 0)
                 || lowerBoundary.major() == 0 && lowerBoundary.minor() == 0 && zeroOrX(lowerBoundary.patch())) {
             upperBoundary = lowerBoundary.nextMinor();
         } else if (lowerBoundary.major() == 0 && lowerBoundary.minor() == 0 && notZero(lowerBoundary.patch())) {
             upperBoundary = lowerBoundary.nextPatch();
         }
-        return OPEN_BLOCK + lowerBoundary + COMMA + upperBoundary + CLOSE_ROUND;
+        return new Part(OPEN_BLOCK, toString(lowerBoundary, version), upperBoundary.toString(), CLOSE_ROUND);
     }
 
     /**
@@ -252,86 +256,125 @@ public class VersionConverter {
      * @param version
      * @return
      */
-    private static String convertX(String version) {
-        version = cleanVersion(version);
-        Version lowerBoundary = Version.fromString(version);
+    private static Part convertX(String version) {
+        Version lowerBoundary = Version.fromString(cleanVersion(version));
 
         if (lowerBoundary.major() == null) {
-            return OPEN_BLOCK + COMMA + CLOSE_ROUND;
+            return new Part(OPEN_BLOCK, EMPTY, EMPTY, CLOSE_ROUND);
         } else if (lowerBoundary.minor() == null) {
-            return OPEN_BLOCK + lowerBoundary + COMMA + lowerBoundary.nextMajor() + CLOSE_ROUND;
+            return new Part(OPEN_BLOCK, lowerBoundary.toString(), lowerBoundary.nextMajor().toString(), CLOSE_ROUND);
         } else if (lowerBoundary.patch() == null) {
-            return OPEN_BLOCK + lowerBoundary + COMMA + lowerBoundary.nextMinor() + CLOSE_ROUND;
+            return new Part(OPEN_BLOCK, lowerBoundary.toString(), lowerBoundary.nextMinor().toString(), CLOSE_ROUND);
         }
-        return OPEN_BLOCK + lowerBoundary + COMMA + CLOSE_ROUND;
+        return new Part(OPEN_BLOCK, lowerBoundary.toString(), EMPTY, CLOSE_ROUND);
     }
 
-    private static String convertOperator(String version) {
-        if (version.contains(SPACE)) {
-            return convertOperatorRange(version);
+    private static Part convertOperator(String version) {
+        int space = version.indexOf(' ');
+        if (space >= 0) {
+            return convertRange(version, space, true);
+        }
+        if (version.charAt(0) == '>') {
+            Bound lower = getLowerBoundary(version);
+            return new Part(lower.bracket(), lower.version(), EMPTY, CLOSE_ROUND);
         } else {
-            return convertOperatorOpenEnded(version);
+            Bound upper = getUpperBoundary(version);
+            return new Part(OPEN_ROUND, EMPTY, upper.version(), upper.bracket());
         }
     }
 
-    private static String convertOperatorRange(String version) {
-        String[] boundaries = version.split(SPACE);
-        if (boundaries.length > 2)
+    /**
+     * A lower and upper boundary, separated by a space
+     *
+     * @param sort make sure the lower boundary is first
+     */
+    private static Part convertRange(String version, int space, boolean sort) {
+        int spaces = 1;
+        for (int i = space + 1; i < version.length(); i++) {
+            if (version.charAt(i) == ' ') {
+                spaces++;
+            }
+        }
+        if (spaces > 1)
             throw new RuntimeException("Error while converting version [" + version + "], boundary set to big ["
-                    + boundaries.length + "] - expecting 2 (lower and upper)");
-        List<String> boundaryList = toSorterList(boundaries);// Make sure the lower boundary is first
-        return getLowerBoundary(boundaryList.get(0).trim()) + COMMA + getUpperBoundary(boundaryList.get(1).trim());
-    }
-
-    private static String convertOperatorOpenEnded(String version) {
-        if (version.startsWith(GREATER_THAN)) {
-            return getLowerBoundary(version) + COMMA + CLOSE_ROUND;
-        } else if (version.startsWith(LESS_THAN)) {
-            return OPEN_ROUND + COMMA + getUpperBoundary(version);
+                    + (spaces + 1) + "] - expecting 2 (lower and upper)");
+        String first = version.substring(0, space);
+        String second = version.substring(space + 1);
+        if (sort && first.startsWith("<") && second.startsWith(">")) {
+            String lower = second;
+            second = first;
+            first = lower;
         }
-        throw new InvalidVersionException(version);
+        Bound lower = getLowerBoundary(first.trim());
+        Bound upper = getUpperBoundary(second.trim());
+        return new Part(lower.bracket(), lower.version(), upper.version(), upper.bracket());
     }
 
-    private static String convertPartialSemver(String version) {
-        version = version + ".x";
-        return convertX(version);
-    }
-
-    private static String getLowerBoundary(String s) {
-        if (s.startsWith(GREATER_THAN_OR_EQUAL_TO)) {
-            return OPEN_BLOCK + Version.fromString(s.substring(2));
-        } else if (s.startsWith(GREATER_THAN)) {
-            return OPEN_ROUND + Version.fromString(s.substring(1));
-        } else if (s.startsWith(CARET)) {
-            return OPEN_BLOCK + Version.fromString(s.substring(1));
+    private static Bound getLowerBoundary(String s) {
+        if (s.startsWith(">=")) {
+            return new Bound(OPEN_BLOCK, toMaven(s.substring(2)));
+        } else if (s.startsWith(">")) {
+            return new Bound(OPEN_ROUND, toMaven(s.substring(1)));
+        } else if (s.startsWith("^")) {
+            return new Bound(OPEN_BLOCK, toMaven(s.substring(1)));
         } else {
             // Equal. If no operator is specified, then equality is assumed, so this operator is optional, but MAY be included.
-            return cleanVersion(s);
+            return new Bound(NONE, cleanVersion(s));
         }
     }
 
-    private static String getUpperBoundary(String s) {
-        if (s.startsWith(LESS_THAN_OR_EQUAL_TO)) {
-            return Version.fromString(s.substring(2)) + CLOSE_BLOCK;
-        } else if (s.startsWith(LESS_THAN)) {
-            return Version.fromString(s.substring(1)) + CLOSE_ROUND;
+    private static Bound getUpperBoundary(String s) {
+        if (s.startsWith("<=")) {
+            return new Bound(CLOSE_BLOCK, toMaven(s.substring(2)));
+        } else if (s.startsWith("<")) {
+            return new Bound(CLOSE_ROUND, toMaven(s.substring(1)));
         } else {
             // Equal. If no operator is specified, then equality is assumed, so this operator is optional, but MAY be included.
-            return cleanVersion(s);
+            return new Bound(NONE, cleanVersion(s));
         }
     }
 
-    private static List<String> toSorterList(String[] boundaries) {
-        List<String> boundaryList = Arrays.asList(boundaries);
-        Collections.sort(boundaryList, (t, t1) -> {
-            if (t.startsWith(GREATER_THAN) && t1.startsWith(LESS_THAN)) {
-                return -1;
-            } else if (t1.startsWith(GREATER_THAN) && t.startsWith(LESS_THAN)) {
-                return 1;
+    /**
+     * The maven version of a single npm version
+     */
+    private static String toMaven(String version) {
+        return isCanonical(version) ? version : Version.fromString(version).toString();
+    }
+
+    private static String toString(Version version, String text) {
+        return isCanonical(text) ? text : version.toString();
+    }
+
+    /**
+     * Is this version (like 1.2.3) the same in maven, so we do not have to parse and print it again
+     */
+    private static boolean isCanonical(String version) {
+        int length = version.length();
+        if (length == 0 || version.equals("0")) {
+            return false;
+        }
+        int parts = 1;
+        int digits = 0;
+        boolean leadingZero = false;
+        for (int i = 0; i < length; i++) {
+            char c = version.charAt(i);
+            if (c == '.') {
+                if (digits == 0 || ++parts > 3) {
+                    return false;
+                }
+                digits = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (digits == 0) {
+                    leadingZero = c == '0';
+                } else if (leadingZero || digits == 9) {
+                    return false;
+                }
+                digits++;
+            } else {
+                return false;
             }
-            return 0;
-        });
-        return boundaryList;
+        }
+        return digits > 0;
     }
 
     private static boolean zeroOrX(Integer i) {
@@ -343,46 +386,124 @@ public class VersionConverter {
     }
 
     private static String cleanVersion(String version) {
-        if (version.startsWith(VEE) || version.startsWith(EQUAL_TO) || version.startsWith(CARET)) {
-            version = version.substring(1); // Remove v or =
+        if (!version.isEmpty()) {
+            char first = version.charAt(0);
+            if (first == 'v' || first == '=' || first == '^') {
+                version = version.substring(1); // Remove v or =
+            }
         }
         return version;
     }
 
-    private static String cleanOperatorVersion(String version) {
-        if (version.contains(LESS_THAN_OR_EQUAL_TO + " ")) {
-            version = version.replaceAll(LESS_THAN_OR_EQUAL_TO + " ", LESS_THAN_OR_EQUAL_TO);
-            return cleanOperatorVersion(version);
+    /**
+     * (v followed by whitespace) followed by only numbers and dots
+     */
+    private static boolean isPartialSemver(String version) {
+        int i = 0;
+        int length = version.length();
+        if (length > 0 && version.charAt(0) == 'v') {
+            i++;
+            while (i < length && isWhitespace(version.charAt(i))) {
+                i++;
+            }
         }
-        if (version.contains(LESS_THAN + " ")) {
-            version = version.replaceAll(LESS_THAN + " ", LESS_THAN);
-            return cleanOperatorVersion(version);
+        if (i == length) {
+            return false;
         }
-        if (version.contains(GREATER_THAN_OR_EQUAL_TO + " ")) {
-            version = version.replaceAll(GREATER_THAN_OR_EQUAL_TO + " ", GREATER_THAN_OR_EQUAL_TO);
-            return cleanOperatorVersion(version);
+        for (; i < length; i++) {
+            char c = version.charAt(i);
+            if (c != '.' && (c < '0' || c > '9')) {
+                return false;
+            }
         }
-        if (version.contains(GREATER_THAN + " ")) {
-            version = version.replaceAll(GREATER_THAN + " ", GREATER_THAN);
-            return cleanOperatorVersion(version);
+        return true;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Remove the spaces after ~ or ^, so that ~ 1.2.3 is read as ~1.2.3
+     */
+    private static String removeSpacesAfter(String version, char operator) {
+        int space = version.indexOf(' ');
+        if (space < 0) {
+            return version;
         }
-        return version;
+        StringBuilder sb = new StringBuilder(version.length());
+        boolean afterOperator = false;
+        for (int i = 0; i < version.length(); i++) {
+            char c = version.charAt(i);
+            if (c == ' ' && afterOperator) {
+                continue;
+            }
+            sb.append(c);
+            afterOperator = c == operator;
+        }
+        return sb.toString();
     }
 
-    private static String cleanTildeVersion(String version) {
-        if (version.contains(TILDE + " ")) {
-            version = version.replaceAll(TILDE + " ", TILDE);
-            return cleanTildeVersion(version);
+    /**
+     * Remove the spaces after <, <=, > and >=, so that >= 1.2.3 is read as >=1.2.3
+     */
+    private static String removeSpacesAfterOperators(String version) {
+        int space = version.indexOf(' ');
+        if (space < 0) {
+            return version;
         }
-        return version;
+        StringBuilder sb = new StringBuilder(version.length());
+        boolean afterOperator = false;
+        char previous = NONE;
+        for (int i = 0; i < version.length(); i++) {
+            char c = version.charAt(i);
+            if (c == ' ' && afterOperator) {
+                continue;
+            }
+            sb.append(c);
+            afterOperator = c == '<' || c == '>' || (c == '=' && (previous == '<' || previous == '>'));
+            previous = c;
+        }
+        return sb.toString();
     }
 
-    private static String cleanCaretVersion(String version) {
-        if (version.contains(CARET + " ")) {
-            version = version.replaceAll(ESCAPED_CARET + " ", CARET);
-            return cleanCaretVersion(version);
+    private static boolean isRange(String version) {
+        for (int i = 0; i < version.length(); i++) {
+            char c = version.charAt(i);
+            if (c == OPEN_BLOCK || c == CLOSE_BLOCK || c == OPEN_ROUND || c == CLOSE_ROUND) {
+                return true;
+            }
         }
-        return version;
+        return false;
+    }
+
+    /**
+     * One boundary of a range, with its bracket (if any)
+     */
+    private record Bound(char bracket, String version) {
     }
 
+    /**
+     * One comparator set, as a maven version (upper is null) or range
+     */
+    private record Part(char open, String lower, String upper, char close) {
+        @Override
+        public String toString() {
+            if (upper == null && open == NONE && close == NONE) {
+                return lower;
+            }
+            StringBuilder sb = new StringBuilder(lower.length() + (upper == null ? 0 : upper.length()) + 3);
+            if (open != NONE) {
+                sb.append(open);
+            }
+            sb.append(lower);
+            if (upper != null) {
+                sb.append(',').append(upper);
+            }
+            if (close != NONE) {
+                sb.append(close);
+            }
+            return sb.toString();
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package io.mvnpm.version;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * All versions of a project, parsed once and sorted from low to high, so we can answer the common questions (latest,
+ * latest stable, latest in a range) without parsing the version strings again. Cached with the project (see
+ * {@link io.mvnpm.npm.model.ProjectInfo}).
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public final class VersionIndex {
+
+    private static final VersionIndex EMPTY = new VersionIndex(List.of(), List.of(), new long[0], List.of());
+
+    private final List<Version> versions;
+    private final List<Version> stableVersions;
+    // Keys of the stable versions, or null if some of them can not be compared on keys
+    private final long[] stableKeys;
+    private final List<String> invalidVersions;
+
+    private VersionIndex(List<Version> versions, List<Version> stableVersions, long[] stableKeys,
+            List<String> invalidVersions) {
+        this.versions = versions;
+        this.stableVersions = stableVersions;
+        this.stableKeys = stableKeys;
+        this.invalidVersions = invalidVersions;
+    }
+
+    public static VersionIndex of(Collection<String> versionStrings) {
+        if (versionStrings == null || versionStrings.isEmpty()) {
+            return EMPTY;
+        }
+        Version[] parsed = new Version[versionStrings.size()];
+        int size = 0;
+        List<String> invalid = new ArrayList<>(0);
+        for (String versionString : versionStrings) {
+            try {
+                parsed[size] = Version.fromString(versionString);
+                size++;
+            } catch (InvalidVersionException ive) {
+                invalid.add(versionString);
+            }
+        }
+        Arrays.sort(parsed, 0, size);
+
+        List<Version> versions = new ArrayList<>(size);
+        List<Version> stable = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Version version = parsed[i];
+            if (i > 0 && version.equals(parsed[i - 1])) {
+                continue;
+            }
+            versions.add(version);
+            if (!version.hasQualifier()) {
+                stable.add(version);
+            }
+        }
+        return new VersionIndex(List.copyOf(versions), List.copyOf(stable), keys(stable), List.copyOf(invalid));
+    }
+
+    private static long[] keys(List<Version> versions) {
+        long[] keys = new long[versions.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = versions.get(i).key();
+            if (keys[i] == Version.NO_KEY || (i > 0 && keys[i] < keys[i - 1])) {
+                return null;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * @return all (valid) versions, from low to high
+     */
+    public List<Version> versions() {
+        return versions;
+    }
+
+    /**
+     * @return all versions without a qualifier, from low to high
+     */
+    public List<Version> stableVersions() {
+        return stableVersions;
+    }
+
+    /**
+     * @return the version strings that could not be parsed
+     */
+    public List<String> invalidVersions() {
+        return invalidVersions;
+    }
+
+    public Version latest() {
+        return versions.isEmpty() ? null : versions.get(versions.size() - 1);
+    }
+
+    public Version latestStable() {
+        return stableVersions.isEmpty() ? null : stableVersions.get(stableVersions.size() - 1);
+    }
+
+    /**
+     * @param mavenRange a maven range, like [1.2.3,2), or a single version
+     * @return the highest version (without a qualifier) in the range, or null if none match
+     */
+    public Version latestMatching(String mavenRange) {
+        CompiledVersionRange range = CompiledVersionRange.compile(mavenRange);
+        if (range == null) {
+            return null;
+        }
+        return latestMatching(range);
+    }
+
+    public Version latestMatching(CompiledVersionRange range) {
+        if (stableKeys != null) {
+            int i = range.latestIndex(stableKeys);
+            if (i >= 0) {
+                return stableVersions.get(i);
+            } else if (i == -1) {
+                return null;
+            }
+        }
+        return range.selectLatestFromSorted(stableVersions);
+    }
+
+    public int size() {
+        return versions.size();
+    }
+}
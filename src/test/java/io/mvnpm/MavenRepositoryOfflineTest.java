@@ -0,0 +1,67 @@
+package io.mvnpm;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.mvnpm.fake.FakeRegistry;
+import io.mvnpm.fake.FakeRegistryResource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.vertx.mutiny.core.Vertx;
+
+/**
+ * The maven repository against a fake npm registry, so the packages are known and nothing goes online
+ */
+@QuarkusTest
+@WithTestResource(FakeRegistryResource.class)
+public class MavenRepositoryOfflineTest {
+
+    FakeRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        Vertx.vertx().fileSystem().deleteRecursive("target/cache/repository/org/mvnpm/mvnpm-fixture", true).onFailure()
+                .recoverWithNull().await().indefinitely();
+    }
+
+    @Test
+    public void testPomWithDependency() {
+        int before = registry.requests();
+        RestAssured.given().header("User-Agent", "m2e/unit-test")
+                .when().get("/maven2/org/mvnpm/mvnpm-fixture/1.0.1/mvnpm-fixture-1.0.1.pom")
+                .then().statusCode(200)
+                .body(Matchers.containsString("<artifactId>mvnpm-fixture</artifactId>"))
+                .body(Matchers.containsString("<artifactId>mvnpm-fixture-dep</artifactId>"));
+        assertTrue(registry.requests() > before, "Served by the fake registry");
+    }
+
+    @Test
+    public void testJar() {
+        RestAssured.given().header("User-Agent", "m2e/unit-test")
+                .when().get("/maven2/org/mvnpm/mvnpm-fixture/1.0.0/mvnpm-fixture-1.0.0.jar")
+                .then().statusCode(200)
+                .contentType("application/java-archive");
+        RestAssured.given().header("User-Agent", "m2e/unit-test")
+                .when().get("/maven2/org/mvnpm/mvnpm-fixture/1.0.0/mvnpm-fixture-1.0.0.jar.sha1")
+                .then().statusCode(200);
+    }
+
+    @Test
+    public void testScopedPom() {
+        RestAssured.given().header("User-Agent", "m2e/unit-test")
+                .when().get("/maven2/org/mvnpm/at/mvnpm-fixture/scoped/0.1.0/scoped-0.1.0.pom")
+                .then().statusCode(200)
+                .body(Matchers.containsString("<groupId>org.mvnpm.at.mvnpm-fixture</groupId>"));
+    }
+
+    @Test
+    public void testUnknownVersion() {
+        RestAssured.given().header("User-Agent", "m2e/unit-test")
+                .when().get("/maven2/org/mvnpm/mvnpm-fixture/9.9.9/mvnpm-fixture-9.9.9.pom")
+                .then().statusCode(404);
+    }
+}
@@ -0,0 +1,153 @@
+package io.mvnpm.creator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContentStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private ContentStore contentStore;
+
+    @BeforeEach
+    void setUp() {
+        PackageFileLocator packageFileLocator = new PackageFileLocator();
+        packageFileLocator.localUserDirectory = Optional.of(dir.toString());
+        packageFileLocator.localM2Directory = ".m2";
+        contentStore = new ContentStore();
+        contentStore.packageFileLocator = packageFileLocator;
+        contentStore.enabled = true;
+        contentStore.gcGrace = Duration.ZERO;
+    }
+
+    @Test
+    void identicalFilesShareOneBlob() throws IOException {
+        Path first = write("lit/3.0.0/lit-3.0.0-javadoc.jar", "empty");
+        Path second = write("lit/3.0.1/lit-3.0.1-javadoc.jar", "empty");
+        Path other = write("lit/3.0.1/lit-3.0.1.pom", "<project/>");
+
+        contentStore.deduplicate(first);
+        contentStore.deduplicate(second);
+        contentStore.deduplicate(other);
+
+        assertTrue(Files.isSameFile(first, second));
+        assertEquals("empty", Files.readString(second));
+        assertEquals(2, blobs().size());
+        assertEquals(3, Files.getAttribute(first, "unix:nlink"));
+    }
+
+    @Test
+    void linkingDoesNotTouchTheOtherFiles() throws IOException {
+        Path first = write("lit/3.0.0/lit-3.0.0-javadoc.jar", "empty");
+        contentStore.deduplicate(first);
+        FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+        Files.setLastModifiedTime(first, old);
+
+        contentStore.deduplicate(write("lit/3.0.1/lit-3.0.1-javadoc.jar", "empty"));
+
+        assertEquals(old, Files.getLastModifiedTime(first));
+    }
+
+    @Test
+    void collectOnlyUnreferencedBlobs() throws IOException {
+        Path kept = write("lit/3.0.0/lit-3.0.0.pom", "kept");
+        Path dropped = write("lit/3.0.1/lit-3.0.1.pom", "dropped");
+        contentStore.deduplicate(kept);
+        contentStore.deduplicate(dropped);
+        Files.delete(dropped);
+
+        assertEquals(1, contentStore.collectGarbage());
+
+        assertEquals(1, blobs().size());
+        assertEquals("kept", Files.readString(kept));
+    }
+
+    @Test
+    void recentlyChangedBlobsAreNotCollected() throws IOException {
+        contentStore.gcGrace = Duration.ofHours(1);
+        Path dropped = write("lit/3.0.1/lit-3.0.1.pom", "dropped");
+        contentStore.deduplicate(dropped);
+        Files.delete(dropped);
+
+        assertEquals(0, contentStore.collectGarbage());
+        assertEquals(1, blobs().size());
+    }
+
+    @Test
+    void relinkWhenTheBlobWasCollected() throws IOException {
+        Path first = write("lit/3.0.0/lit-3.0.0.pom", "same");
+        contentStore.deduplicate(first);
+        Files.delete(first);
+        contentStore.collectGarbage();
+        assertTrue(blobs().isEmpty());
+
+        Path second = write("lit/3.0.1/lit-3.0.1.pom", "same");
+        contentStore.deduplicate(second);
+
+        assertEquals(1, blobs().size());
+        assertTrue(Files.isSameFile(second, blobs().get(0)));
+    }
+
+    @Test
+    void linkWhenAnotherThreadAddedTheBlobFirst() throws IOException {
+        Path first = write("lit/3.0.0/lit-3.0.0.pom", "same");
+        Path second = write("lit/3.0.1/lit-3.0.1.pom", "same");
+        ContentStore racing = new ContentStore() {
+            @Override
+            void addBlob(Path blob, Path file) throws IOException {
+                if (file.equals(second)) {
+                    // The first file wins the race
+                    super.addBlob(blob, first);
+                }
+                super.addBlob(blob, file);
+            }
+        };
+        racing.packageFileLocator = contentStore.packageFileLocator;
+        racing.enabled = true;
+
+        racing.deduplicate(second);
+
+        assertEquals(1, blobs().size());
+        assertTrue(Files.isSameFile(first, second), "Not left as a private copy");
+        assertEquals(3, Files.getAttribute(second, "unix:nlink"));
+    }
+
+    @Test
+    void disabledDoesNothing() throws IOException {
+        contentStore.enabled = false;
+        contentStore.deduplicate(write("lit/3.0.0/lit-3.0.0.pom", "x"));
+        assertFalse(Files.exists(dir.resolve(".m2/blobs")));
+    }
+
+    private Path write(String path, String content) throws IOException {
+        Path file = dir.resolve(".m2/repository/org/mvnpm").resolve(path);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, content);
+    }
+
+    private List<Path> blobs() throws IOException {
+        Path blobDir = dir.resolve(".m2/blobs");
+        if (!Files.exists(blobDir)) {
+            return List.of();
+        }
+        try (Stream<Path> walk = Files.walk(blobDir)) {
+            return walk.filter(Files::isRegularFile).toList();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.mvnpm.creator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.mvnpm.npm.NpmRegistryFacade;
+import io.mvnpm.npm.model.Name;
+import io.mvnpm.npm.model.NameParser;
+import io.mvnpm.npm.model.Package;
+
+class PackagePrefetcherTest {
+
+    private final List<String> fetched = new CopyOnWriteArrayList<>();
+    private final List<String> created = new CopyOnWriteArrayList<>();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PackagePrefetcher prefetcher;
+
+    @BeforeEach
+    void setUp() {
+        prefetcher = new PackagePrefetcher();
+        prefetcher.enabled = true;
+        prefetcher.concurrency = 1;
+        prefetcher.backlog = 1;
+        prefetcher.npmRegistryFacade = new NpmRegistryFacade() {
+            @Override
+            public Package getPackage(String project, String version) {
+                fetched.add(project + "@" + version);
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+        };
+        prefetcher.packageCreator = new PackageCreator() {
+            @Override
+            public Path prefetch(FileType type, Name name, String version) {
+                created.add(name.npmFullName + "@" + version + "." + type);
+                return null;
+            }
+
+            @Override
+            public Path getFromCacheOrCreate(FileType type, Name name, String version) {
+                throw new AssertionError("Prefetch should not count as a request");
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        prefetcher.shutdown();
+    }
+
+    @Test
+    void boundedAndDeduplicated() throws Exception {
+        prefetcher.prefetch(name("lit"), "3.0.0");
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        prefetcher.prefetch(name("lit"), "3.0.0"); // In flight
+        prefetcher.prefetch(name("lit-html"), "3.0.0"); // Queued
+        prefetcher.prefetch(name("lit-html"), "3.0.0"); // Queued already
+        prefetcher.prefetch(name("lit-element"), "4.0.0"); // Backlog is full
+
+        release.countDown();
+        waitFor(2);
+
+        assertEquals(List.of("lit@3.0.0", "lit-html@3.0.0"), fetched);
+        assertEquals(List.of("lit@3.0.0.tgz", "lit-html@3.0.0.tgz"), created);
+
+        // Done, so it can be prefetched again
+        prefetcher.prefetch(name("lit-element"), "4.0.0");
+        waitFor(3);
+        assertEquals("lit-element@4.0.0.tgz", created.get(2));
+    }
+
+    @Test
+    void disabled() {
+        prefetcher.enabled = false;
+        prefetcher.prefetch(name("lit"), "3.0.0");
+        assertTrue(fetched.isEmpty());
+    }
+
+    private void waitFor(int count) throws InterruptedException {
+        long until = System.currentTimeMillis() + 10_000;
+        while (created.size() < count && System.currentTimeMillis() < until) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50); // Nothing more should come
+    }
+
+    private static Name name(String npmName) {
+        return NameParser.fromNpmProject(npmName);
+    }
+}
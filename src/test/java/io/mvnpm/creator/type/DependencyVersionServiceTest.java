@@ -0,0 +1,54 @@
+package io.mvnpm.creator.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.mvnpm.npm.NpmRegistryFacade;
+import io.mvnpm.npm.model.DistTags;
+import io.mvnpm.npm.model.ProjectInfo;
+
+class DependencyVersionServiceTest {
+
+    private final List<String> projectInfoCalls = new ArrayList<>();
+    private DependencyVersionService dependencyVersionService;
+
+    @BeforeEach
+    void setUp() {
+        dependencyVersionService = new DependencyVersionService();
+        dependencyVersionService.npmRegistryFacade = new NpmRegistryFacade() {
+            @Override
+            public ProjectInfo getProjectInfo(String project) {
+                projectInfoCalls.add(project);
+                return new ProjectInfo(new DistTags("3.1.0", "4.0.0-rc.1"), Set.of("3.0.0", "3.1.0", "4.0.0-rc.1"),
+                        null);
+            }
+        };
+    }
+
+    @Test
+    void rangesWithoutSpaces() {
+        assertEquals("1.2.3", dependencyVersionService.toMavenRange("1.2.3"));
+        assertEquals("[3.0.0,4)", dependencyVersionService.toMavenRange("^3.0.0"));
+        assertEquals("[3.1.0,3.2)", dependencyVersionService.toMavenRange("~3.1.0"));
+        assertEquals("[4,6)", dependencyVersionService.toMavenRange(">=4 <6"));
+        assertEquals("[1.2,1.3)", dependencyVersionService.toMavenRange(" 1.2 "));
+    }
+
+    @Test
+    void openEndedRanges() {
+        assertEquals("[,)", dependencyVersionService.toMavenRange("*"));
+        assertEquals("[,)", dependencyVersionService.toMavenRange("x"));
+    }
+
+    @Test
+    void latestVersionFromTheProjectInfo() {
+        assertEquals("3.1.0", dependencyVersionService.getLatestVersion("lit"));
+        assertEquals(List.of("lit"), projectInfoCalls);
+    }
+}
@@ -2,10 +2,32 @@ package io.mvnpm.creator.type;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.compress.archivers.jar.JarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.mvnpm.creator.utils.ParallelJarWriter;
 
 class JarServiceTest {
 
+    private static final String ROOT = "META-INF/resources/_static/lit/";
+
+    @TempDir
+    Path dir;
+
     @Test
     void matcherTest() {
         assertFalse(JarService.matches(JarService.FILES_TO_EXCLUDE, "foo.js"));
@@ -23,4 +45,103 @@ class JarServiceTest {
         assertTrue(JarService.matches(JarService.FILES_TO_TGZ, "bar.d.ts"));
     }
 
+    @Test
+    void previousJarReusesUnchangedEntries() throws IOException {
+        writeJar("1.0.0", Map.of("index.js", "export const a = 1;", "other.js", "export const b = 1;"));
+        Path jar = jarPath("1.1.0");
+
+        Map<String, Boolean> copied = new HashMap<>();
+        try (PreviousJar previous = PreviousJar.open(jar, "lit", "1.1.0", ROOT + "1.1.0/").orElseThrow();
+                OutputStream out = Files.newOutputStream(jar);
+                JarArchiveOutputStream jarOutput = new JarArchiveOutputStream(out);
+                ParallelJarWriter jarWriter = new ParallelJarWriter(jarOutput, 1, 0)) {
+            copied.put("index.js", copyOrWrite(previous, jarWriter, "index.js", "export const a = 1;"));
+            copied.put("other.js", copyOrWrite(previous, jarWriter, "other.js", "export const b = 2;"));
+            copied.put("new.js", copyOrWrite(previous, jarWriter, "new.js", "export const c = 1;"));
+            jarWriter.finish();
+            assertEquals(1, previous.getReused());
+        }
+
+        assertEquals(Map.of("index.js", true, "other.js", false, "new.js", false), copied);
+        Map<String, String> entries = readJar(jar);
+        assertEquals("export const a = 1;", entries.get(ROOT + "1.1.0/index.js"));
+        assertEquals("export const b = 2;", entries.get(ROOT + "1.1.0/other.js"));
+        assertEquals("export const c = 1;", entries.get(ROOT + "1.1.0/new.js"));
+    }
+
+    @Test
+    void previousJarIsTheHighestLowerVersion() throws IOException {
+        writeJar("0.9.0", Map.of("index.js", "old"));
+        writeJar("1.0.0", Map.of("index.js", "previous"));
+        writeJar("2.0.0", Map.of("index.js", "newer"));
+        Path jar = jarPath("1.1.0");
+
+        try (PreviousJar previous = PreviousJar.open(jar, "lit", "1.1.0", ROOT + "1.1.0/").orElseThrow();
+                OutputStream out = Files.newOutputStream(jar);
+                JarArchiveOutputStream jarOutput = new JarArchiveOutputStream(out);
+                ParallelJarWriter jarWriter = new ParallelJarWriter(jarOutput, 1, 0)) {
+            assertFalse(previous.copyIfUnchanged(jarWriter, ROOT + "1.1.0/index.js", bytes("old")));
+            assertFalse(previous.copyIfUnchanged(jarWriter, ROOT + "1.1.0/index.js", bytes("newer")));
+            assertTrue(previous.copyIfUnchanged(jarWriter, ROOT + "1.1.0/index.js", bytes("previous")));
+        }
+    }
+
+    @Test
+    void noPreviousJar() throws IOException {
+        Files.createDirectories(dir.resolve("lit/1.0.0")); // A version without a jar
+        Path jar = jarPath("1.1.0");
+
+        assertEquals(Optional.empty(), PreviousJar.open(jar, "lit", "1.1.0", ROOT + "1.1.0/"));
+        // Only the first version
+        assertEquals(Optional.empty(), PreviousJar.open(jarPath("1.0.0"), "lit", "1.0.0", ROOT + "1.0.0/"));
+    }
+
+    @Test
+    void noPreviousJarWhenTheRootIsNotVersioned() throws IOException {
+        writeJar("1.0.0", Map.of("index.js", "same"));
+
+        assertEquals(Optional.empty(), PreviousJar.open(jarPath("1.1.0"), "lit", "1.1.0", "META-INF/resources/lit/"));
+    }
+
+    private boolean copyOrWrite(PreviousJar previous, ParallelJarWriter jarWriter, String name, String content)
+            throws IOException {
+        String filename = ROOT + "1.1.0/" + name;
+        if (previous.copyIfUnchanged(jarWriter, filename, bytes(content))) {
+            return true;
+        }
+        jarWriter.write(filename, bytes(content));
+        return false;
+    }
+
+    private Path jarPath(String version) throws IOException {
+        Path versionDir = Files.createDirectories(dir.resolve("lit").resolve(version));
+        return versionDir.resolve("lit-" + version + ".jar");
+    }
+
+    private void writeJar(String version, Map<String, String> entries) throws IOException {
+        try (OutputStream out = Files.newOutputStream(jarPath(version));
+                JarArchiveOutputStream jarOutput = new JarArchiveOutputStream(out);
+                ParallelJarWriter jarWriter = new ParallelJarWriter(jarOutput, 1, 0)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                jarWriter.write(ROOT + version + "/" + entry.getKey(), bytes(entry.getValue()));
+            }
+            jarWriter.finish();
+        }
+    }
+
+    static Map<String, String> readJar(Path jar) throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        try (ZipFile zipFile = ZipFile.builder().setPath(jar).get()) {
+            for (ZipArchiveEntry entry : Collections.list(zipFile.getEntries())) {
+                try (InputStream in = zipFile.getInputStream(entry)) {
+                    entries.put(entry.getName(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,115 @@
+package io.mvnpm.creator.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.mvnpm.creator.PackageFileLocator;
+import io.mvnpm.mavencentral.sync.CentralSyncItem;
+import io.mvnpm.mavencentral.sync.Stage;
+import io.mvnpm.npm.model.Name;
+import io.mvnpm.npm.model.NameParser;
+
+class MetadataServiceTest {
+
+    private static final Name COMPOSITE = NameParser.fromMavenGA("org.mvnpm.at.mvnpm", "vaadin-webcomponents");
+
+    @TempDir
+    Path dir;
+
+    private Path metadataXml;
+    private List<String> released = List.of("24.1.0");
+    private MetadataService metadataService;
+
+    @BeforeEach
+    void setUp() {
+        metadataXml = dir.resolve("maven-metadata.xml");
+        metadataService = new MetadataService() {
+            @Override
+            List<String> findReleasedVersions(Name name) {
+                return released;
+            }
+        };
+        metadataService.timeout = 60;
+        metadataService.packageFileLocator = new PackageFileLocator() {
+            @Override
+            public Path getLocalMetadataXmlFullPath(Name name) {
+                return metadataXml;
+            }
+        };
+    }
+
+    @Test
+    void releasedCompositeIsAdded() throws IOException {
+        Files.writeString(metadataXml, metadata("24.0.0"));
+
+        metadataService.compositeReleased(item("24.2.0", Stage.RELEASED));
+
+        Metadata metadata = metadataService.getMetadata(COMPOSITE);
+        assertEquals(List.of("24.0.0", "24.1.0", "24.2.0"), metadata.getVersioning().getVersions(),
+                "Served before, released in the db, and just released");
+        assertEquals("24.2.0", metadata.getVersioning().getLatest());
+        assertTrue(Files.exists(Path.of(metadataXml + ".sha1")));
+    }
+
+    @Test
+    void otherStagesAreIgnored() throws IOException {
+        String before = metadata("24.0.0");
+        Files.writeString(metadataXml, before);
+
+        metadataService.compositeReleased(item("24.2.0", Stage.UPLOADED));
+
+        assertEquals(before, Files.readString(metadataXml));
+    }
+
+    @Test
+    void centralVersionsAreMerged() throws IOException {
+        released = List.of("24.10.0");
+        Files.writeString(metadataXml, metadata("24.0.0"));
+
+        metadataService.mergeCentralVersions(COMPOSITE, metadataXml,
+                metadata("23.3.0", "24.0.0").getBytes(StandardCharsets.UTF_8));
+
+        Metadata metadata = metadataService.getMetadata(COMPOSITE);
+        assertEquals(List.of("23.3.0", "24.0.0", "24.10.0"), metadata.getVersioning().getVersions());
+        assertEquals("24.10.0", metadata.getVersioning().getRelease());
+    }
+
+    @Test
+    void invalidCentralMetadataIsIgnored() throws IOException {
+        String before = metadata("24.0.0");
+        Files.writeString(metadataXml, before);
+
+        metadataService.mergeCentralVersions(COMPOSITE, metadataXml, "<html>".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(before, Files.readString(metadataXml));
+    }
+
+    private CentralSyncItem item(String version, Stage stage) {
+        CentralSyncItem item = new CentralSyncItem();
+        item.groupId = COMPOSITE.mvnGroupId;
+        item.artifactId = COMPOSITE.mvnArtifactId;
+        item.version = version;
+        item.stage = stage;
+        return item;
+    }
+
+    private static String metadata(String... versions) {
+        StringBuilder xml = new StringBuilder("<metadata><groupId>org.mvnpm.at.mvnpm</groupId>"
+                + "<artifactId>vaadin-webcomponents</artifactId><versioning><versions>");
+        for (String version : versions) {
+            xml.append("<version>").append(version).append("</version>");
+        }
+        return xml.append("</versions></versioning></metadata>").toString();
+    }
+}
@@ -0,0 +1,103 @@
+package io.mvnpm.creator.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.apache.maven.model.Dependency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.mvnpm.npm.NpmRegistryFacade;
+import io.mvnpm.npm.model.DistTags;
+import io.mvnpm.npm.model.Name;
+import io.mvnpm.npm.model.NameParser;
+import io.mvnpm.npm.model.Package;
+import io.mvnpm.npm.model.ProjectInfo;
+
+class PomServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<String> projectInfoCalls = new CopyOnWriteArrayList<>();
+    private PomService pomService;
+
+    @BeforeEach
+    void setUp() {
+        DependencyVersionService dependencyVersionService = new DependencyVersionService();
+        dependencyVersionService.npmRegistryFacade = new NpmRegistryFacade() {
+            @Override
+            public ProjectInfo getProjectInfo(String project) {
+                projectInfoCalls.add(project);
+                if (project.equals("unknown")) {
+                    throw new IllegalStateException("Not found");
+                }
+                String latest = project.equals("lit") ? "3.1.0" : "2.0.0";
+                return new ProjectInfo(new DistTags(latest, null), Set.of(latest), null);
+            }
+        };
+        pomService = new PomService();
+        pomService.hashService = new HashService();
+        pomService.dependencyVersionService = dependencyVersionService;
+        pomService.latestVersionConcurrency = 2;
+    }
+
+    @Test
+    void rangesToVersions() {
+        Path pom = dir.resolve("app-1.0.0.pom");
+
+        pomService.createAndSavePom(pkg("app", "1.0.0", Map.of("lit", "*", "lit-html", "^2.1.0", "@lit/task", "x")),
+                pom);
+
+        Map<String, String> versions = versions(pom);
+        assertEquals("[3.1.0,)", versions.get("lit"), "Open ended, from the latest version");
+        assertEquals("[2.1.0,3)", versions.get("lit-html"));
+        assertEquals("[2.0.0,)", versions.get("task"));
+        assertEquals(Set.of("lit", "@lit/task"), Set.copyOf(projectInfoCalls));
+    }
+
+    @Test
+    void rangesAreResolvedOncePerBatch() {
+        List<Path> created = pomService.createAndSavePoms(List.of(
+                pkg("app", "1.0.0", Map.of("lit", "*")),
+                pkg("app", "1.1.0", Map.of("lit", "*", "lit-html", "^2.1.0"))),
+                p -> dir.resolve("app-" + p.version() + ".pom"));
+
+        assertEquals(2, created.size());
+        assertEquals("[3.1.0,)", versions(created.get(0)).get("lit"));
+        assertEquals("[3.1.0,)", versions(created.get(1)).get("lit"));
+        assertEquals(List.of("lit"), projectInfoCalls);
+    }
+
+    @Test
+    void badRangeOnlySkipsItsVersion() {
+        List<Path> created = pomService.createAndSavePoms(List.of(
+                pkg("app", "1.0.0", Map.of("lit", "~>1")),
+                pkg("app", "1.1.0", Map.of("lit", "*")),
+                pkg("app", "1.2.0", Map.of("unknown", "*"))),
+                p -> dir.resolve("app-" + p.version() + ".pom"));
+
+        assertEquals(List.of(dir.resolve("app-1.1.0.pom")), created);
+        assertEquals("[3.1.0,)", versions(created.get(0)).get("lit"));
+    }
+
+    Map<String, String> versions(Path pom) {
+        List<Dependency> deps = PomService.resolveDependencies(pomService.readPom(pom));
+        return deps.stream().collect(Collectors.toMap(Dependency::getArtifactId, Dependency::getVersion));
+    }
+
+    static Package pkg(String name, String version, Map<String, String> dependencies) {
+        Map<Name, String> deps = new LinkedHashMap<>();
+        dependencies.forEach((n, v) -> deps.put(NameParser.fromNpmProject(n), v));
+        return new Package(null, NameParser.fromNpmProject(name), version, null, null, null, null, null, null, null,
+                null, null, null, deps, null, null);
+    }
+}
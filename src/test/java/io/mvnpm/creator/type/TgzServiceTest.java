@@ -0,0 +1,260 @@
+package io.mvnpm.creator.type;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.mvnpm.fake.FakeRegistry;
+import io.mvnpm.npm.model.Dist;
+import io.mvnpm.npm.model.Name;
+import io.mvnpm.npm.model.NameParser;
+import io.mvnpm.npm.model.Package;
+
+class TgzServiceTest {
+
+    // From the fake registry fixtures (src/test/resources/npm-registry)
+    private static final String FIXTURE_TGZ = "/mvnpm-fixture/-/mvnpm-fixture-1.0.1.tgz";
+    private static final String FIXTURE_INTEGRITY = "sha512-"
+            + "P0Z7WmaEF+ZnkYIjLt6yf+wNHv+tZpM9pulDzf9mfFWJJgdeEEmLu8UkWGfPmexNRaLgIxdxgPCZl5YP8Z+R/A==";
+    private static final byte[] TGZ = "not really a tgz, but the bytes npm published".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private TgzService tgzService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/lit.tgz", exchange -> {
+            requests.incrementAndGet();
+            exchange.sendResponseHeaders(200, TGZ.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(TGZ);
+            }
+        });
+        server.createContext("/slow.tgz", exchange -> {
+            requests.incrementAndGet();
+            exchange.sendResponseHeaders(200, TGZ.length * 2L);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(TGZ);
+                out.flush();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // The client went away
+            }
+        });
+        server.start();
+
+        tgzService = new TgzService();
+        tgzService.connectTimeoutSeconds = 5;
+        tgzService.timeoutSeconds = 10;
+        tgzService.retries = 1;
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        tgzService.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void matchingIntegrity() throws Exception {
+        Path tgz = dir.resolve("lit-3.0.0.tgz");
+
+        tgzService.fetchRemoteAndSave(pkg("/lit.tgz", "sha512-" + base64("SHA-512"), null), tgz);
+
+        assertEquals(new String(TGZ, StandardCharsets.UTF_8), Files.readString(tgz));
+        assertEquals(hex("SHA-1"), Files.readString(Path.of(tgz + ".sha1")));
+        assertEquals(hex("MD5"), Files.readString(Path.of(tgz + ".md5")));
+    }
+
+    @Test
+    void strongestIntegrityIsUsed() throws Exception {
+        Path tgz = dir.resolve("lit-3.0.0.tgz");
+        // A wrong sha1 does not matter if the sha512 matches
+        String integrity = "sha1-" + Base64.getEncoder().encodeToString(new byte[20]) + " sha512-" + base64("SHA-512");
+
+        tgzService.fetchRemoteAndSave(pkg("/lit.tgz", integrity, null), tgz);
+
+        assertTrue(Files.exists(tgz));
+    }
+
+    @Test
+    void integrityMismatchIsNotCached() throws Exception {
+        Path tgz = dir.resolve("lit-3.0.0.tgz");
+        String wrong = "sha512-" + Base64.getEncoder().encodeToString(new byte[64]);
+
+        assertThrows(RuntimeException.class, () -> tgzService.fetchRemoteAndSave(pkg("/lit.tgz", wrong, null), tgz));
+
+        assertEquals(2, requests.get(), "Retried once");
+        assertEquals(List.of(), files());
+    }
+
+    @Test
+    void shasumIsUsedWithoutIntegrity() throws Exception {
+        Path tgz = dir.resolve("lit-3.0.0.tgz");
+
+        assertThrows(RuntimeException.class,
+                () -> tgzService.fetchRemoteAndSave(pkg("/lit.tgz", null, "0".repeat(40)), tgz));
+        assertEquals(List.of(), files());
+
+        tgzService.fetchRemoteAndSave(pkg("/lit.tgz", null, hex("SHA-1").toUpperCase()), tgz);
+        assertTrue(Files.exists(tgz));
+    }
+
+    @Test
+    void missingIntegrity() throws Exception {
+        Path tgz = dir.resolve("lit-3.0.0.tgz");
+
+        tgzService.fetchRemoteAndSave(pkg("/lit.tgz", null, null), tgz);
+
+        assertTrue(Files.exists(tgz));
+        assertEquals(hex("SHA-1"), Files.readString(Path.of(tgz + ".sha1")));
+    }
+
+    @Test
+    void timeoutAbortsTheDownload() throws Exception {
+        tgzService.timeoutSeconds = 1;
+        tgzService.retries = 0;
+        Path tgz = dir.resolve("slow-1.0.0.tgz");
+
+        assertThrows(RuntimeException.class, () -> tgzService.fetchRemoteAndSave(pkg("/slow.tgz", null, null), tgz));
+
+        assertEquals(List.of(), files());
+        Thread.sleep(200);
+        assertFalse(Files.exists(tgz));
+        assertEquals(List.of(), files(), "Nothing written after the temp file was deleted");
+    }
+
+    @Test
+    void serverErrorsAreRetried() throws Exception {
+        tgzService.retries = 2;
+        Path tgz = dir.resolve("mvnpm-fixture-1.0.1.tgz");
+        try (FakeRegistry registry = FakeRegistry.start().errorRate(1)) {
+            assertThrows(RuntimeException.class,
+                    () -> tgzService.fetchRemoteAndSave(fixture(registry), tgz));
+
+            assertEquals(3, registry.requests(), "First attempt and two retries");
+            assertEquals(3, registry.errors());
+            assertEquals(List.of(), files());
+        }
+    }
+
+    @Test
+    void recoversWhenTheRegistryRecovers() throws Exception {
+        Path tgz = dir.resolve("mvnpm-fixture-1.0.1.tgz");
+        try (FakeRegistry registry = FakeRegistry.start().errorRate(1)) {
+            CompletableFuture<Void> download = CompletableFuture
+                    .runAsync(() -> tgzService.fetchRemoteAndSave(fixture(registry), tgz));
+            // The first attempt fails, and the retry waits for the backoff
+            while (registry.errors() == 0) {
+                Thread.sleep(10);
+            }
+            registry.errorRate(0);
+            download.join();
+
+            assertEquals(2, registry.requests());
+            assertEquals(1, registry.errors());
+            assertTrue(Files.exists(tgz));
+            assertTrue(Files.exists(Path.of(tgz + ".sha1")));
+        }
+    }
+
+    @Test
+    void slowRegistryTimesOutEveryAttempt() throws Exception {
+        tgzService.timeoutSeconds = 1;
+        Path tgz = dir.resolve("mvnpm-fixture-1.0.1.tgz");
+        try (FakeRegistry registry = FakeRegistry.start().latency(Duration.ofSeconds(3))) {
+            long start = System.nanoTime();
+            RuntimeException e = assertThrows(RuntimeException.class,
+                    () -> tgzService.fetchRemoteAndSave(fixture(registry), tgz));
+            Duration took = Duration.ofNanos(System.nanoTime() - start);
+
+            assertTrue(e.getCause() instanceof IOException, e.toString());
+            assertEquals(2, registry.requests(), "Retried once");
+            assertTrue(took.compareTo(Duration.ofSeconds(3)) < 0, "Not waiting for the registry, took " + took);
+            assertEquals(List.of(), files());
+        }
+    }
+
+    @Test
+    void latencyWithinTheTimeout() throws Exception {
+        Path tgz = dir.resolve("mvnpm-fixture-1.0.1.tgz");
+        try (FakeRegistry registry = FakeRegistry.start().latency(Duration.ofMillis(300))) {
+            tgzService.fetchRemoteAndSave(fixture(registry), tgz);
+
+            assertEquals(1, registry.requests());
+            assertTrue(Files.exists(tgz));
+        }
+    }
+
+    private static Package fixture(FakeRegistry registry) {
+        try {
+            return pkg(new URL(registry.url() + FIXTURE_TGZ), FIXTURE_INTEGRITY, null);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Package pkg(String path, String integrity, String shasum) throws Exception {
+        return pkg(new URL("http://localhost:" + server.getAddress().getPort() + path), integrity, shasum);
+    }
+
+    private static Package pkg(URL tarball, String integrity, String shasum) {
+        Name name = NameParser.fromNpmProject("lit");
+        return new Package(null, name, "3.0.0", null, null, null, null, null, null, null, null, null, null, null,
+                null, new Dist(integrity, shasum, tarball, 1, TGZ.length, null));
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.toList();
+        }
+    }
+
+    private static String base64(String algorithm) throws Exception {
+        return Base64.getEncoder().encodeToString(MessageDigest.getInstance(algorithm).digest(TGZ));
+    }
+
+    private static String hex(String algorithm) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance(algorithm).digest(TGZ));
+    }
+}
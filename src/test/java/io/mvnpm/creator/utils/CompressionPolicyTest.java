@@ -0,0 +1,46 @@
+package io.mvnpm.creator.utils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class CompressionPolicyTest {
+
+    @Test
+    void storeByExtension() {
+        byte[] small = "x".getBytes(StandardCharsets.UTF_8);
+        assertTrue(CompressionPolicy.shouldStore("META-INF/resources/_static/font/1.0.0/font.woff2", small));
+        assertTrue(CompressionPolicy.shouldStore("META-INF/resources/_static/img/1.0.0/logo.PNG", small));
+        assertTrue(CompressionPolicy.shouldStore("META-INF/.more.tgz", small));
+        assertTrue(CompressionPolicy.shouldStore("dist/index.js.br", small));
+        assertFalse(CompressionPolicy.shouldStore("dist/index.js", small));
+        assertFalse(CompressionPolicy.shouldStore("package.json", small));
+    }
+
+    @Test
+    void storeByEntropy() throws IOException {
+        byte[] code = "export function add(a, b) { return a + b; }\n".repeat(200).getBytes(StandardCharsets.UTF_8);
+        assertFalse(CompressionPolicy.shouldStore("dist/index.js", code));
+
+        byte[] random = new byte[8192];
+        new Random(42).nextBytes(random);
+        assertTrue(CompressionPolicy.shouldStore("dist/data.bin", random));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(baos)) {
+            gzip.write(random);
+        }
+        assertTrue(CompressionPolicy.shouldStore("dist/unknown-extension", baos.toByteArray()));
+
+        // Too small to say
+        assertFalse(CompressionPolicy.shouldStore("dist/data.bin", new byte[] { 1, 2, 3 }));
+    }
+
+}
@@ -0,0 +1,138 @@
+package io.mvnpm.creator.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.compress.archivers.jar.JarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelJarWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sameJarAsSequential() throws IOException {
+        Map<String, byte[]> content = content();
+
+        Path sequential = writeJar(dir.resolve("sequential.jar"), 1, content);
+        Path parallel = writeJar(dir.resolve("parallel.jar"), 4, content);
+
+        Map<String, byte[]> expected = readJar(sequential);
+        Map<String, byte[]> actual = readJar(parallel);
+        assertEquals(content.keySet(), expected.keySet());
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String name : expected.keySet()) {
+            assertEquals(new String(expected.get(name), StandardCharsets.ISO_8859_1),
+                    new String(actual.get(name), StandardCharsets.ISO_8859_1), name);
+        }
+    }
+
+    @Test
+    void poolIsSharedBetweenJars() throws IOException {
+        Path first = writeJar(dir.resolve("first.jar"), 2, content());
+        Path second = writeJar(dir.resolve("second.jar"), 2, content());
+
+        assertEquals(readJar(first).keySet(), readJar(second).keySet());
+    }
+
+    @Test
+    void closeWithoutFinishDeletesTheScatterFiles() throws Exception {
+        Set<Path> before = scatterFiles();
+        CountDownLatch started = new CountDownLatch(1);
+        try (OutputStream out = Files.newOutputStream(dir.resolve("failed.jar"));
+                JarArchiveOutputStream jarOutput = new JarArchiveOutputStream(out);
+                ParallelJarWriter jarWriter = new ParallelJarWriter(jarOutput, 2, ParallelJarWriter.PARALLEL_MIN_SIZE)) {
+            assertTrue(jarWriter.isParallel());
+            byte[] code = "export const a = 1;\n".repeat(100).getBytes(StandardCharsets.UTF_8);
+            jarWriter.write("dist/index.js", code.length, () -> {
+                started.countDown();
+                return new ByteArrayInputStream(code);
+            });
+            started.await();
+            // The build fails here, before finish
+        }
+        Thread.sleep(100); // Let the cancelled task settle
+
+        Set<Path> left = scatterFiles();
+        left.removeAll(before);
+        assertTrue(left.isEmpty(), "Left " + left);
+    }
+
+    @Test
+    void smallJarsAreNotParallel() throws IOException {
+        try (OutputStream out = Files.newOutputStream(dir.resolve("small.jar"));
+                JarArchiveOutputStream jarOutput = new JarArchiveOutputStream(out);
+                ParallelJarWriter jarWriter = new ParallelJarWriter(jarOutput, 4, 1024)) {
+            assertFalse(jarWriter.isParallel());
+        }
+    }
+
+    private Map<String, byte[]> content() {
+        Map<String, byte[]> content = new LinkedHashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            content.put("META-INF/resources/_static/lit/1.0.0/file" + i + ".js",
+                    ("export const value" + i + " = " + random.nextInt() + ";\n").repeat(200 + i)
+                            .getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] image = new byte[4096];
+        random.nextBytes(image);
+        content.put("META-INF/resources/_static/lit/1.0.0/logo.png", image);
+        content.put("META-INF/resources/_static/lit/1.0.0/empty.js", new byte[0]);
+        return content;
+    }
+
+    private Path writeJar(Path jar, int threads, Map<String, byte[]> content) throws IOException {
+        try (OutputStream out = Files.newOutputStream(jar);
+                JarArchiveOutputStream jarOutput = new JarArchiveOutputStream(out);
+                ParallelJarWriter jarWriter = new ParallelJarWriter(jarOutput, threads,
+                        ParallelJarWriter.PARALLEL_MIN_SIZE)) {
+            assertEquals(threads > 1, jarWriter.isParallel());
+            for (Map.Entry<String, byte[]> entry : content.entrySet()) {
+                jarWriter.write(entry.getKey(), entry.getValue());
+            }
+            jarWriter.finish();
+        }
+        return jar;
+    }
+
+    private Map<String, byte[]> readJar(Path jar) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipFile zipFile = ZipFile.builder().setPath(jar).get()) {
+            for (ZipArchiveEntry entry : Collections.list(zipFile.getEntries())) {
+                try (InputStream in = zipFile.getInputStream(entry)) {
+                    entries.put(entry.getName(), in.readAllBytes());
+                }
+            }
+        }
+        return entries;
+    }
+
+    private Set<Path> scatterFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(f -> f.getFileName().toString().startsWith("mvnpm-scatter"))
+                    .collect(Collectors.toSet());
+        }
+    }
+}
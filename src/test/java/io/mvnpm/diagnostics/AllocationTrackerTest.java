@@ -0,0 +1,74 @@
+package io.mvnpm.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AllocationTrackerTest {
+
+    private AllocationTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new AllocationTracker();
+        tracker.heaviestSize = 3;
+    }
+
+    @Test
+    void keepsTheHeaviestFirst() {
+        tracker.record(allocation(AllocationTracker.Kind.JAR, "lit", 10));
+        tracker.record(allocation(AllocationTracker.Kind.JAR, "vaadin", 500));
+        tracker.record(allocation(AllocationTracker.Kind.UPLOAD, "lit", 50));
+        tracker.record(allocation(AllocationTracker.Kind.COMPOSITE, "vaadin-web-components", 900));
+
+        List<Allocation> heaviest = tracker.getHeaviest(10);
+
+        assertEquals(3, heaviest.size());
+        assertEquals("vaadin-web-components", heaviest.get(0).gav());
+        assertEquals("vaadin", heaviest.get(1).gav());
+        assertEquals(50, heaviest.get(2).allocatedBytes());
+        assertEquals(1, tracker.getHeaviest(1).size());
+    }
+
+    @Test
+    void onePerKindAndPackage() {
+        tracker.record(allocation(AllocationTracker.Kind.JAR, "lit", 100));
+        tracker.record(allocation(AllocationTracker.Kind.JAR, "lit", 300));
+        tracker.record(allocation(AllocationTracker.Kind.JAR, "lit", 200));
+
+        List<Allocation> heaviest = tracker.getHeaviest(10);
+
+        assertEquals(1, heaviest.size());
+        assertEquals(300, heaviest.get(0).allocatedBytes());
+    }
+
+    @Test
+    void virtualThreadBuildsAreCountedAsUnmeasured() throws Exception {
+        AtomicLong allocated = new AtomicLong();
+        Thread.ofVirtual().start(() -> allocated.set(((com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean()).getCurrentThreadAllocatedBytes())).join();
+        assumeTrue(allocated.get() < 0, "This JVM can measure virtual threads");
+
+        Thread.ofVirtual().start(() -> {
+            try (AllocationTracker.Measurement measurement = tracker.start(AllocationTracker.Kind.UPLOAD, "lit")) {
+                // Nothing to build
+            }
+        }).join();
+
+        assertEquals(List.of(), tracker.getHeaviest(10));
+        assertEquals(Map.of(AllocationTracker.Kind.JAR, 0L, AllocationTracker.Kind.COMPOSITE, 0L,
+                AllocationTracker.Kind.UPLOAD, 1L), tracker.getUnmeasured());
+    }
+
+    private Allocation allocation(AllocationTracker.Kind kind, String gav, long bytes) {
+        return new Allocation(kind, gav, bytes, 1, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,88 @@
+package io.mvnpm.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.consumer.RecordingFile;
+
+class JfrServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private JfrService jfrService;
+
+    @BeforeEach
+    void setUp() {
+        jfrService = new JfrService();
+        jfrService.enabled = true;
+        jfrService.maxDuration = Duration.ofMinutes(1);
+        jfrService.keep = 2;
+        jfrService.directory = Optional.of(dir.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jfrService.shutdown();
+    }
+
+    @Test
+    void recordStopAndDownload() {
+        JfrRecording recording = jfrService.start(Duration.ofMinutes(5), "default").orElseThrow();
+        assertEquals("RUNNING", recording.state());
+        assertEquals(Duration.ofMinutes(1), recording.duration(), "Capped at the max duration");
+        assertTrue(jfrService.getFile(recording.id()).isEmpty(), "Not done yet");
+
+        // Only one at a time
+        assertTrue(jfrService.start(Duration.ofSeconds(10), "default").isEmpty());
+
+        JfrRecording stopped = jfrService.stop(recording.id()).orElseThrow();
+        assertNotEquals("RUNNING", stopped.state());
+        assertTrue(stopped.size() > 0);
+        Path file = jfrService.getFile(recording.id()).orElseThrow();
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    void onlyTheLastRecordingsAreKept() {
+        long first = jfrService.start(Duration.ofSeconds(30), "default").orElseThrow().id();
+        jfrService.stop(first);
+        Path firstFile = jfrService.getFile(first).orElseThrow();
+        long second = jfrService.start(Duration.ofSeconds(30), "default").orElseThrow().id();
+        jfrService.stop(second);
+        long third = jfrService.start(Duration.ofSeconds(30), "default").orElseThrow().id();
+        jfrService.stop(third);
+
+        assertEquals(2, jfrService.list().size());
+        assertEquals(third, jfrService.list().get(0).id());
+        assertFalse(Files.exists(firstFile));
+    }
+
+    @Test
+    void noEnvironmentOrSystemProperties() throws IOException {
+        long id = jfrService.start(Duration.ofSeconds(30), "profile").orElseThrow().id();
+        jfrService.stop(id);
+
+        Set<String> events = RecordingFile.readAllEvents(jfrService.getFile(id).orElseThrow()).stream()
+                .map(event -> event.getEventType().getName())
+                .collect(Collectors.toSet());
+        assertTrue(events.contains("jdk.JVMInformation"), "Other startup events are recorded");
+        assertFalse(events.contains("jdk.InitialEnvironmentVariable"));
+        assertFalse(events.contains("jdk.InitialSystemProperty"));
+    }
+}
@@ -0,0 +1,273 @@
+package io.mvnpm.fake;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.BodyHandler;
+
+/**
+ * A stand-in for registry.npmjs.org and the Central publisher API, so the creation and sync pipeline can be tested and
+ * benchmarked offline and repeatably.
+ *
+ * npm packuments and tarballs are served from recorded fixtures (by default src/test/resources/npm-registry, one
+ * folder per package with a packument.json and the tarballs). Tarball urls in the packuments are rewritten to this
+ * server. Uploads to the publisher are accepted, counted and reported as published.
+ *
+ * Latency, errors and throttling (429 with Retry-After) can be injected on every request.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public class FakeRegistry implements AutoCloseable {
+
+    public static final String NPM_REGISTRY = "https://registry.npmjs.org";
+
+    private final Path fixtures;
+    private final Vertx vertx;
+    private final HttpServer server;
+    private final Random random;
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile double errorRate = 0;
+    private volatile double throttleRate = 0;
+    private volatile int retryAfterSeconds = 1;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicInteger throttled = new AtomicInteger();
+    private final AtomicInteger uploads = new AtomicInteger();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+
+    private FakeRegistry(Path fixtures, int port, long seed) {
+        this.fixtures = fixtures;
+        this.random = new Random(seed);
+        this.vertx = Vertx.vertx();
+        Router router = Router.router(vertx);
+        router.route().handler(this::inject);
+        router.post("/api/v1/publisher/upload").handler(BodyHandler.create()).handler(this::upload);
+        router.post("/api/v1/publisher/status").handler(this::status);
+        router.get("/api/v1/publisher/published").handler(this::published);
+        router.get("/-/v1/search").handler(this::search);
+        router.get().handler(this::npm);
+        try {
+            this.server = vertx.createHttpServer()
+                    .requestHandler(router)
+                    .listen(port)
+                    .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            vertx.close();
+            throw new IllegalStateException("Could not start the fake registry", e);
+        }
+    }
+
+    /**
+     * Start on a random port, serving the fixtures from the test classpath
+     */
+    public static FakeRegistry start() {
+        return start(defaultFixtures(), 0, 42);
+    }
+
+    public static FakeRegistry start(Path fixtures, int port, long seed) {
+        return new FakeRegistry(fixtures, port, seed);
+    }
+
+    public String url() {
+        return "http://localhost:" + server.actualPort();
+    }
+
+    public FakeRegistry latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Fraction (0-1) of requests that fail with a 500
+     */
+    public FakeRegistry errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Fraction (0-1) of requests that are throttled with a 429
+     */
+    public FakeRegistry throttleRate(double throttleRate, int retryAfterSeconds) {
+        this.throttleRate = throttleRate;
+        this.retryAfterSeconds = retryAfterSeconds;
+        return this;
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    public int errors() {
+        return errors.get();
+    }
+
+    public int throttled() {
+        return throttled.get();
+    }
+
+    public int uploads() {
+        return uploads.get();
+    }
+
+    public long uploadedBytes() {
+        return uploadedBytes.get();
+    }
+
+    @Override
+    public void close() {
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    private void inject(RoutingContext ctx) {
+        requests.incrementAndGet();
+        double dice;
+        synchronized (random) {
+            dice = random.nextDouble();
+        }
+        Runnable next;
+        if (dice < throttleRate) {
+            throttled.incrementAndGet();
+            next = () -> ctx.response().setStatusCode(429)
+                    .putHeader("Retry-After", String.valueOf(retryAfterSeconds))
+                    .end();
+        } else if (dice < throttleRate + errorRate) {
+            errors.incrementAndGet();
+            next = () -> ctx.response().setStatusCode(500).end();
+        } else {
+            next = ctx::next;
+        }
+        if (latency.isZero()) {
+            next.run();
+        } else {
+            vertx.setTimer(latency.toMillis(), id -> next.run());
+        }
+    }
+
+    private void npm(RoutingContext ctx) {
+        String path = URLDecoder.decode(ctx.request().path().replace("+", "%2B"), StandardCharsets.UTF_8).substring(1);
+        int tarball = path.indexOf("/-/");
+        if (tarball > 0) {
+            sendFile(ctx, fixtures.resolve(path.substring(0, tarball)).resolve(path.substring(tarball + 3)),
+                    "application/octet-stream");
+            return;
+        }
+        String[] parts = path.split("/");
+        int nameParts = path.startsWith("@") ? 2 : 1;
+        if (parts.length < nameParts) {
+            notFound(ctx);
+            return;
+        }
+        String name = String.join("/", Arrays.copyOf(parts, nameParts));
+        Path packument = fixtures.resolve(name).resolve("packument.json");
+        if (!Files.exists(packument)) {
+            notFound(ctx);
+            return;
+        }
+        JsonObject project = new JsonObject(readPackument(packument));
+        if (parts.length == nameParts) {
+            json(ctx, project);
+            return;
+        }
+        String version = parts[nameParts];
+        JsonObject distTags = project.getJsonObject("dist-tags", new JsonObject());
+        if (version.equals("*")) {
+            version = distTags.getString("latest");
+        } else if (distTags.containsKey(version)) {
+            version = distTags.getString(version);
+        }
+        JsonObject p = project.getJsonObject("versions", new JsonObject()).getJsonObject(version);
+        if (p == null) {
+            notFound(ctx);
+        } else {
+            json(ctx, p);
+        }
+    }
+
+    private void search(RoutingContext ctx) {
+        json(ctx, new JsonObject().put("objects", new JsonArray()).put("total", 0));
+    }
+
+    private void upload(RoutingContext ctx) {
+        int id = uploads.incrementAndGet();
+        uploadedBytes.addAndGet(ctx.body().length());
+        ctx.response().setStatusCode(201).putHeader("Content-Type", "text/plain").end("fake-deployment-" + id);
+    }
+
+    private void status(RoutingContext ctx) {
+        json(ctx, new JsonObject()
+                .put("deploymentId", ctx.request().getParam("id"))
+                .put("deploymentState", "PUBLISHED"));
+    }
+
+    private void published(RoutingContext ctx) {
+        json(ctx, new JsonObject().put("published", false));
+    }
+
+    private String readPackument(Path packument) {
+        try {
+            return Files.readString(packument).replace(NPM_REGISTRY, url());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void sendFile(RoutingContext ctx, Path file, String contentType) {
+        if (!Files.isRegularFile(file)) {
+            notFound(ctx);
+            return;
+        }
+        ctx.response().putHeader("Content-Type", contentType).sendFile(file.toString());
+    }
+
+    private void json(RoutingContext ctx, JsonObject json) {
+        ctx.response().putHeader("Content-Type", "application/json").end(json.encode());
+    }
+
+    private void notFound(RoutingContext ctx) {
+        ctx.response().setStatusCode(404).putHeader("Content-Type", "application/json").end("{\"error\":\"Not found\"}");
+    }
+
+    private static Path defaultFixtures() {
+        URL url = FakeRegistry.class.getClassLoader().getResource("npm-registry");
+        if (url == null) {
+            throw new IllegalStateException("No npm-registry fixtures on the classpath");
+        }
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Run standalone, e.g. for load tests: FakeRegistry [fixtures dir] [port]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Path fixtures = args.length > 0 ? Path.of(args[0]) : defaultFixtures();
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8090;
+        FakeRegistry registry = start(fixtures, port, System.nanoTime());
+        System.out.println("Fake npm registry and Central publisher on " + registry.url() + " serving " + fixtures);
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,36 @@
+package io.mvnpm.fake;
+
+import java.util.Map;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+
+/**
+ * Points the npm registry and Central clients to a {@link FakeRegistry}, for tests that must not go online.
+ * Use with @WithTestResource(FakeRegistryResource.class), see MavenRepositoryOfflineTest.
+ *
+ * @author Phillip Kruger (phillip.kruger@gmail.com)
+ */
+public class FakeRegistryResource implements QuarkusTestResourceLifecycleManager {
+
+    private FakeRegistry registry;
+
+    @Override
+    public Map<String, String> start() {
+        registry = FakeRegistry.start();
+        return Map.of(
+                "quarkus.rest-client.npm-registry.url", registry.url(),
+                "quarkus.rest-client.mavencentral.url", registry.url());
+    }
+
+    @Override
+    public void stop() {
+        if (registry != null) {
+            registry.close();
+        }
+    }
+
+    @Override
+    public void inject(TestInjector testInjector) {
+        testInjector.injectIntoFields(registry, new TestInjector.MatchesType(FakeRegistry.class));
+    }
+}
@@ -0,0 +1,74 @@
+package io.mvnpm.fake;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.json.JsonObject;
+
+class FakeRegistryTest {
+
+    private static FakeRegistry registry;
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void start() {
+        registry = FakeRegistry.start();
+    }
+
+    @AfterAll
+    static void stop() {
+        registry.close();
+    }
+
+    @Test
+    void servesPackumentAndTarball() throws Exception {
+        HttpResponse<String> packument = get("/mvnpm-fixture");
+        assertEquals(200, packument.statusCode());
+        JsonObject project = new JsonObject(packument.body());
+        assertEquals("1.0.1", project.getJsonObject("dist-tags").getString("latest"));
+
+        String tarball = project.getJsonObject("versions").getJsonObject("1.0.1")
+                .getJsonObject("dist").getString("tarball");
+        assertTrue(tarball.startsWith(registry.url()), tarball);
+        HttpResponse<byte[]> tgz = client.send(HttpRequest.newBuilder(URI.create(tarball)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, tgz.statusCode());
+        assertEquals(0x1f, tgz.body()[0] & 0xff);
+    }
+
+    @Test
+    void servesScopedVersionAndDistTag() throws Exception {
+        HttpResponse<String> latest = get("/%40mvnpm-fixture%2Fscoped/latest");
+        assertEquals(200, latest.statusCode());
+        assertEquals("0.1.0", new JsonObject(latest.body()).getString("version"));
+        assertEquals(404, get("/%40mvnpm-fixture%2Fscoped/9.9.9").statusCode());
+        assertEquals(404, get("/does-not-exist").statusCode());
+    }
+
+    @Test
+    void throttles() throws Exception {
+        registry.throttleRate(1, 7);
+        try {
+            HttpResponse<String> response = get("/mvnpm-fixture");
+            assertEquals(429, response.statusCode());
+            assertEquals("7", response.headers().firstValue("Retry-After").orElseThrow());
+        } finally {
+            registry.throttleRate(0, 1);
+        }
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(registry.url() + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Optional;
 
@@ -17,8 +18,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.mvnpm.Constants;
 import io.mvnpm.creator.FileType;
 import io.mvnpm.creator.PackageCreator;
+import io.mvnpm.creator.PackageFileLocator;
 import io.mvnpm.mavencentral.sync.CentralSyncItem;
 import io.mvnpm.mavencentral.sync.CentralSyncItemService;
 import io.mvnpm.mavencentral.sync.CentralSyncService;
@@ -40,6 +45,12 @@ class MavenRepositoryApiCleanupTest {
     @Inject
     CentralSyncItemService centralSyncItemService;
 
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    PackageFileLocator packageFileLocator;
+
     @InjectMock
     CentralSyncService centralSyncService;
 
@@ -132,6 +143,57 @@ class MavenRepositoryApiCleanupTest {
         assertEquals(Stage.PACKAGING, found.stage, "Sync item should remain on success path");
     }
 
+    @Test
+    void resolveAndStream_recordsRequestMetric() {
+        CentralSyncItem item = insertItem("org.mvnpm", "measured-pkg", "1.0.0");
+        Mockito.when(centralSyncService.checkReleaseInDbAndCentral("org.mvnpm", "measured-pkg", "1.0.0", true))
+                .thenReturn(item);
+        Mockito.when(mavenRepositoryService.getPath(Mockito.any(Name.class), Mockito.eq("1.0.0"), Mockito.eq(FileType.jar)))
+                .thenThrow(createGetPackageException(404));
+        long before = notFoundMisses();
+
+        NameVersion nv = new NameVersion(NameParser.fromNpmProject("measured-pkg"), "1.0.0");
+        assertThrows(GetPackageException.class, () -> api.resolveAndStream(nv, FileType.jar, Optional.empty(),
+                mavenRepositoryService::getPath));
+
+        assertEquals(before + 1, notFoundMisses());
+    }
+
+    @Test
+    void resolveAndStream_cacheTagIsForTheRequestedFile() throws Exception {
+        CentralSyncItem item = insertItem("org.mvnpm", "hashed-pkg", "1.0.0");
+        Mockito.when(centralSyncService.checkReleaseInDbAndCentral("org.mvnpm", "hashed-pkg", "1.0.0", true))
+                .thenReturn(item);
+        Mockito.when(mavenRepositoryService.getSha1(Mockito.any(Name.class), Mockito.eq("1.0.0"), Mockito.eq(FileType.jar)))
+                .thenThrow(createGetPackageException(404));
+        Name name = NameParser.fromNpmProject("hashed-pkg");
+        // The jar is there, but not its sha1
+        Path jar = packageFileLocator.getLocalFullPath(FileType.jar, name, "1.0.0");
+        Files.createDirectories(jar.getParent());
+        Files.writeString(jar, "jar");
+        long before = notFoundMisses("sha1");
+        try {
+            NameVersion nv = new NameVersion(name, "1.0.0");
+            assertThrows(GetPackageException.class, () -> api.resolveAndStream(nv, FileType.jar,
+                    Optional.of(Constants.DOT_SHA1), mavenRepositoryService::getSha1));
+
+            assertEquals(before + 1, notFoundMisses("sha1"));
+        } finally {
+            Files.deleteIfExists(jar);
+        }
+    }
+
+    private long notFoundMisses() {
+        return notFoundMisses("main");
+    }
+
+    private long notFoundMisses(String file) {
+        Timer timer = meterRegistry.find("mvnpm.maven.request")
+                .tags("type", "jar", "file", file, "cache", "miss", "outcome", "not-found")
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
     @Transactional
     CentralSyncItem insertItem(String groupId, String artifactId, String version) {
         return centralSyncItemService.findOrCreate(groupId, artifactId, version, Stage.PACKAGING);
@@ -0,0 +1,203 @@
+package io.mvnpm.mavencentral.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import io.mvnpm.npm.NpmRegistryFacade;
+import io.mvnpm.npm.model.DistTags;
+import io.mvnpm.npm.model.Name;
+import io.mvnpm.npm.model.NameParser;
+import io.mvnpm.npm.model.ProjectInfo;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+
+@QuarkusTest
+class BulkSyncTest {
+
+    private static final Name LIT = NameParser.fromNpmProject("lit");
+
+    @Inject
+    BulkSyncService bulkSyncService;
+
+    @InjectMock
+    NpmRegistryFacade npmRegistryFacade;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        BulkSyncItem.deleteAll();
+        BulkSync.deleteAll();
+        CentralSyncItem.deleteAll();
+    }
+
+    @Test
+    void planBackoffDoublesUpToTheMax() {
+        assertEquals(Duration.ofMinutes(1), BulkSync.planBackoff(1));
+        assertEquals(Duration.ofMinutes(2), BulkSync.planBackoff(2));
+        assertEquals(Duration.ofMinutes(8), BulkSync.planBackoff(4));
+        assertEquals(Duration.ofHours(1), BulkSync.planBackoff(100));
+    }
+
+    @Test
+    void claimMovesToPlanning() {
+        BulkSyncProgress requested = bulkSyncService.request(LIT.mvnGroupId, LIT.mvnArtifactId, null);
+
+        BulkSync claimed = bulkSyncService.claim();
+
+        assertEquals(requested.id(), claimed.id);
+        assertEquals(BulkSync.Status.PLANNING, claimed.status);
+        assertEquals(1, claimed.attempts);
+        assertNotNull(claimed.owner);
+        assertEquals(BulkSync.Status.PLANNING, bulkSyncService.getProgress(claimed.id).status());
+        assertNull(bulkSyncService.claim(), "Not planned twice");
+        assertEquals(requested.id(),
+                bulkSyncService.request(LIT.mvnGroupId, LIT.mvnArtifactId, null).id(), "Still active");
+    }
+
+    @Test
+    void staleHeartbeatIsTakenOver() {
+        Mockito.when(npmRegistryFacade.getProjectInfo("lit"))
+                .thenReturn(new ProjectInfo(new DistTags("3.1.0", null), Set.of("3.1.0"), null));
+        bulkSyncService.request(LIT.mvnGroupId, LIT.mvnArtifactId, null);
+        BulkSync claimed = bulkSyncService.claim();
+        assertTrue(heartbeat(claimed.id, claimed.owner));
+
+        setHeartbeat(claimed.id, LocalDateTime.now().minusHours(1));
+        BulkSync takenOver = claimNext("other-pod", LocalDateTime.now().minusMinutes(10));
+
+        assertEquals(claimed.id, takenOver.id);
+        assertEquals("other-pod", takenOver.owner);
+        assertEquals(BulkSync.Status.PLANNING, takenOver.status);
+        assertEquals(2, takenOver.attempts);
+        assertFalse(heartbeat(claimed.id, claimed.owner), "The first owner stops");
+        assertFalse(bulkSyncService.plan(claimed, LIT), "The first owner does not plan");
+        assertEquals(0, bulkSyncService.getProgress(claimed.id).total());
+    }
+
+    @Test
+    void runningIsTakenOverWithoutNewAttempt() {
+        bulkSyncService.request(LIT.mvnGroupId, LIT.mvnArtifactId, null);
+        setStatus(bulkSyncService.claim().id, BulkSync.Status.RUNNING);
+
+        assertNull(claimNext("other-pod", LocalDateTime.now().minusMinutes(10)), "Heartbeat is recent");
+        BulkSync takenOver = claimNext("other-pod", LocalDateTime.now().plusMinutes(1));
+
+        assertEquals(BulkSync.Status.RUNNING, takenOver.status);
+        assertEquals(1, takenOver.attempts);
+    }
+
+    @Test
+    void planCreatesItemsAndRuns() {
+        Mockito.when(npmRegistryFacade.getProjectInfo("lit")).thenReturn(new ProjectInfo(new DistTags("3.1.0", null),
+                Set.of("2.0.0", "3.0.0", "3.1.0", "3.2.0-beta.1", "not-a-version"), null));
+        bulkSyncService.request(LIT.mvnGroupId, LIT.mvnArtifactId, "[3,)");
+        BulkSync claimed = bulkSyncService.claim();
+
+        assertTrue(bulkSyncService.plan(claimed, LIT));
+
+        BulkSyncProgress progress = bulkSyncService.getProgress(claimed.id);
+        assertEquals(BulkSync.Status.RUNNING, progress.status());
+        assertEquals(2, progress.total(), "Stable versions in the range");
+        assertEquals(2L, progress.states().get(BulkSyncItem.State.PENDING));
+        assertNull(bulkSyncService.claim());
+    }
+
+    @Test
+    void planFailureIsRecordedAndRetriedLater() {
+        Mockito.when(npmRegistryFacade.getProjectInfo("lit")).thenThrow(new IllegalStateException("npm is down"));
+        bulkSyncService.request(LIT.mvnGroupId, LIT.mvnArtifactId, null);
+        BulkSync claimed = bulkSyncService.claim();
+
+        assertFalse(bulkSyncService.plan(claimed, LIT));
+
+        BulkSync failed = find(claimed.id);
+        assertEquals(BulkSync.Status.PLANNED, failed.status);
+        assertEquals("npm is down", failed.lastError);
+        assertNull(failed.owner);
+        Duration untilRetry = Duration.between(LocalDateTime.now(), failed.runAfter);
+        assertTrue(untilRetry.toSeconds() > 50 && untilRetry.toSeconds() <= 60, "Was: " + untilRetry);
+        assertNull(bulkSyncService.claim(), "Not claimed again before the backoff");
+    }
+
+    @Test
+    void planFailsAfterMaxAttempts() {
+        bulkSyncService.request(LIT.mvnGroupId, LIT.mvnArtifactId, null);
+        BulkSync claimed = bulkSyncService.claim();
+
+        planFailed(claimed.id, claimed.owner, 1);
+
+        BulkSync failed = find(claimed.id);
+        assertEquals(BulkSync.Status.FAILED, failed.status);
+        assertNotNull(failed.finishedTime);
+        assertNotEquals(claimed.id, bulkSyncService.request(LIT.mvnGroupId, LIT.mvnArtifactId, null).id(),
+                "A failed bulk sync can be requested again");
+    }
+
+    @Test
+    void cancelWhilePlanning() {
+        bulkSyncService.request(LIT.mvnGroupId, LIT.mvnArtifactId, null);
+        BulkSync claimed = bulkSyncService.claim();
+
+        assertEquals(BulkSync.Status.CANCELLED, bulkSyncService.cancel(claimed.id).status());
+        assertFalse(heartbeat(claimed.id, claimed.owner));
+    }
+
+    @Test
+    void adminApiIsOffByDefault() {
+        RestAssured.given().post("/admin/bulk-sync/request/org.mvnpm/lit").then().statusCode(404);
+        RestAssured.given().post("/admin/bulk-sync/1/cancel").then().statusCode(404);
+        RestAssured.given().get("/api/bulk-sync/request/org.mvnpm/lit").then().statusCode(404);
+        assertEquals(0, count());
+    }
+
+    @Transactional
+    BulkSync claimNext(String owner, LocalDateTime staleBefore) {
+        return BulkSync.claimNext(owner, staleBefore);
+    }
+
+    @Transactional
+    boolean heartbeat(Long id, String owner) {
+        return BulkSync.heartbeat(id, owner);
+    }
+
+    @Transactional
+    void planFailed(Long id, String owner, int maxAttempts) {
+        BulkSync.planFailed(id, owner, "failed", maxAttempts);
+    }
+
+    @Transactional
+    void setHeartbeat(Long id, LocalDateTime heartbeat) {
+        BulkSync.update("heartbeat = ?1 where id = ?2", heartbeat, id);
+    }
+
+    @Transactional
+    void setStatus(Long id, BulkSync.Status status) {
+        BulkSync.update("status = ?1 where id = ?2", status, id);
+    }
+
+    @Transactional
+    long count() {
+        return BulkSync.count();
+    }
+
+    @Transactional
+    BulkSync find(Long id) {
+        return BulkSync.findById(id);
+    }
+}
@@ -0,0 +1,103 @@
+package io.mvnpm.mavencentral.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.mvnpm.creator.PackageFileLocator;
+import io.mvnpm.mavencentral.exceptions.MissingFilesForBundleException;
+
+class BundleCreatorOfflineTest {
+
+    private static final String BASE = "org/mvnpm/lit/3.2.1/";
+    private static final List<String> FILES = List.of("lit-3.2.1.pom", "lit-3.2.1.jar", "lit-3.2.1-sources.jar",
+            "lit-3.2.1-javadoc.jar");
+
+    @TempDir
+    Path dir;
+
+    private BundleCreator bundleCreator;
+
+    @BeforeEach
+    void setUp() {
+        bundleCreator = new BundleCreator();
+        bundleCreator.packageFileLocator = new PackageFileLocator() {
+            @Override
+            public Path getLocalDirectory(String groupId, String artifactId, String version) {
+                return dir;
+            }
+        };
+    }
+
+    @Test
+    void jarsAreStoredTheRestIsDeflated() throws Exception {
+        for (String file : FILES) {
+            write(file);
+            write(file + ".asc");
+            write(file + ".md5");
+            write(file + ".sha1");
+        }
+
+        Path bundle = bundleCreator.bundle("org.mvnpm", "lit", "3.2.1");
+
+        Map<String, ZipArchiveEntry> entries = new LinkedHashMap<>();
+        try (ZipFile zipFile = ZipFile.builder().setPath(bundle).get()) {
+            for (ZipArchiveEntry entry : Collections.list(zipFile.getEntries())) {
+                entries.put(entry.getName(), entry);
+                try (InputStream in = zipFile.getInputStream(entry)) {
+                    assertEquals(content(entry.getName().substring(BASE.length())),
+                            new String(in.readAllBytes(), StandardCharsets.UTF_8), entry.getName());
+                }
+            }
+        }
+        assertEquals(16, entries.size());
+        for (String file : FILES) {
+            int method = file.endsWith(".jar") ? ZipArchiveEntry.STORED : ZipArchiveEntry.DEFLATED;
+            assertEquals(method, entries.get(BASE + file).getMethod(), file);
+            assertEquals(ZipArchiveEntry.DEFLATED, entries.get(BASE + file + ".asc").getMethod(), file + ".asc");
+            assertTrue(entries.containsKey(BASE + file + ".md5"));
+            assertTrue(entries.containsKey(BASE + file + ".sha1"));
+        }
+    }
+
+    @Test
+    void missingFilesAreRejected() throws IOException {
+        for (String file : FILES) {
+            write(file);
+            write(file + ".md5");
+            write(file + ".sha1");
+        }
+
+        MissingFilesForBundleException e = assertThrows(MissingFilesForBundleException.class,
+                () -> bundleCreator.bundle("org.mvnpm", "lit", "3.2.1"));
+
+        assertTrue(e.getMessage().contains("lit-3.2.1.jar.asc"), e.getMessage());
+        assertFalse(e.getMessage().contains("lit-3.2.1.jar.md5"), e.getMessage());
+        assertFalse(Files.exists(dir.resolve("lit-3.2.1-bundle.jar")));
+    }
+
+    private void write(String file) throws IOException {
+        Files.writeString(dir.resolve(file), content(file));
+    }
+
+    private static String content(String file) {
+        return ("Content of " + file + "\n").repeat(20);
+    }
+}
@@ -146,11 +146,10 @@ class ContinuousSyncServiceTest {
     }
 
     @Test
-    void claimNextForUpload_claimsOldestInitItem() {
+    void claimForUpload_claimsInitItem() {
         createInitItem("org.mvnpm", "first", "1.0.0");
-        createInitItem("org.mvnpm", "second", "1.0.0");
 
-        CentralSyncItem claimed = centralSyncItemService.claimNextForUpload();
+        CentralSyncItem claimed = centralSyncItemService.claimForUpload(new Gav("org.mvnpm", "first", "1.0.0"));
 
         assertNotNull(claimed);
         assertEquals("first", claimed.artifactId);
@@ -159,31 +158,31 @@ class ContinuousSyncServiceTest {
     }
 
     @Test
-    void claimNextForUpload_returnsNullWhenEmpty() {
-        CentralSyncItem claimed = centralSyncItemService.claimNextForUpload();
+    void claimForUpload_returnsNullWhenMissing() {
+        CentralSyncItem claimed = centralSyncItemService.claimForUpload(new Gav("org.mvnpm", "missing", "1.0.0"));
         assertNull(claimed);
     }
 
     @Test
-    void claimNextForUpload_skipsNonInitItems() {
+    void claimForUpload_skipsUploadingItems() {
         createItem("org.mvnpm", "uploading-pkg", "1.0.0");
         changeStage("org.mvnpm", "uploading-pkg", "1.0.0", Stage.UPLOADING);
 
-        CentralSyncItem claimed = centralSyncItemService.claimNextForUpload();
+        CentralSyncItem claimed = centralSyncItemService
+                .claimForUpload(new Gav("org.mvnpm", "uploading-pkg", "1.0.0"));
         assertNull(claimed);
     }
 
     @Test
-    void claimNextForUpload_sequentialClaimsGetDifferentItems() {
+    void claimForUpload_onlyOnce() {
         createInitItem("org.mvnpm", "a", "1.0.0");
-        createInitItem("org.mvnpm", "b", "1.0.0");
+        Gav gav = new Gav("org.mvnpm", "a", "1.0.0");
 
-        CentralSyncItem first = centralSyncItemService.claimNextForUpload();
-        CentralSyncItem second = centralSyncItemService.claimNextForUpload();
+        CentralSyncItem first = centralSyncItemService.claimForUpload(gav);
+        CentralSyncItem second = centralSyncItemService.claimForUpload(gav);
 
         assertNotNull(first);
-        assertNotNull(second);
-        assertNotEquals(first.artifactId, second.artifactId);
+        assertNull(second, "Already uploading");
     }
 
     @Transactional
@@ -291,8 +290,35 @@ class ContinuousSyncServiceTest {
         assertNotNull(claimed);
         assertEquals("err-specific", claimed.artifactId);
         assertEquals(Stage.PACKAGING, claimed.stage);
-        assertEquals(2, claimed.uploadAttempts);
-        assertEquals(1, claimed.promotionAttempts);
+        // Counters are kept, the backoff comes from the error retries
+        assertEquals(3, claimed.uploadAttempts);
+        assertEquals(2, claimed.promotionAttempts);
+        assertEquals(1, claimed.errorRetries);
+    }
+
+    @Test
+    void claimNextForErrorRetry_skipsItemsNotDueYet() {
+        createInitItem("org.mvnpm", "err-later", "1.0.0");
+        changeStage("org.mvnpm", "err-later", "1.0.0", Stage.ERROR);
+        setNextAttemptAt("org.mvnpm", "err-later", "1.0.0", LocalDateTime.now().plusHours(1));
+
+        assertNull(centralSyncItemService.claimNextForErrorRetry());
+
+        setNextAttemptAt("org.mvnpm", "err-later", "1.0.0", LocalDateTime.now().minusMinutes(1));
+        assertNotNull(centralSyncItemService.claimNextForErrorRetry());
+    }
+
+    @Test
+    void changeStageToErrorSchedulesRetry() {
+        CentralSyncItem item = createInitItem("org.mvnpm", "failing-pkg", "1.0.0");
+        item.lastFailure = FailureClass.CENTRAL_RATE_LIMITED;
+
+        centralSyncItemService.changeStage(item, Stage.ERROR);
+
+        CentralSyncItem updated = reloadItem("org.mvnpm", "failing-pkg", "1.0.0");
+        assertEquals(FailureClass.CENTRAL_RATE_LIMITED, updated.lastFailure, "Still shows why it failed");
+        assertNotNull(updated.nextAttemptAt);
+        assertTrue(updated.nextAttemptAt.isAfter(LocalDateTime.now().plusMinutes(29)));
     }
 
     @Test
@@ -402,6 +428,15 @@ class ContinuousSyncServiceTest {
         }
     }
 
+    @Transactional
+    void setNextAttemptAt(String groupId, String artifactId, String version, LocalDateTime nextAttemptAt) {
+        CentralSyncItem item = CentralSyncItem.findById(new Gav(groupId, artifactId, version));
+        if (item != null) {
+            item.nextAttemptAt = nextAttemptAt;
+            item.persist();
+        }
+    }
+
     @Transactional
     void setAttemptCounters(String groupId, String artifactId, String version,
             int uploadAttempts, int promotionAttempts) {
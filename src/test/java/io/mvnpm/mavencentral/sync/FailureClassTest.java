@@ -0,0 +1,66 @@
+package io.mvnpm.mavencentral.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import io.mvnpm.mavencentral.exceptions.MissingFilesForBundleException;
+import io.mvnpm.mavencentral.exceptions.UploadFailedException;
+
+class FailureClassTest {
+
+    @Test
+    void backoffDoublesUpToTheMax() {
+        assertEquals(Duration.ofMinutes(1), FailureClass.MISSING_FILES.backoff(1));
+        assertEquals(Duration.ofMinutes(2), FailureClass.MISSING_FILES.backoff(2));
+        assertEquals(Duration.ofMinutes(16), FailureClass.MISSING_FILES.backoff(5));
+        assertEquals(Duration.ofMinutes(30), FailureClass.MISSING_FILES.backoff(6));
+        assertEquals(Duration.ofMinutes(30), FailureClass.MISSING_FILES.backoff(Integer.MAX_VALUE));
+        assertEquals(Duration.ofMinutes(1), FailureClass.MISSING_FILES.backoff(0));
+    }
+
+    @Test
+    void nextAttemptIsJittered() {
+        Duration backoff = FailureClass.ERROR.backoff(3);
+        boolean different = false;
+        LocalDateTime first = null;
+        for (int i = 0; i < 20; i++) {
+            LocalDateTime before = LocalDateTime.now();
+            LocalDateTime next = FailureClass.ERROR.nextAttempt(3);
+            assertFalse(next.isBefore(before.plus(backoff.dividedBy(2))), "Too early: " + next);
+            assertFalse(next.isAfter(LocalDateTime.now().plus(backoff)), "Too late: " + next);
+            if (first == null) {
+                first = next;
+            } else if (Duration.between(first, next).abs().toSeconds() > 1) {
+                different = true;
+            }
+        }
+        assertTrue(different, "Retries should be spread out");
+    }
+
+    @Test
+    void classifyCentralRateLimit() {
+        UploadFailedException rateLimited = new UploadFailedException("HTTP Response status [429]", 429);
+        assertEquals(FailureClass.CENTRAL_RATE_LIMITED, FailureClass.of(rateLimited));
+        // The facade wraps it
+        assertEquals(FailureClass.CENTRAL_RATE_LIMITED,
+                FailureClass.of(new UploadFailedException("Upload failed", rateLimited)));
+        assertEquals(FailureClass.OTHER, FailureClass.of(new UploadFailedException("HTTP Response status [500]", 500)));
+    }
+
+    @Test
+    void classifyMissingFiles() {
+        assertEquals(FailureClass.MISSING_FILES, FailureClass.of(new MissingFilesForBundleException("no asc")));
+    }
+
+    @Test
+    void classifyOther() {
+        assertEquals(FailureClass.OTHER, FailureClass.of(new RuntimeException("boom")));
+        assertEquals(FailureClass.OTHER, FailureClass.of(null));
+    }
+}
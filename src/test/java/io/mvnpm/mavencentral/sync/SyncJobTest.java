@@ -0,0 +1,127 @@
+package io.mvnpm.mavencentral.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class SyncJobTest {
+
+    @Inject
+    SyncJobService syncJobService;
+
+    @Inject
+    CentralSyncItemService centralSyncItemService;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        SyncJob.deleteAll();
+        CentralSyncItem.deleteAll();
+    }
+
+    @Test
+    void backoffDoublesUpToTheMax() {
+        assertEquals(Duration.ofMinutes(1), SyncJob.Type.UPLOAD.backoff(1));
+        assertEquals(Duration.ofMinutes(2), SyncJob.Type.UPLOAD.backoff(2));
+        assertEquals(Duration.ofMinutes(4), SyncJob.Type.UPLOAD.backoff(3));
+        assertEquals(Duration.ofHours(1), SyncJob.Type.UPLOAD.backoff(10));
+        assertEquals(Duration.ofHours(1), SyncJob.Type.UPLOAD.backoff(1000));
+        assertEquals(Duration.ofSeconds(30), SyncJob.Type.RELEASE_CHECK.backoff(0));
+    }
+
+    @Test
+    @Transactional
+    void enqueueIsIdempotent() {
+        assertEquals(1, SyncJob.enqueue(SyncJob.Type.UPLOAD, "org.mvnpm", "lit", "3.0.0", LocalDateTime.now()));
+        assertEquals(0, SyncJob.enqueue(SyncJob.Type.UPLOAD, "org.mvnpm", "lit", "3.0.0", LocalDateTime.now()));
+        // Another type for the same version is another job
+        assertEquals(1, SyncJob.enqueue(SyncJob.Type.RELEASE_CHECK, "org.mvnpm", "lit", "3.0.0", LocalDateTime.now()));
+        assertEquals(2, SyncJob.count());
+    }
+
+    @Test
+    void claimOnlyDueJobsOfTheType() {
+        enqueue(SyncJob.Type.UPLOAD, "due", LocalDateTime.now().minusMinutes(1));
+        enqueue(SyncJob.Type.UPLOAD, "later", LocalDateTime.now().plusHours(1));
+        enqueue(SyncJob.Type.RELEASE_CHECK, "other-type", LocalDateTime.now().minusMinutes(1));
+
+        List<SyncJob> claimed = syncJobService.claim(SyncJob.Type.UPLOAD, 10);
+
+        assertEquals(1, claimed.size());
+        assertEquals("due", claimed.get(0).artifactId);
+        assertEquals(1, claimed.get(0).attempts);
+        assertNotNull(claimed.get(0).leaseOwner);
+    }
+
+    @Test
+    void claimedJobsAreNotClaimedAgain() {
+        enqueue(SyncJob.Type.UPLOAD, "a", LocalDateTime.now().minusMinutes(1));
+        enqueue(SyncJob.Type.UPLOAD, "b", LocalDateTime.now().minusMinutes(1));
+        enqueue(SyncJob.Type.UPLOAD, "c", LocalDateTime.now().minusMinutes(1));
+
+        assertEquals(2, syncJobService.claim(SyncJob.Type.UPLOAD, 2).size());
+        assertEquals(1, syncJobService.claim(SyncJob.Type.UPLOAD, 2).size());
+        assertTrue(syncJobService.claim(SyncJob.Type.UPLOAD, 2).isEmpty());
+    }
+
+    @Test
+    void retryLaterReleasesTheLeaseWithBackoff() {
+        enqueue(SyncJob.Type.UPLOAD, "flaky", LocalDateTime.now().minusMinutes(1));
+        SyncJob job = syncJobService.claim(SyncJob.Type.UPLOAD, 1).get(0);
+
+        syncJobService.retryLater(job, "Upload failed");
+
+        SyncJob retried = find(SyncJob.Type.UPLOAD, "flaky");
+        assertNull(retried.leaseOwner);
+        assertEquals("Upload failed", retried.lastError);
+        Duration untilRetry = Duration.between(LocalDateTime.now(), retried.runAfter);
+        assertTrue(untilRetry.toSeconds() > 50 && untilRetry.toSeconds() <= 60, "Was: " + untilRetry);
+        assertTrue(syncJobService.claim(SyncJob.Type.UPLOAD, 1).isEmpty());
+    }
+
+    @Test
+    void completeRemovesTheJob() {
+        enqueue(SyncJob.Type.RELEASE_CHECK, "done", LocalDateTime.now().minusMinutes(1));
+        SyncJob job = syncJobService.claim(SyncJob.Type.RELEASE_CHECK, 1).get(0);
+
+        syncJobService.complete(job);
+
+        assertNull(find(SyncJob.Type.RELEASE_CHECK, "done"));
+    }
+
+    @Test
+    void stageChangesAddJobs() {
+        CentralSyncItem item = centralSyncItemService.findOrCreate("org.mvnpm", "queued", "1.0.0", Stage.INIT);
+        assertNotNull(find(SyncJob.Type.UPLOAD, "queued"));
+
+        item.stagingRepoId = "release-1";
+        centralSyncItemService.changeStage(item, Stage.UPLOADED);
+        SyncJob releaseCheck = find(SyncJob.Type.RELEASE_CHECK, "queued");
+        assertNotNull(releaseCheck);
+        assertTrue(releaseCheck.runAfter.isAfter(LocalDateTime.now()));
+    }
+
+    @Transactional
+    void enqueue(SyncJob.Type type, String artifactId, LocalDateTime runAfter) {
+        SyncJob.enqueue(type, "org.mvnpm", artifactId, "1.0.0", runAfter);
+    }
+
+    @Transactional
+    SyncJob find(SyncJob.Type type, String artifactId) {
+        return SyncJob.findById(new SyncJobId(type, "org.mvnpm", artifactId, "1.0.0"));
+    }
+}
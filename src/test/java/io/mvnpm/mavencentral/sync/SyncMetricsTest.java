@@ -0,0 +1,69 @@
+package io.mvnpm.mavencentral.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class SyncMetricsTest {
+
+    @Inject
+    SyncMetrics syncMetrics;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    CentralSyncItemService centralSyncItemService;
+
+    @BeforeEach
+    @Transactional
+    void cleanup() {
+        SyncJob.deleteAll();
+        CentralSyncItem.deleteAll();
+    }
+
+    @Test
+    void stageChangesAreCountedAndTimed() {
+        double before = transitions(Stage.INIT, Stage.UPLOADED);
+        Timer timer = meterRegistry.find("mvnpm.sync.stage.time").tag("stage", "INIT").timer();
+        long timedBefore = timer == null ? 0 : timer.count();
+
+        CentralSyncItem item = centralSyncItemService.findOrCreate("org.mvnpm", "measured", "1.0.0", Stage.INIT);
+        item.stagingRepoId = "release-1";
+        centralSyncItemService.changeStage(item, Stage.UPLOADED);
+
+        assertEquals(before + 1, transitions(Stage.INIT, Stage.UPLOADED));
+        assertEquals(timedBefore + 1, meterRegistry.get("mvnpm.sync.stage.time").tag("stage", "INIT").timer().count());
+    }
+
+    @Test
+    void queueDepthPerStage() {
+        centralSyncItemService.findOrCreate("org.mvnpm", "a", "1.0.0", Stage.INIT);
+        centralSyncItemService.findOrCreate("org.mvnpm", "b", "1.0.0", Stage.INIT);
+        centralSyncItemService.findOrCreate("org.mvnpm", "c", "1.0.0", Stage.PACKAGING);
+
+        syncMetrics.refresh();
+
+        assertEquals(2, meterRegistry.get("mvnpm.sync.stage.items").tag("stage", "INIT").gauge().value());
+        assertEquals(1, meterRegistry.get("mvnpm.sync.stage.items").tag("stage", "PACKAGING").gauge().value());
+        assertEquals(0, meterRegistry.get("mvnpm.sync.stage.items").tag("stage", "ERROR").gauge().value());
+        assertTrue(meterRegistry.get("mvnpm.sync.jobs").tag("type", "UPLOAD").gauge().value() >= 2);
+    }
+
+    private double transitions(Stage from, Stage to) {
+        Counter counter = meterRegistry.find("mvnpm.sync.stage.transitions").tag("from", from.name())
+                .tag("to", to.name()).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,48 @@
+package io.mvnpm.npm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class NpmRateLimiterTest {
+
+    private long now = 0;
+
+    private NpmRateLimiter limiter(double ratePerSecond, int burst) {
+        NpmRateLimiter limiter = new NpmRateLimiter();
+        limiter.ratePerSecond = ratePerSecond;
+        limiter.burst = burst;
+        limiter.nanoClock = () -> now;
+        return limiter;
+    }
+
+    @Test
+    void burstThenSteadyRate() {
+        NpmRateLimiter limiter = limiter(10, 2);
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), limiter.reserve());
+    }
+
+    @Test
+    void refillsOverTimeUpToBurst() {
+        NpmRateLimiter limiter = limiter(10, 2);
+        limiter.reserve();
+        limiter.reserve();
+        now += TimeUnit.SECONDS.toNanos(10);
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.reserve());
+    }
+
+    @Test
+    void disabled() {
+        NpmRateLimiter limiter = limiter(0, 0);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.reserve());
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package io.mvnpm.npm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NpmRegistryGovernorTest {
+
+    private SharedQuota quota;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        quota = new SharedQuota();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void throttledPausesEveryCall() {
+        NpmRegistryGovernor governor = governor(false);
+        governor.call(() -> throttled("1"));
+
+        long start = System.nanoTime();
+        governor.call(this::ok);
+
+        assertTrue(elapsed(start) >= 900, "Waited for the Retry-After");
+        assertEquals(0, governor.getPausedSeconds());
+    }
+
+    @Test
+    void throttledPausesOtherPodsOnce() throws Exception {
+        NpmRegistryGovernor governor = governor(true);
+        long start = System.currentTimeMillis();
+        CountDownLatch inFlight = new CountDownLatch(2);
+
+        // Both calls were in flight when npm started throttling
+        Future<?> first = executor.submit(() -> governor.call(() -> {
+            inFlight.countDown();
+            await(inFlight);
+            return throttled("2");
+        }));
+        Future<?> second = executor.submit(() -> governor.call(() -> {
+            inFlight.countDown();
+            await(inFlight);
+            sleep(50);
+            return throttled("1");
+        }));
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, quota.pauses.get(), "The second pause ends before the first");
+        assertTrue(quota.pausedUntil >= start + 2000);
+    }
+
+    @Test
+    void otherPodThrottled() {
+        NpmRegistryGovernor governor = governor(true);
+        quota.pausedUntil = System.currentTimeMillis() + 500;
+
+        long start = System.nanoTime();
+        governor.call(this::ok);
+
+        assertTrue(elapsed(start) >= 400, "Waited for the pause of the other pod");
+    }
+
+    @Test
+    void concurrencyIsLimited() throws Exception {
+        NpmRegistryGovernor governor = governor(false);
+        governor.maxConcurrency = 3;
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger max = new AtomicInteger();
+
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            calls.add(executor.submit(() -> governor.call(() -> {
+                max.accumulateAndGet(current.incrementAndGet(), Math::max);
+                sleep(20);
+                current.decrementAndGet();
+                return ok();
+            })));
+        }
+        for (Future<?> call : calls) {
+            call.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(3, max.get());
+        assertEquals(0, governor.getInFlight());
+    }
+
+    @Test
+    void concurrencyAdapts() {
+        NpmRegistryGovernor governor = governor(false);
+        governor.maxConcurrency = 8;
+        governor.minConcurrency = 2;
+
+        governor.call(() -> throttled("0"));
+        assertEquals(4, governor.getConcurrencyLimit());
+        governor.call(() -> throttled("0"));
+        governor.call(() -> throttled("0"));
+        assertEquals(2, governor.getConcurrencyLimit(), "Not below the min");
+
+        governor.call(this::ok);
+        assertEquals(2.5, governor.getConcurrencyLimit());
+        governor.call(() -> Response.serverError().build());
+        assertEquals(2.5, governor.getConcurrencyLimit(), "Errors do not count");
+    }
+
+    @Test
+    void sharedBudgetIsRespected() {
+        NpmRegistryGovernor governor = governor(true);
+        governor.sharedRatePerSecond = 10;
+        waitForStartOfSecond();
+
+        long start = System.nanoTime();
+        long window = System.currentTimeMillis() / 1000;
+        for (int i = 0; i < 15; i++) {
+            governor.call(this::ok);
+        }
+
+        assertTrue(System.currentTimeMillis() / 1000 > window, "Waited for the next second");
+        assertTrue(elapsed(start) < 2500);
+        assertTrue(quota.leases.size() < 15 / 2, "Leases are batched " + quota.leases);
+        assertEquals(List.of(2, 4, 4, 2), quota.leases.subList(0, 4), "Grow up to the max, and start small again");
+    }
+
+    @Test
+    void oneLeasePerPodAtATime() throws Exception {
+        NpmRegistryGovernor governor = governor(true);
+        quota.slow = true;
+        CountDownLatch ready = new CountDownLatch(1);
+
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(executor.submit(() -> {
+                ready.await();
+                return governor.call(this::ok);
+            }));
+        }
+        ready.countDown();
+        for (Future<?> call : calls) {
+            call.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, quota.maxConcurrentLeases.get());
+    }
+
+    @Test
+    void sharedQuotaIsTriedAgainAfterTheCoolDown() {
+        NpmRegistryGovernor governor = governor(true);
+        governor.sharedQuotaRetryAfterSeconds = 1;
+        quota.down = true;
+
+        governor.call(this::ok);
+        governor.call(this::ok);
+        assertEquals(1, quota.attempts.get(), "Only local limits during the cool-down");
+
+        quota.down = false;
+        sleep(1100);
+        governor.call(this::ok);
+
+        assertEquals(1, quota.creates.get(), "The row is created again, it might not have been at startup");
+        assertEquals(1, quota.leases.size(), "Shared again");
+    }
+
+    @Test
+    void sharedQuotaStaysLocalWhileStillDown() {
+        NpmRegistryGovernor governor = governor(true);
+        governor.sharedQuotaRetryAfterSeconds = 1;
+        quota.down = true;
+
+        governor.call(this::ok);
+        sleep(1100);
+        governor.call(this::ok);
+        governor.call(this::ok);
+
+        assertEquals(1, quota.creates.get(), "Tried again once, and a new cool-down started");
+        assertEquals(1, quota.attempts.get());
+        assertEquals(List.of(), quota.leases);
+    }
+
+    @Test
+    void retryAfter() {
+        NpmRegistryGovernor governor = governor(false);
+        assertEquals(Duration.ofSeconds(30), governor.getRetryAfter("30"));
+        assertEquals(Duration.ofSeconds(10), governor.getRetryAfter(null));
+        assertEquals(Duration.ofSeconds(10), governor.getRetryAfter("soon"));
+        assertEquals(Duration.ZERO, governor.getRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+    }
+
+    private NpmRegistryGovernor governor(boolean shared) {
+        NpmRateLimiter rateLimiter = new NpmRateLimiter();
+        rateLimiter.ratePerSecond = 0;
+        NpmRegistryGovernor governor = new NpmRegistryGovernor() {
+            @Override
+            void createShared() {
+                quota.create();
+            }
+
+            @Override
+            boolean leaseShared(long window, int tokens, long now) {
+                return quota.lease(window, tokens, sharedRatePerSecond, now);
+            }
+
+            @Override
+            long findSharedPausedUntil() {
+                return quota.pausedUntil;
+            }
+
+            @Override
+            void pauseShared(long until) {
+                quota.pauses.incrementAndGet();
+                quota.pausedUntil = Math.max(quota.pausedUntil, until);
+            }
+        };
+        governor.npmRateLimiter = rateLimiter;
+        governor.minConcurrency = 2;
+        governor.maxConcurrency = 32;
+        governor.defaultRetryAfterSeconds = 10;
+        governor.sharedQuotaEnabled = shared;
+        governor.sharedRatePerSecond = 50;
+        governor.leaseSize = 2;
+        governor.maxLeaseSize = 4;
+        governor.sharedQuotaRetryAfterSeconds = 60;
+        return governor;
+    }
+
+    private Response ok() {
+        return Response.ok().build();
+    }
+
+    private Response throttled(String retryAfter) {
+        return Response.status(429).header(HttpHeaders.RETRY_AFTER, retryAfter).build();
+    }
+
+    private static long elapsed(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static void waitForStartOfSecond() {
+        long inSecond = System.currentTimeMillis() % 1000;
+        if (inSecond > 500) {
+            sleep(1000 - inSecond);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The shared quota row, as NpmRegistryQuota.lease and pause update it
+     */
+    private static class SharedQuota {
+        final List<Integer> leases = new ArrayList<>();
+        final AtomicInteger pauses = new AtomicInteger();
+        final AtomicInteger concurrentLeases = new AtomicInteger();
+        final AtomicInteger maxConcurrentLeases = new AtomicInteger();
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicInteger creates = new AtomicInteger();
+        volatile long pausedUntil = 0;
+        volatile boolean slow = false;
+        volatile boolean down = false;
+        long windowStart = 0;
+        int used = 0;
+
+        void create() {
+            creates.incrementAndGet();
+            if (down) {
+                throw new IllegalStateException("Database is down");
+            }
+        }
+
+        boolean lease(long window, int tokens, int limit, long now) {
+            attempts.incrementAndGet();
+            if (down) {
+                throw new IllegalStateException("Database is down");
+            }
+            maxConcurrentLeases.accumulateAndGet(concurrentLeases.incrementAndGet(), Math::max);
+            try {
+                if (slow) {
+                    sleep(20);
+                }
+                synchronized (this) {
+                    if (pausedUntil > now || (windowStart == window && used + tokens > limit)) {
+                        return false;
+                    }
+                    used = windowStart == window ? used + tokens : tokens;
+                    windowStart = window;
+                    leases.add(tokens);
+                    return true;
+                }
+            } finally {
+                concurrentLeases.decrementAndGet();
+            }
+        }
+    }
+}
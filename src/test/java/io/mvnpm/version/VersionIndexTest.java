@@ -0,0 +1,53 @@
+package io.mvnpm.version;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class VersionIndexTest {
+
+    private final VersionIndex index = VersionIndex.of(List.of("2.0.0-rc.1", "1.10.0", "1.2.3", "not-a-version",
+            "1.9.9", "2.0.0-beta.2", "0.1.0", "1.2.3"));
+
+    @Test
+    void testSorted() {
+        assertEquals(List.of("0.1.0", "1.2.3", "1.9.9", "1.10.0", "2.0.0-beta.2", "2.0.0-rc.1"),
+                index.versions().stream().map(Version::toString).toList());
+        assertEquals(List.of("0.1.0", "1.2.3", "1.9.9", "1.10.0"),
+                index.stableVersions().stream().map(Version::toString).toList());
+        assertEquals(List.of("not-a-version"), index.invalidVersions());
+    }
+
+    @Test
+    void testLatest() {
+        assertEquals("2.0.0-rc.1", index.latest().toString());
+        assertEquals("1.10.0", index.latestStable().toString());
+    }
+
+    @Test
+    void testLatestMatching() {
+        assertEquals("1.10.0", index.latestMatching("[1.2.3,2)").toString());
+        assertEquals("1.9.9", index.latestMatching("[1.2.3,1.10.0)").toString());
+        assertEquals("1.2.3", index.latestMatching("1.2.3").toString());
+        assertEquals("0.1.0", index.latestMatching("[0,0.1.0],[3,)").toString());
+        assertEquals("1.10.0", index.latestMatching("[1.2.3,2.0.0-alpha)").toString());
+        assertNull(index.latestMatching("[2,)"));
+        assertNull(index.latestMatching("[1.2.3"));
+    }
+
+    @Test
+    void testEmpty() {
+        VersionIndex empty = VersionIndex.of(List.of());
+        assertNull(empty.latest());
+        assertNull(empty.latestStable());
+        assertNull(empty.latestMatching("[1,)"));
+    }
+
+    @Test
+    void testCompareWithoutMinorOrPatch() {
+        List<Version> sorted = VersionIndex.of(List.of("1.0.0", "1", "1.x", "0.9")).versions();
+        assertEquals(List.of("0.9", "1", "1.0.0"), sorted.stream().map(Version::toString).toList());
+    }
+}
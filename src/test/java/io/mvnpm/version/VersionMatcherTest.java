@@ -2,7 +2,9 @@ package io.mvnpm.version;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.jupiter.params.ParameterizedTest;
@@ -24,4 +26,22 @@ class VersionMatcherTest {
         assertNotNull(latest);
         assertEquals(expectedVersion, latest.toString());
     }
+
+    @ParameterizedTest
+    @CsvFileSource(resources = "/versions-matcher.csv", numLinesToSkip = 1)
+    void testSelectLatestMatchingSortedVersionFromCSV(String mavenRange, String expectedVersion,
+            String versionStrings) {
+        List<Version> versions = new ArrayList<>();
+        for (String versionString : versionStrings.split(",")) {
+            versions.add(Version.fromString(versionString));
+        }
+        versions.sort(null);
+        Version latest = VersionMatcher.selectLatestMatchingSortedVersion(versions, mavenRange);
+        if (expectedVersion.equals("null")) {
+            assertNull(latest);
+            return;
+        }
+        assertNotNull(latest);
+        assertEquals(expectedVersion, latest.toString());
+    }
 }